@@ -0,0 +1,64 @@
+package tagc.strategytable.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.table.StrategyTablePolicy;
+
+/**
+ * Declares a strategy table whose dispatcher is generated at compile time by
+ * {@link StrategyDispatcherProcessor}.
+ * <p>
+ * For an annotated type named {@code Foo}, a final class named
+ * {@code FooDispatcher} is generated in the same package. It dispatches
+ * operations to the strategies declared with {@link StrategyFor} by comparing
+ * the operation and element classes, and creates the equivalent
+ * {@link tagc.strategytable.table.StrategyTable} without any registration code
+ * being written by hand. The table is only created once it is asked for or a
+ * combination without a declared strategy is dispatched, and declared
+ * strategies are given a {@code null} table when the dispatcher calls them.
+ * Under
+ * {@link StrategyTablePolicy#STRICT}, any combination of operation and element
+ * type without a declared strategy is reported as a compile error.
+ * 
+ * @author David
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface GeneratedStrategyTable {
+
+	/**
+	 * The base element types that the table supports.
+	 * 
+	 * @return the base element types
+	 */
+	Class<? extends Element>[] baseElements();
+
+	/**
+	 * The decorated element types that the table supports.
+	 * 
+	 * @return the decorated element types
+	 */
+	Class<? extends Element>[] decoratedElements() default {};
+
+	/**
+	 * The operation types that the table supports.
+	 * 
+	 * @return the operation types
+	 */
+	Class<? extends Operation<?, ?>>[] operations();
+
+	/**
+	 * The policy of the table, which decides how combinations without a
+	 * declared strategy are handled.
+	 * 
+	 * @return the table policy
+	 */
+	StrategyTablePolicy policy() default StrategyTablePolicy.DEFAULT;
+}
@@ -0,0 +1,27 @@
+package tagc.strategytable.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares several combinations of operation and element type that the
+ * annotated strategy class handles.
+ * 
+ * @author David
+ * @see StrategyFor
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface StrategiesFor {
+
+	/**
+	 * The combinations handled by the annotated strategy.
+	 * 
+	 * @return the combinations of operation and element type
+	 */
+	StrategyFor[] value();
+}
@@ -0,0 +1,413 @@
+package tagc.strategytable.annotation;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * An annotation processor that generates a dispatcher class for each type
+ * annotated with {@link GeneratedStrategyTable}, using the strategies
+ * annotated with {@link StrategyFor} and {@link StrategiesFor}.
+ * <p>
+ * Only strategies compiled in the same compilation round as the table
+ * declaration are used. Configuration errors, such as strategies that do not
+ * handle the declared operation type, redirect strategies or combinations that
+ * are declared twice, are reported as compile errors.
+ * <p>
+ * The processor is registered as a service in {@code resources/META-INF}
+ * rather than in the source tree, so that compiling this project does not try
+ * to run it.
+ *
+ * @author David
+ */
+@SupportedAnnotationTypes({ "tagc.strategytable.annotation.GeneratedStrategyTable",
+		"tagc.strategytable.annotation.StrategyFor", "tagc.strategytable.annotation.StrategiesFor" })
+public class StrategyDispatcherProcessor extends AbstractProcessor {
+
+	private static final String ELEMENT_TYPE = "tagc.strategytable.element.Element";
+	private static final String STRATEGY_TYPE = "tagc.strategytable.strategy.Strategy";
+	private static final String REDIRECT_STRATEGY_TYPE = "tagc.strategytable.strategy.RedirectStrategy";
+	private static final String STRICT_POLICY = "STRICT";
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		final List<Declaration> declarations = new ArrayList<Declaration>();
+		for (javax.lang.model.element.Element annotated : roundEnv.getElementsAnnotatedWith(StrategyFor.class)) {
+			collectDeclaration((TypeElement) annotated, getAnnotation(annotated, StrategyFor.class), declarations);
+		}
+
+		for (javax.lang.model.element.Element annotated : roundEnv.getElementsAnnotatedWith(StrategiesFor.class)) {
+			final AnnotationMirror container = getAnnotation(annotated, StrategiesFor.class);
+			for (AnnotationValue value : getArray(container, "value")) {
+				collectDeclaration((TypeElement) annotated, (AnnotationMirror) value.getValue(), declarations);
+			}
+		}
+
+		for (javax.lang.model.element.Element annotated : roundEnv
+				.getElementsAnnotatedWith(GeneratedStrategyTable.class)) {
+			generateDispatcher((TypeElement) annotated, declarations);
+		}
+
+		return true;
+	}
+
+	private void collectDeclaration(TypeElement strategy, AnnotationMirror annotation, List<Declaration> declarations) {
+		final TypeElement operation = getType(annotation, "operation");
+		final TypeElement element = getType(annotation, "element");
+
+		if (strategy.getModifiers().contains(Modifier.ABSTRACT) || !strategy.getTypeParameters().isEmpty()
+				|| !hasPublicNoArgConstructor(strategy)) {
+			error(strategy, "Strategies declared with @StrategyFor must be concrete, non-generic classes with a "
+					+ "public no-argument constructor");
+			return;
+		}
+
+		final TypeElement strategyInterface = processingEnv.getElementUtils().getTypeElement(STRATEGY_TYPE);
+		final DeclaredType expectedType = processingEnv.getTypeUtils().getDeclaredType(strategyInterface,
+				operation.asType());
+		if (!processingEnv.getTypeUtils().isAssignable(strategy.asType(), expectedType)) {
+			error(strategy, String.format("%s is not a strategy for operations of type %s",
+					strategy.getSimpleName(), operation.getSimpleName()));
+			return;
+		}
+
+		/*
+		 * Declared strategies are called without a strategy table, so they
+		 * cannot be ones that need to continue dispatching through one.
+		 */
+		final TypeElement redirectInterface = processingEnv.getElementUtils().getTypeElement(REDIRECT_STRATEGY_TYPE);
+		if (processingEnv.getTypeUtils().isAssignable(strategy.asType(),
+				processingEnv.getTypeUtils().erasure(redirectInterface.asType()))) {
+			error(strategy, String.format("%s is a redirect strategy, which cannot be declared with @StrategyFor",
+					strategy.getSimpleName()));
+			return;
+		}
+
+		declarations.add(new Declaration(strategy, operation, element));
+	}
+
+	private static boolean hasPublicNoArgConstructor(TypeElement type) {
+		if (!type.getModifiers().contains(Modifier.PUBLIC))
+			return false;
+
+		for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+			if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC))
+				return true;
+		}
+
+		return false;
+	}
+
+	private void generateDispatcher(TypeElement tableType, List<Declaration> declarations) {
+		final AnnotationMirror annotation = getAnnotation(tableType, GeneratedStrategyTable.class);
+		final List<TypeElement> baseElements = getTypes(annotation, "baseElements");
+		final List<TypeElement> decoratedElements = getTypes(annotation, "decoratedElements");
+		final List<TypeElement> operations = getTypes(annotation, "operations");
+		final String policy = ((VariableElement) getValue(annotation, "policy").getValue()).getSimpleName()
+				.toString();
+
+		final List<TypeElement> elements = new ArrayList<TypeElement>(baseElements);
+		elements.addAll(decoratedElements);
+
+		final Map<TypeElement, Map<TypeElement, TypeElement>> cells = resolveCells(operations, elements, declarations);
+		if (cells == null)
+			return;
+
+		if (STRICT_POLICY.equals(policy)) {
+			boolean complete = true;
+			for (TypeElement operation : operations) {
+				for (TypeElement element : elements) {
+					if (!cells.get(operation).containsKey(element)) {
+						error(tableType, String.format(
+								"No strategy declared for applying operations of type %s to elements of type %s",
+								operation.getSimpleName(), element.getSimpleName()));
+						complete = false;
+					}
+				}
+			}
+
+			if (!complete)
+				return;
+		}
+
+		try {
+			writeDispatcher(tableType, baseElements, decoratedElements, operations, policy, cells);
+		} catch (IOException e) {
+			error(tableType, "Could not write dispatcher: " + e.getMessage());
+		}
+	}
+
+	/*
+	 * Declarations for a specific element type take precedence over those for
+	 * every element type. Returns null if the declarations conflict.
+	 */
+	private Map<TypeElement, Map<TypeElement, TypeElement>> resolveCells(List<TypeElement> operations,
+			List<TypeElement> elements, List<Declaration> declarations) {
+
+		final TypeElement anyElement = processingEnv.getElementUtils().getTypeElement(ELEMENT_TYPE);
+		final Map<TypeElement, Map<TypeElement, TypeElement>> cells = new LinkedHashMap<TypeElement, Map<TypeElement, TypeElement>>();
+		boolean valid = true;
+
+		for (TypeElement operation : operations) {
+			final Map<TypeElement, TypeElement> specific = new LinkedHashMap<TypeElement, TypeElement>();
+			TypeElement general = null;
+
+			for (Declaration declaration : declarations) {
+				if (!declaration.operation.equals(operation))
+					continue;
+
+				if (declaration.element.equals(anyElement)) {
+					if (general != null) {
+						error(declaration.strategy, String.format(
+								"Both %s and %s are declared for all elements for operations of type %s",
+								general.getSimpleName(), declaration.strategy.getSimpleName(),
+								operation.getSimpleName()));
+						valid = false;
+					}
+
+					general = declaration.strategy;
+				} else if (elements.contains(declaration.element)) {
+					if (specific.containsKey(declaration.element)) {
+						error(declaration.strategy, String.format(
+								"Both %s and %s are declared for operations of type %s on elements of type %s",
+								specific.get(declaration.element).getSimpleName(),
+								declaration.strategy.getSimpleName(), operation.getSimpleName(),
+								declaration.element.getSimpleName()));
+						valid = false;
+					}
+
+					specific.put(declaration.element, declaration.strategy);
+				}
+			}
+
+			final Map<TypeElement, TypeElement> operationCells = new LinkedHashMap<TypeElement, TypeElement>();
+			for (TypeElement element : elements) {
+				if (specific.containsKey(element)) {
+					operationCells.put(element, specific.get(element));
+				} else if (general != null) {
+					operationCells.put(element, general);
+				}
+			}
+
+			cells.put(operation, operationCells);
+		}
+
+		return valid ? cells : null;
+	}
+
+	private void writeDispatcher(TypeElement tableType, List<TypeElement> baseElements,
+			List<TypeElement> decoratedElements, List<TypeElement> operations, String policy,
+			Map<TypeElement, Map<TypeElement, TypeElement>> cells) throws IOException {
+
+		final PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(tableType);
+		final String packageName = packageElement.getQualifiedName().toString();
+		final String className = tableType.getSimpleName() + "Dispatcher";
+
+		final Set<TypeElement> strategies = new LinkedHashSet<TypeElement>();
+		for (Map<TypeElement, TypeElement> operationCells : cells.values()) {
+			strategies.addAll(operationCells.values());
+		}
+
+		final Map<TypeElement, String> strategyFields = new LinkedHashMap<TypeElement, String>();
+		for (TypeElement strategy : strategies) {
+			strategyFields.put(strategy, "STRATEGY_" + strategyFields.size());
+		}
+
+		final String qualifiedName = packageElement.isUnnamed() ? className : packageName + "." + className;
+		final PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(qualifiedName, tableType)
+				.openWriter());
+
+		try {
+			if (!packageElement.isUnnamed()) {
+				out.printf("package %s;%n%n", packageName);
+			}
+
+			out.printf("import java.util.HashSet;%n");
+			out.printf("import java.util.Set;%n%n");
+			out.printf("import tagc.strategytable.element.Element;%n");
+			out.printf("import tagc.strategytable.operation.Operation;%n");
+			out.printf("import tagc.strategytable.table.StrategyTable;%n");
+			out.printf("import tagc.strategytable.table.StrategyTablePolicy;%n%n");
+
+			out.printf("/*%n * Generated by %s from %s. Do not edit.%n */%n", getClass().getSimpleName(),
+					tableType.getQualifiedName());
+			out.printf("public final class %s {%n%n", className);
+
+			for (Entry<TypeElement, String> entry : strategyFields.entrySet()) {
+				out.printf("\tprivate static final %1$s %2$s = new %1$s();%n", entry.getKey().getQualifiedName(),
+						entry.getValue());
+			}
+
+			out.printf("%n\tprivate %s() {%n", className);
+			out.printf("\t\tthrow new AssertionError(\"%s should not be instantiable\");%n\t}%n%n", className);
+
+			/*
+			 * The table is only needed for combinations without a declared
+			 * strategy, so it is held by a nested class that is not
+			 * initialised until one of them is first dispatched.
+			 */
+			out.printf("\tprivate static final class TableHolder {%n");
+			out.printf("\t\tstatic final StrategyTable TABLE = createTable();%n\t}%n%n");
+
+			writeCreateTable(out, baseElements, decoratedElements, operations, policy, cells, strategyFields);
+
+			out.printf("\tpublic static StrategyTable getTable() {%n\t\treturn TableHolder.TABLE;%n\t}%n%n");
+
+			writeOperate(out, cells, strategyFields);
+			out.printf("}%n");
+		} finally {
+			out.close();
+		}
+	}
+
+	private void writeCreateTable(PrintWriter out, List<TypeElement> baseElements,
+			List<TypeElement> decoratedElements, List<TypeElement> operations, String policy,
+			Map<TypeElement, Map<TypeElement, TypeElement>> cells, Map<TypeElement, String> strategyFields) {
+
+		out.printf("\tpublic static StrategyTable createTable() {%n");
+		out.printf("\t\tfinal Set<Class<? extends Element>> baseElements = new HashSet<Class<? extends Element>>();%n");
+		for (TypeElement element : baseElements) {
+			out.printf("\t\tbaseElements.add(%s.class);%n", element.getQualifiedName());
+		}
+
+		out.printf("%n\t\tfinal Set<Class<? extends Element>> decoratedElements = new HashSet<Class<? extends Element>>();%n");
+		for (TypeElement element : decoratedElements) {
+			out.printf("\t\tdecoratedElements.add(%s.class);%n", element.getQualifiedName());
+		}
+
+		out.printf("%n\t\tfinal Set<Class<? extends Operation<?, ?>>> operations = new HashSet<Class<? extends Operation<?, ?>>>();%n");
+		for (TypeElement operation : operations) {
+			out.printf("\t\toperations.add(%s.class);%n", operation.getQualifiedName());
+		}
+
+		out.printf("%n\t\tfinal StrategyTable table = new StrategyTable(baseElements, decoratedElements, operations,"
+				+ " StrategyTablePolicy.%s);%n", policy);
+		for (Entry<TypeElement, Map<TypeElement, TypeElement>> operationCells : cells.entrySet()) {
+			for (Entry<TypeElement, TypeElement> cell : operationCells.getValue().entrySet()) {
+				out.printf("\t\ttable.registerOperationStrategy(%s.class, %s.class, %s);%n", operationCells.getKey()
+						.getQualifiedName(), cell.getKey().getQualifiedName(), strategyFields.get(cell.getValue()));
+			}
+		}
+
+		out.printf("\t\treturn table;%n\t}%n%n");
+	}
+
+	/*
+	 * Classes are compared by identity, so a dispatch costs a few reference
+	 * comparisons rather than hashing and comparing class names. Declared
+	 * strategies are called without a table, so dispatching to them never
+	 * creates one. Combinations without a declared strategy fall through to
+	 * the table, which applies its policy to them.
+	 */
+	private void writeOperate(PrintWriter out, Map<TypeElement, Map<TypeElement, TypeElement>> cells,
+			Map<TypeElement, String> strategyFields) {
+
+		out.printf("\tpublic static void operate(Operation<?, ?> operation, Element element) {%n");
+		out.printf("\t\tif (operation == null)%n");
+		out.printf("\t\t\tthrow new NullPointerException(\"The operation cannot be null\");%n%n");
+		out.printf("\t\tif (element == null)%n");
+		out.printf("\t\t\tthrow new NullPointerException(\"The element cannot be null\");%n%n");
+		out.printf("\t\tfinal Class<?> operationType = operation.getClass();%n");
+		out.printf("\t\tfinal Class<?> elementType = element.getClass();%n");
+
+		for (Entry<TypeElement, Map<TypeElement, TypeElement>> operationCells : cells.entrySet()) {
+			if (operationCells.getValue().isEmpty())
+				continue;
+
+			final TypeElement operation = operationCells.getKey();
+			out.printf("%n\t\tif (operationType == %s.class) {%n", operation.getQualifiedName());
+
+			for (Entry<TypeElement, TypeElement> cell : operationCells.getValue().entrySet()) {
+				out.printf("\t\t\tif (elementType == %s.class) {%n", cell.getKey().getQualifiedName());
+				out.printf("\t\t\t\t%s.execute((%s) operation, element, element.getDecorationLevel(), null);%n",
+						strategyFields.get(cell.getValue()), operation.getQualifiedName());
+				out.printf("\t\t\t\treturn;%n\t\t\t}%n");
+			}
+
+			out.printf("\t\t}%n");
+		}
+
+		out.printf("%n\t\tTableHolder.TABLE.operate(operation, element);%n\t}%n");
+	}
+
+	private AnnotationMirror getAnnotation(javax.lang.model.element.Element annotated,
+			Class<? extends java.lang.annotation.Annotation> annotationType) {
+		for (AnnotationMirror mirror : annotated.getAnnotationMirrors()) {
+			if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(
+					annotationType.getCanonicalName()))
+				return mirror;
+		}
+
+		throw new AssertionError("The element should be annotated with " + annotationType.getSimpleName());
+	}
+
+	private AnnotationValue getValue(AnnotationMirror annotation, String name) {
+		for (Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : processingEnv.getElementUtils()
+				.getElementValuesWithDefaults(annotation).entrySet()) {
+			if (entry.getKey().getSimpleName().contentEquals(name))
+				return entry.getValue();
+		}
+
+		throw new AssertionError("The annotation should have a value named " + name);
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<? extends AnnotationValue> getArray(AnnotationMirror annotation, String name) {
+		return (List<? extends AnnotationValue>) getValue(annotation, name).getValue();
+	}
+
+	private TypeElement getType(AnnotationMirror annotation, String name) {
+		return (TypeElement) ((DeclaredType) getValue(annotation, name).getValue()).asElement();
+	}
+
+	private List<TypeElement> getTypes(AnnotationMirror annotation, String name) {
+		final List<TypeElement> types = new ArrayList<TypeElement>();
+		for (AnnotationValue value : getArray(annotation, name)) {
+			types.add((TypeElement) ((DeclaredType) value.getValue()).asElement());
+		}
+
+		return types;
+	}
+
+	private void error(javax.lang.model.element.Element element, String message) {
+		processingEnv.getMessager().printMessage(Kind.ERROR, message, element);
+	}
+
+	private static class Declaration {
+		private final TypeElement strategy;
+		private final TypeElement operation;
+		private final TypeElement element;
+
+		Declaration(TypeElement strategy, TypeElement operation, TypeElement element) {
+			this.strategy = strategy;
+			this.operation = operation;
+			this.element = element;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package tagc.strategytable.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.Operation;
+
+/**
+ * Declares that the annotated {@link tagc.strategytable.strategy.Strategy}
+ * class handles operations of type {@link #operation()} on elements of type
+ * {@link #element()} in every table declared with
+ * {@link GeneratedStrategyTable} that supports both types.
+ * <p>
+ * The annotated class must be a concrete, non-generic strategy for the
+ * operation type with a public no-argument constructor. Generated dispatchers
+ * call it without a strategy table, so it cannot be a
+ * {@link tagc.strategytable.strategy.RedirectStrategy}. A strategy can handle
+ * several combinations by using {@link StrategiesFor}.
+ * 
+ * @author David
+ * @see StrategyDispatcherProcessor
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface StrategyFor {
+
+	/**
+	 * The type of operation handled by the annotated strategy.
+	 * 
+	 * @return the operation type
+	 */
+	Class<? extends Operation<?, ?>> operation();
+
+	/**
+	 * The type of element handled by the annotated strategy. If left as
+	 * {@code Element}, the strategy handles every type of element that a
+	 * table supports, except those that another strategy is declared for
+	 * specifically.
+	 * 
+	 * @return the element type
+	 */
+	Class<? extends Element> element() default Element.class;
+}
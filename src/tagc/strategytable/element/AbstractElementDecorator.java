@@ -3,9 +3,16 @@ package tagc.strategytable.element;
 public class AbstractElementDecorator implements Element {
 
 	protected final Element decoratee;
+	
+	/*
+	 * Elements are immutable, so the decoration level can be computed once
+	 * rather than by walking the whole decoration chain on every call.
+	 */
+	private final int decorationLevel;
 
 	public AbstractElementDecorator(Element decoratee) {
 		this.decoratee = decoratee;
+		this.decorationLevel = decoratee.getDecorationLevel()+1;
 	}
 
 	@Override
@@ -20,7 +27,7 @@ public class AbstractElementDecorator implements Element {
 
 	@Override
 	public final int getDecorationLevel() {
-		return decoratee.getDecorationLevel()+1;
+		return decorationLevel;
 	}
 	
 	@Override
@@ -29,10 +36,18 @@ public class AbstractElementDecorator implements Element {
 			throw new IllegalArgumentException("This element cannot be represented at decoration level "
 					+ decorationLevel);
 
-		if(decorationLevel == getDecorationLevel()) {
-			return this;
-		} else {
-			return decoratee.asDecorationAtLevel(decorationLevel);
+		/*
+		 * Walk down the decoration chain iteratively so that deeply decorated
+		 * elements don't exhaust the stack.
+		 */
+		Element element = this;
+		while (element.getDecorationLevel() > decorationLevel) {
+			if (!(element instanceof AbstractElementDecorator))
+				return element.asDecorationAtLevel(decorationLevel);
+			
+			element = ((AbstractElementDecorator) element).decoratee;
 		}
+		
+		return element;
 	}
 }
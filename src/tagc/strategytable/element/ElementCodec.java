@@ -0,0 +1,126 @@
+package tagc.strategytable.element;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes {@code Element} objects to and reads them from binary streams, so
+ * that they can be passed between processes.
+ * <p>
+ * An element is encoded as its base element's type and value followed by the
+ * types of its decorations from the innermost outwards. Only the element types
+ * created by {@link ElementFactory} can be encoded.
+ * 
+ * @author David
+ */
+public class ElementCodec {
+
+	private static final byte ADD_ELEMENT = 0;
+	private static final byte MULT_ELEMENT = 1;
+	private static final byte IGNORE_DECORATOR = 2;
+	private static final byte REVERSE_DECORATOR = 3;
+
+	private ElementCodec() {
+		throw new AssertionError("ElementCodec should not be instantiable");
+	}
+
+	/**
+	 * Writes {@code element} to {@code output}.
+	 * 
+	 * @param output
+	 *            the stream to write to
+	 * @param element
+	 *            the element to encode
+	 * @throws IOException
+	 *             if {@code output} cannot be written to
+	 * @throws NullPointerException
+	 *             if {@code output} or {@code element} are {@code null}
+	 * @throws IllegalArgumentException
+	 *             if {@code element} or any element it decorates is of a type
+	 *             that cannot be encoded
+	 */
+	public static void writeElement(DataOutput output, Element element) throws IOException {
+		if (element == null)
+			throw new NullPointerException("The element cannot be null");
+
+		final int decorationLevel = element.getDecorationLevel();
+		final byte[] decorations = new byte[decorationLevel];
+		Element current = element;
+		for (int level = decorationLevel; level > 0; level--) {
+			if (!(current instanceof AbstractElementDecorator))
+				throw new IllegalArgumentException("Elements of type " + current.getClass().getSimpleName()
+						+ " cannot be encoded");
+
+			decorations[level - 1] = getTypeCode(current);
+			current = ((AbstractElementDecorator) current).decoratee;
+		}
+
+		output.writeByte(getTypeCode(current));
+		output.writeInt(current.getValue());
+		output.writeInt(decorationLevel);
+		output.write(decorations);
+	}
+
+	/**
+	 * Reads an element previously written by {@link #writeElement} from
+	 * {@code input}.
+	 * 
+	 * @param input
+	 *            the stream to read from
+	 * @return the decoded element
+	 * @throws IOException
+	 *             if {@code input} cannot be read from or does not contain a
+	 *             valid element
+	 */
+	public static Element readElement(DataInput input) throws IOException {
+		final byte baseType = input.readByte();
+		final int value = input.readInt();
+
+		Element element;
+		switch (baseType) {
+		case ADD_ELEMENT:
+			element = ElementFactory.createAddElement(value);
+			break;
+		case MULT_ELEMENT:
+			element = ElementFactory.createMultElement(value);
+			break;
+		default:
+			throw new IOException("Unknown base element type code: " + baseType);
+		}
+
+		final int decorationLevel = input.readInt();
+		for (int level = 0; level < decorationLevel; level++) {
+			final byte decorationType = input.readByte();
+			switch (decorationType) {
+			case IGNORE_DECORATOR:
+				element = ElementFactory.addIgnoreDecoration(element);
+				break;
+			case REVERSE_DECORATOR:
+				element = ElementFactory.addReverseDecoration(element);
+				break;
+			default:
+				throw new IOException("Unknown element decorator type code: " + decorationType);
+			}
+		}
+
+		return element;
+	}
+
+	private static byte getTypeCode(Element element) {
+		final Class<?> elementType = element.getClass();
+		if (elementType == AddElement.class)
+			return ADD_ELEMENT;
+
+		if (elementType == MultElement.class)
+			return MULT_ELEMENT;
+
+		if (elementType == IgnoreElementDecorator.class)
+			return IGNORE_DECORATOR;
+
+		if (elementType == ReverseElementDecorator.class)
+			return REVERSE_DECORATOR;
+
+		throw new IllegalArgumentException("Elements of type " + elementType.getSimpleName() + " cannot be encoded");
+	}
+}
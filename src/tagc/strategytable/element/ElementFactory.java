@@ -1,8 +1,11 @@
 package tagc.strategytable.element;
 
 import java.lang.ref.SoftReference;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import tagc.strategytable.monitoring.DispatchEvents;
+import tagc.strategytable.monitoring.DispatchListener;
 
 /**
  * A factory object that creates {@code Element} objects of particular types and
@@ -14,11 +17,12 @@ public class ElementFactory {
 
 	/*
 	 * Because elements are immutable, we could maintain a cache of identical
-	 * elements to avoid unnecessary instantiation if we wanted.
+	 * elements to avoid unnecessary instantiation if we wanted. The caches are
+	 * shared by every thread creating elements.
 	 */
-	private static final Map<Integer, SoftReference<AddElement>> addElementCache = new HashMap<Integer, SoftReference<AddElement>>();
-	private static final Map<Integer, SoftReference<MultElement>> multElementCache = new HashMap<Integer, SoftReference<MultElement>>();
-	private static boolean cacheElements = true;
+	private static final ConcurrentMap<Integer, SoftReference<AddElement>> addElementCache = new ConcurrentHashMap<Integer, SoftReference<AddElement>>();
+	private static final ConcurrentMap<Integer, SoftReference<MultElement>> multElementCache = new ConcurrentHashMap<Integer, SoftReference<MultElement>>();
+	private static volatile boolean cacheElements = true;
 
 	private ElementFactory() {
 		throw new AssertionError("ElementFactory should not be instantiable");
@@ -47,11 +51,20 @@ public class ElementFactory {
 		return ElementFactory.cacheElements;
 	}
 
+	static ConcurrentMap<Integer, SoftReference<AddElement>> getAddElementCache() {
+		return addElementCache;
+	}
+
+	static ConcurrentMap<Integer, SoftReference<MultElement>> getMultElementCache() {
+		return multElementCache;
+	}
+
 	public static AddElement createAddElement(int value) {
 		AddElement newElement;
 
-		if (cacheElements && addElementCache.containsKey(value)) {
-			if ((newElement = addElementCache.get(value).get()) != null) {
+		final SoftReference<AddElement> cached = cacheElements ? addElementCache.get(value) : null;
+		if (cached != null) {
+			if ((newElement = cached.get()) != null) {
 				// System.out.println("Cache hit: " + newElement);
 				assert newElement.getValue() == value;
 				return newElement;
@@ -59,8 +72,10 @@ public class ElementFactory {
 		}
 
 		newElement = new AddElement(value);
-		if (cacheElements)
+		if (cacheElements) {
 			addElementCache.put(value, new SoftReference<AddElement>(newElement));
+			reportCacheMiss(AddElement.class, value);
+		}
 
 		return newElement;
 	}
@@ -68,8 +83,9 @@ public class ElementFactory {
 	public static MultElement createMultElement(int value) {
 		MultElement newElement;
 
-		if (cacheElements && multElementCache.containsKey(value)) {
-			if ((newElement = multElementCache.get(value).get()) != null) {
+		final SoftReference<MultElement> cached = cacheElements ? multElementCache.get(value) : null;
+		if (cached != null) {
+			if ((newElement = cached.get()) != null) {
 				// System.out.println("Cache hit: " + newElement);
 				assert newElement.getValue() == value;
 				return newElement;
@@ -77,12 +93,20 @@ public class ElementFactory {
 		}
 
 		newElement = new MultElement(value);
-		if (cacheElements)
+		if (cacheElements) {
 			multElementCache.put(value, new SoftReference<MultElement>(newElement));
+			reportCacheMiss(MultElement.class, value);
+		}
 
 		return newElement;
 	}
 
+	private static void reportCacheMiss(Class<? extends Element> elementType, int value) {
+		final DispatchListener listener = DispatchEvents.getListener();
+		if (listener != null)
+			listener.elementCacheMissed(elementType, value);
+	}
+
 	public static IgnoreElementDecorator addIgnoreDecoration(Element decoratee) {
 		return new IgnoreElementDecorator(decoratee);
 	}
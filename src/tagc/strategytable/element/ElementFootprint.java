@@ -0,0 +1,123 @@
+package tagc.strategytable.element;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import tagc.strategytable.monitoring.ObjectLayout;
+
+/**
+ * Estimates the heap occupied by elements, decorator chains and the element
+ * factory's caches, using the object layout of the running JVM.
+ * <p>
+ * Elements that are reachable more than once, such as cached elements shared
+ * by several decorators, are only counted once within a single estimate.
+ *
+ * @author David
+ * @see ObjectLayout
+ */
+public final class ElementFootprint {
+
+	private ElementFootprint() {
+		throw new AssertionError("ElementFootprint should not be instantiable");
+	}
+
+	/**
+	 * Estimates the bytes retained by an element, including every decorator
+	 * in its chain and the base element it wraps.
+	 *
+	 * @param element
+	 *            the element
+	 * @return the estimated size, in bytes
+	 * @throws NullPointerException
+	 *             if {@code element} is {@code null}
+	 */
+	public static long estimateElement(Element element) {
+		if (element == null)
+			throw new NullPointerException("The element cannot be null");
+
+		return estimateChain(element, Collections.newSetFromMap(new IdentityHashMap<Element, Boolean>()));
+	}
+
+	/**
+	 * Estimates the bytes retained by a collection of elements, including the
+	 * collection's own structure and every distinct element and decorator
+	 * reachable from it.
+	 * <p>
+	 * The structure of an {@link ArrayList} is estimated as if it has no spare
+	 * capacity, and other collections are estimated as if they were an array
+	 * of their elements.
+	 *
+	 * @param elements
+	 *            the collection of elements
+	 * @return the estimated size, in bytes
+	 * @throws NullPointerException
+	 *             if {@code elements} or any element in it are {@code null}
+	 */
+	public static long estimateElements(Collection<? extends Element> elements) {
+		if (elements == null)
+			throw new NullPointerException("The collection of elements cannot be null");
+
+		long size = ObjectLayout.arraySizeOf(Object.class, elements.size());
+		if (elements instanceof ArrayList)
+			size += ObjectLayout.shallowSizeOf(ArrayList.class);
+
+		final Set<Element> visited = Collections.newSetFromMap(new IdentityHashMap<Element, Boolean>());
+		for (Element e : elements) {
+			if (e == null)
+				throw new NullPointerException("The collection of elements cannot contain null elements");
+
+			size += estimateChain(e, visited);
+		}
+
+		return size;
+	}
+
+	/**
+	 * Estimates the bytes retained by the element factory's caches, including
+	 * the cached elements that have not yet been reclaimed.
+	 *
+	 * @return the estimated size, in bytes
+	 */
+	public static long estimateFactoryCaches() {
+		return estimateCache(ElementFactory.getAddElementCache()) + estimateCache(ElementFactory.getMultElementCache());
+	}
+
+	private static long estimateChain(Element element, Set<Element> visited) {
+		long size = 0;
+		while (visited.add(element)) {
+			size += ObjectLayout.shallowSizeOf(element.getClass());
+			if (element.getDecorationLevel() == 0)
+				break;
+
+			element = element.asDecorationAtLevel(element.getDecorationLevel() - 1);
+		}
+
+		return size;
+	}
+
+	/*
+	 * Concurrent hash maps lay out their tables and entries in the same way
+	 * as hash maps, and Integer keys between -128 and 127 are shared.
+	 */
+	private static long estimateCache(Map<Integer, ? extends SoftReference<? extends Element>> cache) {
+		long size = ObjectLayout.shallowSizeOf(cache.getClass());
+		int entries = 0;
+		for (Map.Entry<Integer, ? extends SoftReference<? extends Element>> entry : cache.entrySet()) {
+			entries++;
+			if (entry.getKey() < -128 || entry.getKey() > 127)
+				size += ObjectLayout.shallowSizeOf(Integer.class);
+
+			size += ObjectLayout.shallowSizeOf(entry.getValue().getClass());
+			final Element element = entry.getValue().get();
+			if (element != null)
+				size += ObjectLayout.shallowSizeOf(element.getClass());
+		}
+
+		return size + ObjectLayout.hashTableSizeOf(entries);
+	}
+}
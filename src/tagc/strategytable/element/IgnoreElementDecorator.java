@@ -1,6 +1,6 @@
 package tagc.strategytable.element;
 
-class IgnoreElementDecorator extends AbstractElementDecorator {
+public class IgnoreElementDecorator extends AbstractElementDecorator {
 
 	public IgnoreElementDecorator(Element decoratee) {
 		super(decoratee);
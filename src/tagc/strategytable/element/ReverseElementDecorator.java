@@ -1,6 +1,6 @@
 package tagc.strategytable.element;
 
-class ReverseElementDecorator extends AbstractElementDecorator {
+public class ReverseElementDecorator extends AbstractElementDecorator {
 
 	public ReverseElementDecorator(Element decoratee) {
 		super(decoratee);
@@ -0,0 +1,114 @@
+package tagc.strategytable.execution;
+
+/**
+ * Interfaces for establishing flow-controlled components in which publishers
+ * produce items that are consumed by subscribers, with the rate of production
+ * governed by the demand that subscribers signal through their subscriptions.
+ * <p>
+ * These interfaces have the same methods and semantics as those nested within
+ * {@code java.util.concurrent.Flow}, which is not available at this project's
+ * language level. On newer platforms, an implementation of one can be adapted
+ * to the other by delegating each method directly.
+ * 
+ * @author David
+ */
+public final class Flow {
+
+	private Flow() {
+		throw new AssertionError("Flow should not be instantiable");
+	}
+
+	/**
+	 * A producer of items that are received by subscribers.
+	 * 
+	 * @param <T>
+	 *            the type of published items
+	 */
+	public static interface Publisher<T> {
+
+		/**
+		 * Adds {@code subscriber}, which is sent
+		 * {@link Subscriber#onSubscribe} and then items as it requests them.
+		 * 
+		 * @param subscriber
+		 *            the subscriber to add
+		 * @throws NullPointerException
+		 *             if {@code subscriber} is {@code null}
+		 */
+		void subscribe(Subscriber<? super T> subscriber);
+	}
+
+	/**
+	 * A receiver of items. Each method is invoked in sequence for a given
+	 * subscription.
+	 * 
+	 * @param <T>
+	 *            the type of received items
+	 */
+	public static interface Subscriber<T> {
+
+		/**
+		 * Invoked before any other method for a new subscription.
+		 * 
+		 * @param subscription
+		 *            the new subscription
+		 */
+		void onSubscribe(Subscription subscription);
+
+		/**
+		 * Invoked with the next item of the subscription, only after it has
+		 * been requested.
+		 * 
+		 * @param item
+		 *            the next item
+		 */
+		void onNext(T item);
+
+		/**
+		 * Invoked when the publisher or subscription encounters an
+		 * unrecoverable error, after which no other methods are invoked.
+		 * 
+		 * @param throwable
+		 *            the error
+		 */
+		void onError(Throwable throwable);
+
+		/**
+		 * Invoked when no more items will be sent, after which no other
+		 * methods are invoked.
+		 */
+		void onComplete();
+	}
+
+	/**
+	 * The link between a publisher and a subscriber, through which the
+	 * subscriber signals demand.
+	 */
+	public static interface Subscription {
+
+		/**
+		 * Adds {@code n} to the number of items the subscriber is prepared to
+		 * receive.
+		 * 
+		 * @param n
+		 *            the increment of demand, which must be positive
+		 */
+		void request(long n);
+
+		/**
+		 * Causes the subscriber to eventually stop receiving items.
+		 */
+		void cancel();
+	}
+
+	/**
+	 * A component that acts as both a subscriber and a publisher.
+	 * 
+	 * @param <T>
+	 *            the type of received items
+	 * @param <R>
+	 *            the type of published items
+	 */
+	public static interface Processor<T, R> extends Subscriber<T>, Publisher<R> {
+	}
+}
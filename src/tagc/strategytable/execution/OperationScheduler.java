@@ -0,0 +1,442 @@
+package tagc.strategytable.execution;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.table.StrategyTable;
+
+/**
+ * Applies operations to elements submitted from any number of threads, by
+ * coalescing submissions into batches that are applied on a single worker
+ * thread.
+ * <p>
+ * Submissions are placed on a lock-free queue, so producers never block each
+ * other. The worker collects up to {@code maxBatchSize} submissions, or as
+ * many as arrive within {@code maxWait} of the first, and then applies each
+ * operation in the batch to its elements in one pass, in runs of elements of
+ * the same type. Since every operation is applied on the worker thread, the
+ * operations do not need to be thread-safe, but their results should only be
+ * read once {@link #flush()} has returned.
+ * <p>
+ * Submissions to the priority lane with {@link #submitPriority} are applied as
+ * soon as the worker sees them, without waiting for a batch to fill, and may
+ * overtake earlier submissions to the normal lane. Within each lane, the
+ * elements submitted for each operation are applied in the order they were
+ * submitted. This class is thread-safe.
+ *
+ * @author David
+ */
+public class OperationScheduler implements Closeable {
+
+	/*
+	 * The interval after which a worker waiting on a submission that has been
+	 * claimed but not yet linked into a queue checks again.
+	 */
+	private static final long LINK_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+	private static final long CLOSE_CHECK_MILLIS = 100;
+
+	private final StrategyTable table;
+	private final int maxBatchSize;
+	private final long maxWaitNanos;
+
+	private final SubmissionQueue normalLane = new SubmissionQueue();
+	private final SubmissionQueue priorityLane = new SubmissionQueue();
+	private final Thread worker;
+
+	private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+	/*
+	 * The number of threads between checking that this scheduler is open and
+	 * finishing enqueueing. Closing waits for this to drop to zero before it
+	 * enqueues its terminator, so nothing admitted can land behind it.
+	 */
+	private final AtomicInteger enqueueing = new AtomicInteger();
+	private volatile boolean parked;
+	private volatile boolean closed;
+	private volatile long batchCount;
+
+	/*
+	 * A submission, or a marker asking the worker to signal once everything
+	 * submitted before it has been applied.
+	 */
+	private static final class Submission {
+		final Operation<?, ?> operation;
+		final Element element;
+		final CountDownLatch marker;
+		volatile Submission next;
+
+		Submission(Operation<?, ?> operation, Element element, CountDownLatch marker) {
+			this.operation = operation;
+			this.element = element;
+			this.marker = marker;
+		}
+	}
+
+	/*
+	 * An unbounded multiple-producer, single-consumer queue. Producers claim
+	 * the tail with a single atomic swap and then link the previous tail to
+	 * their submission, so a submission can briefly be claimed but not yet
+	 * reachable from the head.
+	 */
+	private static final class SubmissionQueue {
+		private final AtomicReference<Submission> tail;
+		private Submission head;
+
+		SubmissionQueue() {
+			final Submission stub = new Submission(null, null, null);
+			this.head = stub;
+			this.tail = new AtomicReference<Submission>(stub);
+		}
+
+		void offer(Submission submission) {
+			tail.getAndSet(submission).next = submission;
+		}
+
+		/*
+		 * Only called by the worker.
+		 */
+		Submission poll() {
+			Submission next = head.next;
+			while (next == null && tail.get() != head) {
+				LockSupport.parkNanos(LINK_WAIT_NANOS);
+				next = head.next;
+			}
+
+			if (next != null)
+				head = next;
+
+			return next;
+		}
+
+		boolean isEmpty() {
+			return tail.get() == head;
+		}
+	}
+
+	/*
+	 * The submissions collected for one lane, grouped by operation instance in
+	 * the order each operation was first submitted. Only used by the worker.
+	 */
+	private final class Batch {
+		private final Map<Operation<?, ?>, List<Element>> elementsByOperation = new IdentityHashMap<Operation<?, ?>, List<Element>>();
+		private final List<Operation<?, ?>> operations = new ArrayList<Operation<?, ?>>();
+		private int size;
+		private long startTime;
+
+		void add(Submission submission) {
+			if (size++ == 0)
+				startTime = System.nanoTime();
+
+			List<Element> elements = elementsByOperation.get(submission.operation);
+			if (elements == null) {
+				elements = new ArrayList<Element>();
+				elementsByOperation.put(submission.operation, elements);
+				operations.add(submission.operation);
+			}
+
+			elements.add(submission.element);
+		}
+
+		int size() {
+			return size;
+		}
+
+		long getRemainingWait() {
+			return maxWaitNanos - (System.nanoTime() - startTime);
+		}
+
+		void execute() {
+			if (size == 0)
+				return;
+
+			for (Operation<?, ?> operation : operations) {
+				final List<Element> elements = elementsByOperation.get(operation);
+				int runStart = 0;
+				for (int i = 1; i <= elements.size(); i++) {
+					if (i == elements.size() || elements.get(i).getClass() != elements.get(runStart).getClass()) {
+						executeRun(operation, elements.subList(runStart, i));
+						runStart = i;
+					}
+				}
+			}
+
+			elementsByOperation.clear();
+			operations.clear();
+			size = 0;
+			batchCount++;
+		}
+
+		/*
+		 * A failing operation is reported by the next flush, and does not stop
+		 * the rest of the batch being applied.
+		 */
+		private void executeRun(Operation<?, ?> operation, List<Element> run) {
+			try {
+				table.operateOverCollection(operation, run);
+			} catch (RuntimeException e) {
+				failure.compareAndSet(null, e);
+			}
+		}
+	}
+
+	/**
+	 * Constructs an {@code OperationScheduler} and starts its worker thread.
+	 *
+	 * @param table
+	 *            the strategy table used to apply operations to elements
+	 * @param maxBatchSize
+	 *            the maximum number of submissions applied in one batch
+	 * @param maxWait
+	 *            the longest time a submission waits for its batch to fill
+	 * @param unit
+	 *            the unit of {@code maxWait}
+	 * @throws NullPointerException
+	 *             if {@code table} or {@code unit} are {@code null}
+	 * @throws IllegalArgumentException
+	 *             if {@code maxBatchSize} is not positive or {@code maxWait} is
+	 *             negative
+	 */
+	public OperationScheduler(StrategyTable table, int maxBatchSize, long maxWait, TimeUnit unit) {
+		if (table == null)
+			throw new NullPointerException("The strategy table cannot be null");
+
+		if (unit == null)
+			throw new NullPointerException("The time unit cannot be null");
+
+		if (maxBatchSize <= 0)
+			throw new IllegalArgumentException("The maximum batch size must be positive");
+
+		if (maxWait < 0)
+			throw new IllegalArgumentException("The maximum wait cannot be negative");
+
+		this.table = table;
+		this.maxBatchSize = maxBatchSize;
+		this.maxWaitNanos = unit.toNanos(maxWait);
+
+		this.worker = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				runWorker();
+			}
+		}, "OperationScheduler worker");
+		this.worker.setDaemon(true);
+		this.worker.start();
+	}
+
+	/**
+	 * Submits {@code element} to have {@code operation} applied to it in a
+	 * later batch.
+	 *
+	 * @param operation
+	 *            the operation to apply
+	 * @param element
+	 *            the element to apply the operation to
+	 * @throws NullPointerException
+	 *             if {@code operation} or {@code element} are {@code null}
+	 * @throws IllegalStateException
+	 *             if this scheduler has been closed
+	 */
+	public void submit(Operation<?, ?> operation, Element element) {
+		enqueue(normalLane, operation, element);
+	}
+
+	/**
+	 * Submits {@code element} to have {@code operation} applied to it as soon
+	 * as possible, ahead of any batch being collected.
+	 *
+	 * @param operation
+	 *            the operation to apply
+	 * @param element
+	 *            the element to apply the operation to
+	 * @throws NullPointerException
+	 *             if {@code operation} or {@code element} are {@code null}
+	 * @throws IllegalStateException
+	 *             if this scheduler has been closed
+	 */
+	public void submitPriority(Operation<?, ?> operation, Element element) {
+		enqueue(priorityLane, operation, element);
+	}
+
+	private void enqueue(SubmissionQueue lane, Operation<?, ?> operation, Element element) {
+		if (operation == null)
+			throw new NullPointerException("The operation cannot be null");
+
+		if (element == null)
+			throw new NullPointerException("The element cannot be null");
+
+		admit();
+		try {
+			lane.offer(new Submission(operation, element, null));
+		} finally {
+			enqueueing.decrementAndGet();
+		}
+
+		wakeWorker();
+	}
+
+	/*
+	 * Closing sets the flag before waiting for the count, and enqueueing
+	 * increments the count before checking the flag, so either the close sees
+	 * the enqueue in progress or the enqueue sees that it has been closed.
+	 */
+	private void admit() {
+		enqueueing.incrementAndGet();
+		if (closed) {
+			enqueueing.decrementAndGet();
+			throw new IllegalStateException("This scheduler has been closed");
+		}
+	}
+
+	private void wakeWorker() {
+		if (parked)
+			LockSupport.unpark(worker);
+	}
+
+	/**
+	 * Waits until every submission made before this call has been applied.
+	 * The results of operations submitted before this call can be read once
+	 * it returns.
+	 *
+	 * @throws InterruptedException
+	 *             if the current thread is interrupted while waiting
+	 * @throws ExecutionException
+	 *             if applying an operation has failed since the last flush
+	 * @throws IllegalStateException
+	 *             if this scheduler has been closed
+	 */
+	public void flush() throws InterruptedException, ExecutionException {
+		final CountDownLatch marker = new CountDownLatch(1);
+		admit();
+		try {
+			normalLane.offer(new Submission(null, null, marker));
+		} finally {
+			enqueueing.decrementAndGet();
+		}
+
+		wakeWorker();
+
+		/*
+		 * Every admitted marker is ahead of the terminator, so it is only left
+		 * unsignalled if the worker has died.
+		 */
+		while (!marker.await(CLOSE_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+			if (!worker.isAlive() && marker.getCount() > 0)
+				throw new IllegalStateException("The worker thread has stopped");
+		}
+
+		final Throwable cause = failure.getAndSet(null);
+		if (cause != null)
+			throw new ExecutionException("An operation could not be applied", cause);
+	}
+
+	/**
+	 * Returns the number of batches that have been applied so far.
+	 *
+	 * @return the number of batches applied
+	 */
+	public long getBatchCount() {
+		return batchCount;
+	}
+
+	/**
+	 * Applies everything submitted so far and stops the worker thread. Every
+	 * submission and flush that was accepted before or while closing is
+	 * applied, and any that start afterwards are rejected. Failures that have
+	 * not been reported by {@link #flush()} are discarded.
+	 */
+	@Override
+	public void close() {
+		if (closed)
+			return;
+
+		closed = true;
+		while (enqueueing.get() != 0) {
+			Thread.yield();
+		}
+
+		normalLane.offer(new Submission(null, null, null));
+		LockSupport.unpark(worker);
+
+		boolean interrupted = false;
+		while (worker.isAlive()) {
+			try {
+				worker.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	private void runWorker() {
+		final Batch priorityBatch = new Batch();
+		final Batch normalBatch = new Batch();
+
+		while (true) {
+			executePriorityLane(priorityBatch);
+
+			Submission submission;
+			while (normalBatch.size() < maxBatchSize && (submission = normalLane.poll()) != null) {
+				if (submission.operation != null) {
+					normalBatch.add(submission);
+					continue;
+				}
+
+				/*
+				 * Priority submissions made before the marker must have been
+				 * applied by the time it is signalled too.
+				 */
+				executePriorityLane(priorityBatch);
+				normalBatch.execute();
+
+				if (submission.marker == null)
+					return;
+
+				submission.marker.countDown();
+			}
+
+			if (normalBatch.size() >= maxBatchSize
+					|| (normalBatch.size() > 0 && normalBatch.getRemainingWait() <= 0)) {
+				normalBatch.execute();
+				continue;
+			}
+
+			/*
+			 * Producers check whether the worker is parked after enqueueing, so
+			 * the lanes are checked again after the flag is set to avoid
+			 * missing a submission made in between.
+			 */
+			parked = true;
+			if (priorityLane.isEmpty() && normalLane.isEmpty()) {
+				if (normalBatch.size() == 0) {
+					LockSupport.park(this);
+				} else {
+					LockSupport.parkNanos(this, normalBatch.getRemainingWait());
+				}
+			}
+			parked = false;
+		}
+	}
+
+	private void executePriorityLane(Batch priorityBatch) {
+		Submission submission;
+		while ((submission = priorityLane.poll()) != null) {
+			priorityBatch.add(submission);
+		}
+
+		priorityBatch.execute();
+	}
+}
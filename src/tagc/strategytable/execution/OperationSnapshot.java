@@ -0,0 +1,55 @@
+package tagc.strategytable.execution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable record of the results of a set of operations after a given
+ * number of elements have been applied to them.
+ * 
+ * @author David
+ */
+public final class OperationSnapshot {
+
+	private final long elementCount;
+	private final List<Object> results;
+
+	/**
+	 * Constructs an {@code OperationSnapshot}.
+	 * 
+	 * @param elementCount
+	 *            the number of elements applied to the operations
+	 * @param results
+	 *            the results of the operations, which are copied
+	 */
+	public OperationSnapshot(long elementCount, List<?> results) {
+		this.elementCount = elementCount;
+		this.results = Collections.unmodifiableList(new ArrayList<Object>(results));
+	}
+
+	/**
+	 * Returns the number of elements that had been applied to the operations
+	 * when this snapshot was taken.
+	 * 
+	 * @return the element count
+	 */
+	public long getElementCount() {
+		return elementCount;
+	}
+
+	/**
+	 * Returns the results of the operations when this snapshot was taken, in
+	 * the order the operations were given in.
+	 * 
+	 * @return an unmodifiable list of operation results
+	 */
+	public List<Object> getResults() {
+		return results;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Operation snapshot after %d elements: %s", elementCount, results);
+	}
+}
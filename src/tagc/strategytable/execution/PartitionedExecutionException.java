@@ -0,0 +1,22 @@
+package tagc.strategytable.execution;
+
+/**
+ * Thrown by a {@link PartitionedExecutor} when a shard of elements could not
+ * be processed, either because a strategy failed in a worker process or
+ * because the shard could not be processed within the permitted number of
+ * attempts.
+ * 
+ * @author David
+ */
+public class PartitionedExecutionException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public PartitionedExecutionException(String message) {
+		super(message);
+	}
+
+	public PartitionedExecutionException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,491 @@
+package tagc.strategytable.execution;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.ProcessBuilder.Redirect;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.element.ElementCodec;
+import tagc.strategytable.operation.InvertibleOperation;
+import tagc.strategytable.table.StrategyTable;
+import tagc.strategytable.table.StrategyTableFactory;
+
+/**
+ * Applies operations to collections of elements that are too large to
+ * process in a single JVM by splitting them into shards and sending each shard
+ * to a worker JVM on the same machine.
+ * <p>
+ * Each worker process creates its own {@link StrategyTable} using the same
+ * {@link StrategyTableFactory} class and communicates with this executor over
+ * its standard input and output. The partial results computed by the workers
+ * are merged using {@link InvertibleOperation#combine}, so every strategy that
+ * the workers' tables use for the operations must be additive, as reported by
+ * {@link StrategyTable#isAdditive}. Operations that are not are rejected by
+ * the workers, so the results always match those of
+ * {@link StrategyTable#operateOverCollection}.
+ * <p>
+ * If a worker process dies while processing a shard, a new worker is started
+ * and the shard is retried. Worker processes are reused between calls until
+ * this executor is closed. This class is thread-safe.
+ * 
+ * @author David
+ */
+public class PartitionedExecutor implements Closeable {
+
+	private static final int DEFAULT_SHARD_SIZE = 100000;
+	private static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+	private final String tableFactoryType;
+	private final int workerCount;
+	private final List<String> jvmArguments = new ArrayList<String>();
+	private final List<WorkerProcess> idleWorkers = new ArrayList<WorkerProcess>();
+	private int shardSize = DEFAULT_SHARD_SIZE;
+	private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+	private boolean closed;
+
+	/**
+	 * Constructs a {@code PartitionedExecutor} that uses up to
+	 * {@code workerCount} worker processes, each of which creates its
+	 * strategy table using an instance of {@code tableFactoryType}.
+	 * 
+	 * @param tableFactoryType
+	 *            a public class with a public no-argument constructor that
+	 *            configures the strategy table used by each worker
+	 * @param workerCount
+	 *            the maximum number of worker processes to run at once
+	 * @throws NullPointerException
+	 *             if {@code tableFactoryType} is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if {@code workerCount} is not positive
+	 */
+	public PartitionedExecutor(Class<? extends StrategyTableFactory> tableFactoryType, int workerCount) {
+		if (tableFactoryType == null)
+			throw new NullPointerException("The strategy table factory type cannot be null");
+
+		if (workerCount <= 0)
+			throw new IllegalArgumentException("The worker count must be positive");
+
+		this.tableFactoryType = tableFactoryType.getName();
+		this.workerCount = workerCount;
+	}
+
+	/**
+	 * Sets the maximum number of elements sent to a worker process at once.
+	 * 
+	 * @param shardSize
+	 *            the maximum number of elements in a shard
+	 * @throws IllegalArgumentException
+	 *             if {@code shardSize} is not positive
+	 */
+	public synchronized void setShardSize(int shardSize) {
+		if (shardSize <= 0)
+			throw new IllegalArgumentException("The shard size must be positive");
+
+		this.shardSize = shardSize;
+	}
+
+	/**
+	 * Returns the maximum number of elements sent to a worker process at once.
+	 * 
+	 * @return the maximum number of elements in a shard
+	 */
+	public synchronized int getShardSize() {
+		return shardSize;
+	}
+
+	/**
+	 * Sets the number of times that processing a shard is attempted before
+	 * giving up when worker processes die.
+	 * 
+	 * @param maxAttempts
+	 *            the maximum number of attempts per shard
+	 * @throws IllegalArgumentException
+	 *             if {@code maxAttempts} is not positive
+	 */
+	public synchronized void setMaxAttempts(int maxAttempts) {
+		if (maxAttempts <= 0)
+			throw new IllegalArgumentException("The maximum number of attempts must be positive");
+
+		this.maxAttempts = maxAttempts;
+	}
+
+	/**
+	 * Returns the number of times that processing a shard is attempted before
+	 * giving up when worker processes die.
+	 * 
+	 * @return the maximum number of attempts per shard
+	 */
+	public synchronized int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * Sets the arguments passed to the JVM of each worker process that is
+	 * started from now on, such as its maximum heap size.
+	 * 
+	 * @param jvmArguments
+	 *            the JVM arguments for new worker processes
+	 * @throws NullPointerException
+	 *             if {@code jvmArguments} is {@code null}
+	 */
+	public synchronized void setJvmArguments(List<String> jvmArguments) {
+		if (jvmArguments == null)
+			throw new NullPointerException("The JVM arguments cannot be null");
+
+		this.jvmArguments.clear();
+		this.jvmArguments.addAll(jvmArguments);
+	}
+
+	/**
+	 * Applies {@code operation} to {@code elements} using worker processes.
+	 * 
+	 * @param operation
+	 *            the operation to perform on the elements
+	 * @param elements
+	 *            the collection of elements to have the operation applied to
+	 * @throws NullPointerException
+	 *             if {@code operation} or {@code elements} are {@code null}
+	 * @throws PartitionedExecutionException
+	 *             if a strategy fails in a worker process, if the workers'
+	 *             strategies for an operation are not all additive or if a
+	 *             shard could not be processed within the maximum number of
+	 *             attempts
+	 * @see #operateOverCollection(List, Collection)
+	 */
+	public void operateOverCollection(InvertibleOperation<?> operation, Collection<? extends Element> elements) {
+		operateOverCollection(Collections.<InvertibleOperation<?>> singletonList(operation), elements);
+	}
+
+	/**
+	 * Applies each operation in {@code operations} to {@code elements} using
+	 * worker processes. Every shard is sent to a worker only once, however
+	 * many operations there are.
+	 * <p>
+	 * Operations are applied in the worker processes to fresh instances of the
+	 * same types, so every type of operation must have a public no-argument
+	 * constructor and produce serializable results. The result of each worker
+	 * is combined with the current result of the corresponding operation in
+	 * {@code operations}.
+	 * <p>
+	 * Shards are read from {@code elements} as worker processes become free
+	 * rather than copied up front, so only the shards being processed are
+	 * held in this process at once. {@code elements} must not be modified
+	 * until this method returns.
+	 * 
+	 * @param operations
+	 *            the operations to perform on the elements
+	 * @param elements
+	 *            the collection of elements to have the operations applied to
+	 * @throws NullPointerException
+	 *             if {@code operations} or {@code elements} or any of their
+	 *             contents are {@code null}
+	 * @throws IllegalStateException
+	 *             if this executor has been closed
+	 * @throws PartitionedExecutionException
+	 *             if a strategy fails in a worker process, if the workers'
+	 *             strategies for an operation are not all additive or if a
+	 *             shard could not be processed within the maximum number of
+	 *             attempts
+	 */
+	public synchronized void operateOverCollection(List<? extends InvertibleOperation<?>> operations,
+			Collection<? extends Element> elements) {
+
+		if (operations == null)
+			throw new NullPointerException("The list of operations cannot be null");
+
+		if (elements == null)
+			throw new NullPointerException("The collection of elements cannot be null");
+
+		if (closed)
+			throw new IllegalStateException("This executor has been closed");
+
+		final List<String> operationTypes = new ArrayList<String>();
+		for (InvertibleOperation<?> operation : operations) {
+			if (operation == null)
+				throw new NullPointerException("The operation cannot be null");
+
+			operationTypes.add(operation.getClass().getName());
+		}
+
+		final int shardCount = (int) ((elements.size() + (long) shardSize - 1) / shardSize);
+		if (shardCount == 0 || operationTypes.isEmpty())
+			return;
+
+		final ShardSource shards = new ShardSource(elements, shardSize);
+		final AtomicReference<PartitionedExecutionException> failure = new AtomicReference<PartitionedExecutionException>();
+		final int threadCount = Math.min(workerCount, shardCount);
+		final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+		try {
+			final List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int i = 0; i < threadCount; i++) {
+				futures.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						processShards(shards, operationTypes, failure);
+					}
+				}));
+			}
+
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new PartitionedExecutionException("Interrupted while waiting for worker processes", e);
+		} catch (ExecutionException e) {
+			throw new PartitionedExecutionException("Unexpected failure while coordinating worker processes",
+					e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		if (failure.get() != null)
+			throw failure.get();
+
+		final List<Object[]> shardResults = shards.getResults();
+		for (int i = 0; i < operations.size(); i++) {
+			mergeResults(operations.get(i), shardResults, i);
+		}
+	}
+
+	private void processShards(ShardSource shards, List<String> operationTypes,
+			AtomicReference<PartitionedExecutionException> failure) {
+
+		WorkerProcess worker = null;
+		Shard shard;
+		try {
+			while (failure.get() == null && (shard = shards.next()) != null) {
+				try {
+					if (worker == null)
+						worker = takeWorker();
+
+					shards.complete(shard, worker.process(operationTypes, shard.elements));
+				} catch (IOException e) {
+					/*
+					 * The worker died or could not be started, so discard it
+					 * and retry the shard on a new one.
+					 */
+					if (worker != null) {
+						worker.destroy();
+						worker = null;
+					}
+
+					if (++shard.attempts >= maxAttempts) {
+						failure.compareAndSet(null, new PartitionedExecutionException(String.format(
+								"Shard %d could not be processed after %d attempts", shard.index, shard.attempts),
+								e));
+					} else {
+						shards.retry(shard);
+					}
+				} catch (PartitionedExecutionException e) {
+					failure.compareAndSet(null, e);
+				} catch (RuntimeException e) {
+					/*
+					 * The shard may have been partly sent, so the worker can't
+					 * be trusted with another one. There is no worker if
+					 * starting one failed.
+					 */
+					if (worker != null) {
+						worker.destroy();
+						worker = null;
+					}
+
+					failure.compareAndSet(null, new PartitionedExecutionException(String.format(
+							"Shard %d could not be sent to a worker process", shard.index), e));
+				}
+			}
+		} finally {
+			if (worker != null)
+				returnWorker(worker);
+		}
+	}
+
+	/*
+	 * We know that this is a safe cast because the results were produced by
+	 * operations of the same type as this operation.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> void mergeResults(InvertibleOperation<T> operation, List<Object[]> shardResults, int index) {
+		T result = operation.get();
+		for (Object[] results : shardResults) {
+			result = operation.combine(result, (T) results[index]);
+		}
+
+		operation.store(result);
+	}
+
+	private WorkerProcess takeWorker() throws IOException {
+		synchronized (idleWorkers) {
+			if (!idleWorkers.isEmpty())
+				return idleWorkers.remove(idleWorkers.size() - 1);
+		}
+
+		final List<String> command = new ArrayList<String>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.addAll(jvmArguments);
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(PartitionedWorker.class.getName());
+		command.add(tableFactoryType);
+		return new WorkerProcess(command);
+	}
+
+	private void returnWorker(WorkerProcess worker) {
+		synchronized (idleWorkers) {
+			idleWorkers.add(worker);
+		}
+	}
+
+	/**
+	 * Stops every worker process. This executor cannot be used after it has
+	 * been closed.
+	 */
+	@Override
+	public synchronized void close() {
+		closed = true;
+		synchronized (idleWorkers) {
+			for (WorkerProcess worker : idleWorkers) {
+				worker.close();
+			}
+
+			idleWorkers.clear();
+		}
+	}
+
+	private static class Shard {
+		final int index;
+		final List<Element> elements;
+		int attempts;
+
+		Shard(int index, List<Element> elements) {
+			this.index = index;
+			this.elements = elements;
+		}
+	}
+
+	/*
+	 * Cuts shards from the source collection as threads ask for them, so the
+	 * coordinator only holds the elements of shards that are being processed
+	 * or are waiting to be retried rather than a copy of the whole collection.
+	 */
+	private static class ShardSource {
+		private final Iterator<? extends Element> elements;
+		private final int shardSize;
+		private final Queue<Shard> retries = new ArrayDeque<Shard>();
+		private final List<Object[]> results = new ArrayList<Object[]>();
+		private int remaining;
+
+		ShardSource(Collection<? extends Element> elements, int shardSize) {
+			this.elements = elements.iterator();
+			this.shardSize = shardSize;
+			this.remaining = elements.size();
+		}
+
+		synchronized Shard next() {
+			if (!retries.isEmpty())
+				return retries.poll();
+
+			if (remaining == 0 || !elements.hasNext())
+				return null;
+
+			final List<Element> shardElements = new ArrayList<Element>(Math.min(shardSize, remaining));
+			while (shardElements.size() < shardSize && elements.hasNext()) {
+				shardElements.add(elements.next());
+			}
+
+			remaining -= shardElements.size();
+			results.add(null);
+			return new Shard(results.size() - 1, shardElements);
+		}
+
+		synchronized void retry(Shard shard) {
+			retries.add(shard);
+		}
+
+		synchronized void complete(Shard shard, Object[] shardResults) {
+			results.set(shard.index, shardResults);
+		}
+
+		synchronized List<Object[]> getResults() {
+			return new ArrayList<Object[]>(results);
+		}
+	}
+
+	private static class WorkerProcess {
+		private final Process process;
+		private final ObjectOutputStream output;
+		private final ObjectInputStream input;
+
+		WorkerProcess(List<String> command) throws IOException {
+			process = new ProcessBuilder(command).redirectError(Redirect.INHERIT).start();
+
+			try {
+				output = new ObjectOutputStream(new BufferedOutputStream(process.getOutputStream()));
+				output.flush();
+				input = new ObjectInputStream(new BufferedInputStream(process.getInputStream()));
+			} catch (IOException e) {
+				process.destroy();
+				throw e;
+			}
+		}
+
+		Object[] process(List<String> operationTypes, List<Element> elements) throws IOException {
+			output.writeInt(operationTypes.size());
+			for (String operationType : operationTypes) {
+				output.writeUTF(operationType);
+			}
+
+			output.writeInt(elements.size());
+			for (Element e : elements) {
+				ElementCodec.writeElement(output, e);
+			}
+			output.flush();
+
+			if (input.readByte() == PartitionedWorker.RESULT_FAILED)
+				throw new PartitionedExecutionException("A strategy failed in a worker process: " + input.readUTF());
+
+			final Object[] results = new Object[operationTypes.size()];
+			try {
+				for (int i = 0; i < results.length; i++) {
+					results[i] = input.readObject();
+				}
+			} catch (ClassNotFoundException e) {
+				throw new IOException("A worker process returned a result of an unknown type", e);
+			}
+
+			return results;
+		}
+
+		void destroy() {
+			process.destroy();
+		}
+
+		void close() {
+			try {
+				output.close();
+			} catch (IOException e) {
+				// The worker has already gone.
+			} finally {
+				process.destroy();
+			}
+		}
+	}
+}
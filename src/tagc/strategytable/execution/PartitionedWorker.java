@@ -0,0 +1,123 @@
+package tagc.strategytable.execution;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.element.ElementCodec;
+import tagc.strategytable.operation.InvertibleOperation;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.table.StrategyTable;
+import tagc.strategytable.table.StrategyTableFactory;
+
+/**
+ * The entry point of the worker processes started by a
+ * {@link PartitionedExecutor}.
+ * <p>
+ * A worker creates a {@link StrategyTable} using the factory class named by
+ * its first argument, then repeatedly reads a shard of elements from standard
+ * input, applies fresh instances of the requested operation types to it and
+ * writes their results to standard output. A shard fails without being
+ * processed if any of the operation types is not invertible or has a strategy
+ * that is not additive, since its partial results could not be combined. It
+ * exits when standard input is closed.
+ * 
+ * @author David
+ */
+public final class PartitionedWorker {
+
+	static final byte RESULT_OK = 0;
+	static final byte RESULT_FAILED = 1;
+
+	private PartitionedWorker() {
+		throw new AssertionError("PartitionedWorker should not be instantiable");
+	}
+
+	/*
+	 * We know that the cast to an invertible operation type is safe because
+	 * it has just been checked.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Operation<?, ?> createCombinableOperation(StrategyTable table, Class<?> operationType)
+			throws ReflectiveOperationException {
+		if (!InvertibleOperation.class.isAssignableFrom(operationType))
+			throw new IllegalArgumentException(operationType.getName() + " is not an invertible operation");
+
+		if (!table.isAdditive((Class<? extends InvertibleOperation<?>>) operationType))
+			throw new IllegalArgumentException("The strategies for " + operationType.getName()
+					+ " are not all additive, so partial results cannot be combined");
+
+		return (Operation<?, ?>) operationType.newInstance();
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length != 1)
+			throw new IllegalArgumentException("Usage: PartitionedWorker <strategy table factory class>");
+
+		/*
+		 * Standard output carries the protocol, so anything a strategy prints
+		 * is sent to standard error instead.
+		 */
+		final PrintStream protocolOut = System.out;
+		System.setOut(System.err);
+
+		final StrategyTableFactory factory = (StrategyTableFactory) Class.forName(args[0]).newInstance();
+		final StrategyTable table = factory.createTable();
+
+		final ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(protocolOut));
+		output.flush();
+		final ObjectInputStream input = new ObjectInputStream(new BufferedInputStream(System.in));
+
+		while (true) {
+			final int operationCount;
+			try {
+				operationCount = input.readInt();
+			} catch (EOFException e) {
+				return;
+			}
+
+			final List<String> operationTypes = new ArrayList<String>();
+			for (int i = 0; i < operationCount; i++) {
+				operationTypes.add(input.readUTF());
+			}
+
+			final int elementCount = input.readInt();
+			final List<Element> elements = new ArrayList<Element>(elementCount);
+			for (int i = 0; i < elementCount; i++) {
+				elements.add(ElementCodec.readElement(input));
+			}
+
+			final List<Object> results = new ArrayList<Object>();
+			try {
+				final List<Operation<?, ?>> operations = new ArrayList<Operation<?, ?>>();
+				for (String operationType : operationTypes) {
+					operations.add(createCombinableOperation(table, Class.forName(operationType)));
+				}
+
+				for (Operation<?, ?> operation : operations) {
+					table.operateOverCollection(operation, elements);
+					results.add(operation.get());
+				}
+			} catch (ReflectiveOperationException | RuntimeException | AssertionError e) {
+				output.writeByte(RESULT_FAILED);
+				output.writeUTF(e.toString());
+				output.flush();
+				output.reset();
+				continue;
+			}
+
+			output.writeByte(RESULT_OK);
+			for (Object result : results) {
+				output.writeObject(result);
+			}
+			output.flush();
+			output.reset();
+		}
+	}
+}
@@ -0,0 +1,308 @@
+package tagc.strategytable.execution;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.operation.ShortCircuitingOperation;
+import tagc.strategytable.table.StrategyTable;
+
+/**
+ * A {@link Flow.Processor} that applies a set of operations to elements as
+ * they are received from an upstream publisher, using a {@link StrategyTable},
+ * and publishes snapshots of the operations' results downstream.
+ * <p>
+ * Elements are applied as soon as they arrive and are never buffered. At most
+ * {@code bufferSize} elements are requested from upstream at a time, and more
+ * are requested once half of them have been received, so the rate of the
+ * upstream publisher is limited to the rate at which elements can be
+ * processed.
+ * <p>
+ * A snapshot is taken every {@code snapshotInterval} elements and once more
+ * when upstream completes. If the downstream subscriber has not requested a
+ * snapshot by the time the next is taken, the older snapshot is discarded, so
+ * memory use stays bounded however slow the subscriber is. The results of the
+ * operations should be immutable, since snapshots hold them directly. The
+ * processor can also be used without a downstream subscriber, in which case
+ * the results can be read from the operations once upstream has completed.
+ * <p>
+ * Operations that are {@link ShortCircuitingOperation} objects stop being
+ * applied once they are complete. If every operation is complete, upstream is
+ * cancelled and the final snapshot is published straight away.
+ * 
+ * @author David
+ */
+public class StrategyTableProcessor implements Flow.Processor<Element, OperationSnapshot> {
+
+	private final StrategyTable table;
+	private final List<Operation<?, ?>> operations;
+	private final int bufferSize;
+	private final long snapshotInterval;
+
+	/*
+	 * Upstream signals are received in sequence, so this state is only
+	 * accessed by one thread at a time.
+	 */
+	private volatile Flow.Subscription upstream;
+	private long outstandingDemand;
+	private long elementCount;
+	private boolean upstreamDone;
+
+	/*
+	 * Downstream state is guarded by this processor's lock.
+	 */
+	private Flow.Subscriber<? super OperationSnapshot> downstream;
+	private long downstreamDemand;
+	private OperationSnapshot pendingSnapshot;
+	private boolean pendingComplete;
+	private Throwable pendingError;
+	private boolean downstreamTerminated;
+	private boolean draining;
+
+	/**
+	 * Constructs a {@code StrategyTableProcessor}.
+	 * 
+	 * @param table
+	 *            the strategy table used to apply operations to elements
+	 * @param operations
+	 *            the operations to apply to each element
+	 * @param bufferSize
+	 *            the maximum number of elements requested from upstream at a
+	 *            time
+	 * @param snapshotInterval
+	 *            the number of elements between snapshots
+	 * @throws NullPointerException
+	 *             if {@code table} or {@code operations} or any operation are
+	 *             {@code null}
+	 * @throws IllegalArgumentException
+	 *             if {@code bufferSize} or {@code snapshotInterval} are not
+	 *             positive
+	 */
+	public StrategyTableProcessor(StrategyTable table, Collection<? extends Operation<?, ?>> operations,
+			int bufferSize, long snapshotInterval) {
+
+		if (table == null)
+			throw new NullPointerException("The strategy table cannot be null");
+
+		if (operations == null)
+			throw new NullPointerException("The collection of operations cannot be null");
+
+		if (bufferSize <= 0)
+			throw new IllegalArgumentException("The buffer size must be positive");
+
+		if (snapshotInterval <= 0)
+			throw new IllegalArgumentException("The snapshot interval must be positive");
+
+		this.operations = new ArrayList<Operation<?, ?>>();
+		for (Operation<?, ?> operation : operations) {
+			if (operation == null)
+				throw new NullPointerException("The operation cannot be null");
+
+			this.operations.add(operation);
+		}
+
+		this.table = table;
+		this.bufferSize = bufferSize;
+		this.snapshotInterval = snapshotInterval;
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		if (subscription == null)
+			throw new NullPointerException("The subscription cannot be null");
+
+		if (upstream != null) {
+			subscription.cancel();
+			return;
+		}
+
+		upstream = subscription;
+		outstandingDemand = bufferSize;
+		subscription.request(bufferSize);
+	}
+
+	@Override
+	public void onNext(Element element) {
+		if (element == null)
+			throw new NullPointerException("The element cannot be null");
+
+		if (upstreamDone)
+			return;
+
+		boolean allComplete = !operations.isEmpty();
+		try {
+			for (Operation<?, ?> operation : operations) {
+				if (isComplete(operation))
+					continue;
+
+				table.operate(operation, element);
+				allComplete &= isComplete(operation);
+			}
+		} catch (RuntimeException | AssertionError e) {
+			upstreamDone = true;
+			upstream.cancel();
+			publishError(e);
+			return;
+		}
+
+		elementCount++;
+		if (allComplete) {
+			upstreamDone = true;
+			upstream.cancel();
+			publishSnapshot(takeSnapshot(), true);
+			return;
+		}
+
+		if (--outstandingDemand <= bufferSize / 2) {
+			final long n = bufferSize - outstandingDemand;
+			outstandingDemand += n;
+			upstream.request(n);
+		}
+
+		if (elementCount % snapshotInterval == 0)
+			publishSnapshot(takeSnapshot(), false);
+	}
+
+	private static boolean isComplete(Operation<?, ?> operation) {
+		return operation instanceof ShortCircuitingOperation && ((ShortCircuitingOperation<?, ?>) operation).isComplete();
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		if (throwable == null)
+			throw new NullPointerException("The throwable cannot be null");
+
+		if (upstreamDone)
+			return;
+
+		upstreamDone = true;
+		publishError(throwable);
+	}
+
+	@Override
+	public void onComplete() {
+		if (upstreamDone)
+			return;
+
+		upstreamDone = true;
+		publishSnapshot(takeSnapshot(), true);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Only one subscriber is supported; any later subscriber is sent an
+	 * {@code IllegalStateException}.
+	 */
+	@Override
+	public void subscribe(Flow.Subscriber<? super OperationSnapshot> subscriber) {
+		if (subscriber == null)
+			throw new NullPointerException("The subscriber cannot be null");
+
+		synchronized (this) {
+			if (downstream == null) {
+				downstream = subscriber;
+				subscriber.onSubscribe(new SnapshotSubscription());
+				drain();
+				return;
+			}
+		}
+
+		subscriber.onSubscribe(new Flow.Subscription() {
+			@Override
+			public void request(long n) {
+			}
+
+			@Override
+			public void cancel() {
+			}
+		});
+		subscriber.onError(new IllegalStateException("This processor only supports a single subscriber"));
+	}
+
+	private OperationSnapshot takeSnapshot() {
+		final List<Object> results = new ArrayList<Object>();
+		for (Operation<?, ?> operation : operations) {
+			results.add(operation.get());
+		}
+
+		return new OperationSnapshot(elementCount, results);
+	}
+
+	private synchronized void publishSnapshot(OperationSnapshot snapshot, boolean complete) {
+		pendingSnapshot = snapshot;
+		pendingComplete = complete;
+		drain();
+	}
+
+	private synchronized void publishError(Throwable throwable) {
+		pendingSnapshot = null;
+		pendingError = throwable;
+		drain();
+	}
+
+	/*
+	 * Subscribers may request more snapshots from within onNext, so the
+	 * draining flag stops this from recursing.
+	 */
+	private synchronized void drain() {
+		if (draining || downstream == null)
+			return;
+
+		draining = true;
+		try {
+			while (!downstreamTerminated) {
+				if (pendingSnapshot != null && downstreamDemand > 0) {
+					final OperationSnapshot snapshot = pendingSnapshot;
+					pendingSnapshot = null;
+					downstreamDemand--;
+					downstream.onNext(snapshot);
+				} else if (pendingSnapshot == null && pendingComplete) {
+					downstreamTerminated = true;
+					downstream.onComplete();
+				} else if (pendingError != null) {
+					downstreamTerminated = true;
+					downstream.onError(pendingError);
+				} else {
+					break;
+				}
+			}
+		} finally {
+			draining = false;
+		}
+	}
+
+	private class SnapshotSubscription implements Flow.Subscription {
+
+		@Override
+		public void request(long n) {
+			synchronized (StrategyTableProcessor.this) {
+				if (downstreamTerminated)
+					return;
+
+				if (n <= 0) {
+					pendingSnapshot = null;
+					pendingError = new IllegalArgumentException("The requested number of snapshots must be positive");
+				} else {
+					downstreamDemand = downstreamDemand + n < 0 ? Long.MAX_VALUE : downstreamDemand + n;
+				}
+
+				drain();
+			}
+		}
+
+		@Override
+		public void cancel() {
+			synchronized (StrategyTableProcessor.this) {
+				downstreamTerminated = true;
+				pendingSnapshot = null;
+			}
+
+			final Flow.Subscription subscription = upstream;
+			if (subscription != null)
+				subscription.cancel();
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package tagc.strategytable.main;
+
+import tagc.strategytable.main.Main.StrategyTableType;
+
+/**
+ * Parses demonstration commands out of a range of characters without
+ * allocating any objects, so that scripted workloads of many thousands of
+ * commands can be read quickly.
+ * <p>
+ * Commands are case insensitive and may be surrounded by whitespace. The
+ * arguments of the most recently parsed command are available through
+ * {@link #getNumber()}, {@link #getCount()} and {@link #getTableType()}.
+ * Instances are not thread-safe.
+ *
+ * @author David
+ */
+class CommandParser {
+
+	/**
+	 * The commands understood by the demonstration.
+	 */
+	enum Command {
+		/** A blank line or a comment starting with '#'. */
+		NONE,
+		QUIT,
+		INFO,
+		GO,
+		ST,
+		ADD,
+		MULT,
+		IGNORE,
+		REVERSE,
+		BENCH
+	}
+
+	private static final StrategyTableType[] TABLE_TYPES = StrategyTableType.values();
+
+	private char[] chars;
+	private int position;
+	private int end;
+
+	private int number;
+	private int count;
+	private StrategyTableType tableType;
+
+	/**
+	 * Parses a single command.
+	 *
+	 * @param chars
+	 *            the characters containing the command
+	 * @param start
+	 *            the index of the first character of the command
+	 * @param end
+	 *            the index after the last character of the command
+	 * @return the command parsed, or {@code null} if the characters do not
+	 *         form a valid command
+	 */
+	Command parse(char[] chars, int start, int end) {
+		this.chars = chars;
+		this.position = start;
+		this.end = end;
+
+		skipWhitespace();
+		if (position == end || chars[position] == '#')
+			return Command.NONE;
+
+		final Command command;
+		if (matchKeyword("quit")) {
+			command = Command.QUIT;
+		} else if (matchKeyword("info")) {
+			command = Command.INFO;
+		} else if (matchKeyword("go")) {
+			command = Command.GO;
+		} else if (matchKeyword("st")) {
+			command = skipWhitespace() && parseTableType(false) ? Command.ST : null;
+		} else if (matchKeyword("add")) {
+			command = parseNumber() ? Command.ADD : null;
+		} else if (matchKeyword("mult")) {
+			command = parseNumber() ? Command.MULT : null;
+		} else if (matchKeyword("ignore")) {
+			command = parseNumber() ? Command.IGNORE : null;
+		} else if (matchKeyword("reverse")) {
+			command = parseNumber() ? Command.REVERSE : null;
+		} else if (matchKeyword("bench")) {
+			command = parseNumber() && skipWhitespace() && parseTableType(true) ? Command.BENCH : null;
+			count = number;
+		} else {
+			command = null;
+		}
+
+		skipWhitespace();
+		return position == end ? command : null;
+	}
+
+	/**
+	 * Returns the value or index argument of the last command parsed.
+	 *
+	 * @return the number argument
+	 */
+	int getNumber() {
+		return number;
+	}
+
+	/**
+	 * Returns the element count argument of the last {@code bench} command
+	 * parsed.
+	 *
+	 * @return the element count
+	 */
+	int getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the table type argument of the last {@code st} or {@code bench}
+	 * command parsed.
+	 *
+	 * @return the table type, or {@code null} if a {@code bench} command
+	 *         applies to all table types
+	 */
+	StrategyTableType getTableType() {
+		return tableType;
+	}
+
+	/*
+	 * Returns whether any whitespace was skipped or the end has been reached,
+	 * so that keywords and arguments must be separated.
+	 */
+	private boolean skipWhitespace() {
+		final int start = position;
+		while (position < end && Character.isWhitespace(chars[position])) {
+			position++;
+		}
+
+		return position > start || position == end;
+	}
+
+	/*
+	 * Keywords must be followed by whitespace, a digit or the end so that
+	 * 'goes' is not read as 'go'.
+	 */
+	private boolean matchKeyword(String keyword) {
+		final int length = keyword.length();
+		if (end - position < length)
+			return false;
+
+		for (int i = 0; i < length; i++) {
+			if (Character.toLowerCase(chars[position + i]) != keyword.charAt(i))
+				return false;
+		}
+
+		final int next = position + length;
+		if (next < end && Character.isLetter(chars[next]))
+			return false;
+
+		position = next;
+		return true;
+	}
+
+	private boolean parseNumber() {
+		skipWhitespace();
+
+		final int start = position;
+		long value = 0;
+		while (position < end && chars[position] >= '0' && chars[position] <= '9') {
+			value = value * 10 + (chars[position++] - '0');
+			if (value > Integer.MAX_VALUE)
+				return false;
+		}
+
+		number = (int) value;
+		return position > start;
+	}
+
+	private boolean parseTableType(boolean allowAll) {
+		for (StrategyTableType type : TABLE_TYPES) {
+			if (matchIgnoringCase(type.name())) {
+				tableType = type;
+				return true;
+			}
+		}
+
+		if (allowAll && matchIgnoringCase("all")) {
+			tableType = null;
+			return true;
+		}
+
+		return false;
+	}
+
+	private boolean matchIgnoringCase(String word) {
+		final int length = word.length();
+		if (end - position < length)
+			return false;
+
+		for (int i = 0; i < length; i++) {
+			if (Character.toUpperCase(chars[position + i]) != Character.toUpperCase(word.charAt(i)))
+				return false;
+		}
+
+		final int next = position + length;
+		if (next < end && !Character.isWhitespace(chars[next]))
+			return false;
+
+		position = next;
+		return true;
+	}
+}
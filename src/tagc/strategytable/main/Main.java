@@ -1,15 +1,21 @@
 package tagc.strategytable.main;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 import java.util.Scanner;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import tagc.strategytable.element.Element;
 import tagc.strategytable.element.ElementFactory;
+import tagc.strategytable.main.CommandParser.Command;
 import tagc.strategytable.operation.CountElementOperation;
 import tagc.strategytable.operation.FindTotalOperation;
 import tagc.strategytable.operation.Operation;
@@ -22,29 +28,16 @@ import tagc.strategytable.table.StrategyTablePolicy;
 
 public class Main {
 
-	private static final Pattern EXECUTE_PATTERN = Pattern.compile("^\\s*go\\s*$", Pattern.CASE_INSENSITIVE);
-	private static final Pattern QUIT_PATTERN = Pattern.compile("^\\s*quit\\s*$", Pattern.CASE_INSENSITIVE);
-	private static final Pattern INFO_PATTERN = Pattern.compile("^\\s*info\\s*$", Pattern.CASE_INSENSITIVE);
-	private static final Pattern USE_ILLEGAL_STRATEGY_TABLE = Pattern.compile("^\\s*st illegal\\s*$",
-			Pattern.CASE_INSENSITIVE);
-	private static final Pattern USE_NULL_STRATEGY_TABLE = Pattern.compile("^\\s*st null\\s*$",
-			Pattern.CASE_INSENSITIVE);
-	private static final Pattern USE_DEFAULT_STRATEGY_TABLE = Pattern.compile("^\\s*st default\\s*$",
-			Pattern.CASE_INSENSITIVE);
-	private static final Pattern USE_BYPASS_STRATEGY_TABLE = Pattern.compile("^\\s*st bypass\\s*$",
-			Pattern.CASE_INSENSITIVE);
-	private static final Pattern CREATE_ADD_ELEMENT_PATTERN = Pattern.compile("^add\\s*(?<value>\\d+)\\s*$",
-			Pattern.CASE_INSENSITIVE);
-	private static final Pattern CREATE_MULT_ELEMENT_PATTERN = Pattern.compile("^mult\\s*(?<value>\\d+)\\s*$",
-			Pattern.CASE_INSENSITIVE);
-	private static final Pattern INSTALL_IGNORE_DECORATOR_PATTERN = Pattern.compile("^ignore\\s*(?<index>\\d+)\\s*$",
-			Pattern.CASE_INSENSITIVE);
-	private static final Pattern INSTALL_REVERSE_DECORATOR_PATTERN = Pattern.compile("^reverse\\s*(?<index>\\d+)\\s*$",
-			Pattern.CASE_INSENSITIVE);
+	private static final int BATCH_BUFFER_SIZE = 64 * 1024;
+	private static final int MAX_LINE_LENGTH = 256;
+
+	private static final long BENCH_SEED = 42;
+	private static final int BENCH_WARMUP_ROUNDS = 5;
+	private static final int BENCH_ROUNDS = 10;
 
 	private static final Scanner SCANNER = new Scanner(System.in);
 
-	private enum StrategyTableType {
+	enum StrategyTableType {
 		ILLEGAL {
 			@Override
 			StrategyTable createTable(Set<Class<? extends Element>> baseElementClassSet,
@@ -83,8 +76,32 @@ public class Main {
 				Set<Class<? extends Operation<?, ?>>> operationClassSet);
 	}
 
+	/*
+	 * The state built up by a sequence of commands. Interactive sessions echo
+	 * every change, while batch sessions only report results and errors.
+	 */
+	private static class Session {
+		final List<Element> elements = new ArrayList<Element>();
+		final boolean interactive;
+		StrategyTableType tableType = StrategyTableType.DEFAULT;
+
+		Session(boolean interactive) {
+			this.interactive = interactive;
+		}
+	}
+
 	public static void main(String[] args) {
-		demonstrate();
+		if (args.length == 0) {
+			demonstrate();
+			return;
+		}
+
+		try {
+			runBatch(Paths.get(args[0]));
+		} catch (IOException e) {
+			System.err.println("Could not read commands from " + args[0] + ": " + e.getMessage());
+			System.exit(1);
+		}
 	}
 
 	private static void demonstrate() {
@@ -112,111 +129,171 @@ public class Main {
 				+ "\t'st illegal' to choose the illegal strategy table\n"
 				+ "\t'st null' to choose the null strategy table\n"
 				+ "\t'st default' to choose the default strategy table\n"
-				+ "\t'st bypass' to choose the bypass strategy table\n" + "\t'info' to print out the current setup\n"
+				+ "\t'st bypass' to choose the bypass strategy table\n"
+				+ "\t'bench <<count>> <<table type|all>>' to measure throughput over random elements\n"
+				+ "\t'info' to print out the current setup\n"
 				+ "\t'go' to run the demonstration with the current setup\n" + "\t'quit' to close this application\n"
-				+ "All commands are case insensitive.");
+				+ "All commands are case insensitive. The same commands can be run from a file by passing its"
+				+ " path as the first argument.");
 
 		System.out.println("\nPlease enter your first command:");
-		interpretInput(SCANNER.nextLine(), new ArrayList<Element>(), StrategyTableType.DEFAULT);
+
+		final Session session = new Session(true);
+		final CommandParser parser = new CommandParser();
+		while (SCANNER.hasNextLine()) {
+			final String input = SCANNER.nextLine();
+			final char[] chars = input.toCharArray();
+			final Command command = parser.parse(chars, 0, chars.length);
+
+			if (command == null) {
+				System.out.println("Unrecognised command: " + input);
+			} else if (!runCommand(command, parser, session)) {
+				return;
+			}
+		}
 	}
 
 	// ================================================================================
-	// User Interface
+	// Batch Mode
 	// ================================================================================
 
-	private static void interpretInput(String input, List<Element> elements, StrategyTableType tableType) {
-		Matcher m;
-
-		if ((m = QUIT_PATTERN.matcher(input)) != null && m.matches()) {
-			System.out.println("Exiting...");
-			System.exit(0);
+	/*
+	 * Commands are streamed through a fixed buffer one line at a time, so
+	 * scripts of any length can be run without holding them in memory.
+	 * Commands are ASCII, so bytes are widened to characters directly rather
+	 * than decoded.
+	 */
+	private static void runBatch(Path script) throws IOException {
+		final Session session = new Session(false);
+		final CommandParser parser = new CommandParser();
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(BATCH_BUFFER_SIZE);
+		final char[] line = new char[MAX_LINE_LENGTH];
+		int lineLength = 0;
+		int lineNumber = 0;
+		boolean running = true;
+
+		try (FileChannel channel = FileChannel.open(script, StandardOpenOption.READ)) {
+			while (running && channel.read(buffer) >= 0) {
+				buffer.flip();
+				while (running && buffer.hasRemaining()) {
+					final byte b = buffer.get();
+					if (b == '\n') {
+						running = runBatchLine(parser, session, line, lineLength, ++lineNumber);
+						lineLength = 0;
+					} else {
+						if (lineLength < line.length)
+							line[lineLength] = (char) (b & 0xFF);
+
+						lineLength++;
+					}
+				}
+
+				buffer.clear();
+			}
 		}
 
-		else if ((m = INFO_PATTERN.matcher(input)) != null && m.matches()) {
-			printInfo(elements, tableType);
-			interpretInput(SCANNER.nextLine(), elements, tableType);
-		}
+		if (running && lineLength > 0)
+			runBatchLine(parser, session, line, lineLength, ++lineNumber);
+	}
 
-		else if ((m = EXECUTE_PATTERN.matcher(input)) != null && m.matches()) {
-			System.out.println("Executing...");
-			execute(elements, tableType);
+	private static boolean runBatchLine(CommandParser parser, Session session, char[] line, int lineLength,
+			int lineNumber) {
+		if (lineLength > line.length) {
+			System.out.printf("Line %d: command is longer than %d characters%n", lineNumber, line.length);
+			return true;
 		}
 
-		else if ((m = USE_ILLEGAL_STRATEGY_TABLE.matcher(input)) != null && m.matches()) {
-			final StrategyTableType newTableType = StrategyTableType.ILLEGAL;
-			System.out.println("Setting strategy table: " + newTableType);
-			interpretInput(SCANNER.nextLine(), elements, newTableType);
+		final Command command = parser.parse(line, 0, lineLength);
+		if (command == null) {
+			System.out.printf("Line %d: unrecognised command: %s%n", lineNumber, new String(line, 0, lineLength));
+			return true;
 		}
 
-		else if ((m = USE_NULL_STRATEGY_TABLE.matcher(input)) != null && m.matches()) {
-			final StrategyTableType newTableType = StrategyTableType.NULL;
-			System.out.println("Setting strategy table: " + newTableType);
-			interpretInput(SCANNER.nextLine(), elements, newTableType);
-		}
+		return runCommand(command, parser, session);
+	}
 
-		else if ((m = USE_DEFAULT_STRATEGY_TABLE.matcher(input)) != null && m.matches()) {
-			final StrategyTableType newTableType = StrategyTableType.DEFAULT;
-			System.out.println("Setting strategy table: " + newTableType);
-			interpretInput(SCANNER.nextLine(), elements, newTableType);
-		}
+	// ================================================================================
+	// User Interface
+	// ================================================================================
 
-		else if ((m = USE_BYPASS_STRATEGY_TABLE.matcher(input)) != null && m.matches()) {
-			final StrategyTableType newTableType = StrategyTableType.BYPASS;
-			System.out.println("Setting strategy table: " + newTableType);
-			interpretInput(SCANNER.nextLine(), elements, newTableType);
-		}
+	/*
+	 * Returns whether the session should carry on reading commands.
+	 */
+	private static boolean runCommand(Command command, CommandParser parser, Session session) {
+		final List<Element> elements = session.elements;
 
-		else if ((m = CREATE_ADD_ELEMENT_PATTERN.matcher(input)) != null && m.matches()) {
-			final int value = Integer.parseInt(m.group("value"));
-			final Element newElement = ElementFactory.createAddElement(value);
-			elements.add(newElement);
-			System.out.println("Added " + newElement + "\nNew elements: " + elements);
-			interpretInput(SCANNER.nextLine(), elements, tableType);
-		}
+		switch (command) {
+		case NONE:
+			return true;
 
-		else if ((m = CREATE_MULT_ELEMENT_PATTERN.matcher(input)) != null && m.matches()) {
-			final int value = Integer.parseInt(m.group("value"));
-			final Element newElement = ElementFactory.createMultElement(value);
-			elements.add(newElement);
-			System.out.println("Added " + newElement + "\nNew elements: " + elements);
-			interpretInput(SCANNER.nextLine(), elements, tableType);
-		}
+		case QUIT:
+			System.out.println("Exiting...");
+			return false;
 
-		else if ((m = INSTALL_IGNORE_DECORATOR_PATTERN.matcher(input)) != null && m.matches()) {
-			final int index = Integer.parseInt(m.group("index"));
-			if (index < 0 || index >= elements.size()) {
-				System.out.printf("%d is not a valid index (elements: %s)\n", index, elements);
-				interpretInput(SCANNER.nextLine(), elements, tableType);
-			} else {
-				Element e = elements.remove(index);
-				elements.add(index, ElementFactory.addIgnoreDecoration(e));
-				System.out.println("Added ignore decoration to " + e + "\nNew elements: " + elements);
-				interpretInput(SCANNER.nextLine(), elements, tableType);
+		case INFO:
+			printInfo(session);
+			return true;
+
+		case GO:
+			System.out.println("Executing...");
+			if (session.interactive) {
+				execute(session);
+				return false;
 			}
-		}
 
-		else if ((m = INSTALL_REVERSE_DECORATOR_PATTERN.matcher(input)) != null && m.matches()) {
-			final int index = Integer.parseInt(m.group("index"));
-			if (index < 0 || index >= elements.size()) {
-				System.out.printf("%d is not a valid index (elements: %s)\n", index, elements);
-				interpretInput(SCANNER.nextLine(), elements, tableType);
-			} else {
-				Element e = elements.remove(index);
-				elements.add(index, ElementFactory.addReverseDecoration(e));
-				System.out.println("Added reverse decoration to " + e + "\nNew elements: " + elements);
-				interpretInput(SCANNER.nextLine(), elements, tableType);
+			try {
+				execute(session);
+			} catch (UnsupportedOperationException e) {
+				System.out.println("Execution failed: " + e.getMessage());
+			}
+			return true;
+
+		case ST:
+			session.tableType = parser.getTableType();
+			if (session.interactive)
+				System.out.println("Setting strategy table: " + session.tableType);
+			return true;
+
+		case ADD:
+		case MULT:
+			final Element newElement = command == Command.ADD ? ElementFactory.createAddElement(parser.getNumber())
+					: ElementFactory.createMultElement(parser.getNumber());
+			elements.add(newElement);
+			if (session.interactive)
+				System.out.println("Added " + newElement + "\nNew elements: " + elements);
+			return true;
+
+		case IGNORE:
+		case REVERSE:
+			final int index = parser.getNumber();
+			if (index >= elements.size()) {
+				System.out.printf("%d is not a valid index (elements: %s)\n", index,
+						session.interactive ? elements : elements.size() + " elements");
+				return true;
 			}
-		}
 
-		else {
-			System.out.println("Unrecognised command: " + input);
-			interpretInput(SCANNER.nextLine(), elements, tableType);
+			final Element e = elements.get(index);
+			final boolean ignore = command == Command.IGNORE;
+			elements.set(index, ignore ? ElementFactory.addIgnoreDecoration(e) : ElementFactory
+					.addReverseDecoration(e));
+			if (session.interactive)
+				System.out.println("Added " + (ignore ? "ignore" : "reverse") + " decoration to " + e
+						+ "\nNew elements: " + elements);
+			return true;
+
+		case BENCH:
+			bench(parser.getCount(), parser.getTableType());
+			return true;
+
+		default:
+			throw new AssertionError("Unhandled command: " + command);
 		}
 	}
 
-	private static void printInfo(List<Element> elements, StrategyTableType tableType) {
-		String info = String.format("Element count: %s\nElements: %s\nCurrent strategy table type: %s\n",
-				elements.size(), elements, tableType);
+	private static void printInfo(Session session) {
+		final String info = String.format("Element count: %s\nElements: %s\nCurrent strategy table type: %s\n",
+				session.elements.size(), session.interactive ? session.elements : "(not listed in batch mode)",
+				session.tableType);
 		System.out.println(info);
 	}
 
@@ -224,26 +301,91 @@ public class Main {
 	// Execution
 	// ================================================================================
 
-	private static void execute(List<Element> elements, StrategyTableType tableType) {
-		final Set<Class<? extends Element>> baseElementClassSet = getBaseElementClassSet();
-		final Set<Class<? extends Element>> decoratedElementClassSet = getDecoratedElementClassSet();
-		final Set<Class<? extends Operation<?, ?>>> operationClassSet = getOperationClassSet();
-		final StrategyTable table = tableType.createTable(baseElementClassSet, decoratedElementClassSet,
-				operationClassSet);
+	private static void execute(Session session) {
+		final StrategyTable table = createTable(session.tableType);
 
-		printInfo(elements, tableType);
+		printInfo(session);
 		System.out.println(table);
 
 		final PureOperation<Integer> totalOperation = new FindTotalOperation();
 		final PureOperation<Integer> countOperation = new CountElementOperation();
-		table.operateOverCollection(totalOperation, elements);
-		table.operateOverCollection(countOperation, elements);
+		table.operateOverCollection(totalOperation, session.elements);
+		table.operateOverCollection(countOperation, session.elements);
 
 		System.out.println("\nOperation results");
 		System.out.println("Total: " + totalOperation.get());
 		System.out.println("Element count: " + countOperation.get());
+	}
+
+	private static StrategyTable createTable(StrategyTableType tableType) {
+		return tableType.createTable(getBaseElementClassSet(), getDecoratedElementClassSet(), getOperationClassSet());
+	}
+
+	/*
+	 * Measures how many elements per second each table type can apply both
+	 * demonstration operations to, over the same randomly generated elements.
+	 */
+	private static void bench(int count, StrategyTableType onlyTableType) {
+		if (count == 0) {
+			System.out.println("Nothing to benchmark");
+			return;
+		}
+
+		final List<Element> elements = generateElements(count, new Random(BENCH_SEED));
+		System.out.printf("Benchmarking %d random elements (%d rounds of total and count operations)%n", count,
+				BENCH_ROUNDS);
+
+		for (StrategyTableType tableType : StrategyTableType.values()) {
+			if (onlyTableType != null && tableType != onlyTableType)
+				continue;
+
+			final StrategyTable table = createTable(tableType);
+			try {
+				for (int i = 0; i < BENCH_WARMUP_ROUNDS; i++) {
+					runBenchRound(table, elements);
+				}
+
+				final long start = System.nanoTime();
+				for (int i = 0; i < BENCH_ROUNDS; i++) {
+					runBenchRound(table, elements);
+				}
+				final long duration = Math.max(1, System.nanoTime() - start);
+
+				final double throughput = (double) count * BENCH_ROUNDS * 1e9 / duration;
+				System.out.printf("\t%-8s %,15.0f elements/s%n", tableType, throughput);
+			} catch (UnsupportedOperationException e) {
+				System.out.printf("\t%-8s unsupported: %s%n", tableType, e.getMessage());
+			}
+		}
+	}
+
+	private static void runBenchRound(StrategyTable table, List<Element> elements) {
+		table.operateOverCollection(new FindTotalOperation(), elements);
+		table.operateOverCollection(new CountElementOperation(), elements);
+	}
+
+	private static List<Element> generateElements(int count, Random random) {
+		final List<Element> elements = new ArrayList<Element>(count);
+		for (int i = 0; i < count; i++) {
+			final int value = random.nextInt(100);
+			Element element = random.nextBoolean() ? ElementFactory.createAddElement(value) : ElementFactory
+					.createMultElement(value);
+
+			switch (random.nextInt(4)) {
+			case 0:
+				element = ElementFactory.addIgnoreDecoration(element);
+				break;
+			case 1:
+				element = ElementFactory.addReverseDecoration(element);
+				break;
+			default:
+				break;
+			}
+
+			elements.add(element);
+		}
 
-		System.exit(0);
+		return elements;
 	}
 
 	// ================================================================================
@@ -0,0 +1,96 @@
+package tagc.strategytable.monitoring;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controls whether strategy tables and element factories report events to a
+ * {@link DispatchListener}.
+ * <p>
+ * Events are disabled by default. While no listener is registered, the only
+ * cost to dispatching is reading a single volatile field, and events can be
+ * enabled at any time in a running JVM by registering a listener.
+ * 
+ * @author David
+ */
+public final class DispatchEvents {
+
+	private static final long DEFAULT_SLOW_STRATEGY_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private static volatile DispatchListener listener;
+	private static volatile long slowStrategyThreshold = DEFAULT_SLOW_STRATEGY_THRESHOLD;
+
+	private DispatchEvents() {
+		throw new AssertionError("DispatchEvents should not be instantiable");
+	}
+
+	/**
+	 * Registers the listener to receive events, replacing any existing
+	 * listener.
+	 * 
+	 * @param listener
+	 *            the listener to receive events, or {@code null} to disable
+	 *            events
+	 */
+	public static void setListener(DispatchListener listener) {
+		DispatchEvents.listener = listener;
+	}
+
+	/**
+	 * Returns the listener currently receiving events.
+	 * 
+	 * @return the registered listener, or {@code null} if events are disabled
+	 */
+	public static DispatchListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Returns whether events are currently enabled.
+	 * 
+	 * @return {@code true} if a listener is registered, otherwise
+	 *         {@code false}
+	 */
+	public static boolean isEnabled() {
+		return listener != null;
+	}
+
+	/**
+	 * Sets how long a single strategy execution must take before it is
+	 * reported as slow. The default threshold is one millisecond.
+	 * 
+	 * @param threshold
+	 *            the threshold
+	 * @param unit
+	 *            the unit of {@code threshold}
+	 * @throws NullPointerException
+	 *             if {@code unit} is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if {@code threshold} is negative
+	 */
+	public static void setSlowStrategyThreshold(long threshold, TimeUnit unit) {
+		if (unit == null)
+			throw new NullPointerException("The time unit cannot be null");
+
+		if (threshold < 0)
+			throw new IllegalArgumentException("The threshold cannot be negative");
+
+		slowStrategyThreshold = unit.toNanos(threshold);
+	}
+
+	/**
+	 * Returns how long a single strategy execution must take before it is
+	 * reported as slow.
+	 * 
+	 * @param unit
+	 *            the unit to return the threshold in
+	 * @return the threshold
+	 * @throws NullPointerException
+	 *             if {@code unit} is {@code null}
+	 */
+	public static long getSlowStrategyThreshold(TimeUnit unit) {
+		if (unit == null)
+			throw new NullPointerException("The time unit cannot be null");
+
+		return unit.convert(slowStrategyThreshold, TimeUnit.NANOSECONDS);
+	}
+}
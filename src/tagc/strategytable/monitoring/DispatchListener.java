@@ -0,0 +1,78 @@
+package tagc.strategytable.monitoring;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.strategy.Strategy;
+
+/**
+ * Receives events describing the work done by strategy tables and element
+ * factories, once registered with {@link DispatchEvents#setListener}.
+ * <p>
+ * Listeners are called synchronously on the thread doing the work, possibly
+ * from many threads at once, so they should be thread-safe and return
+ * quickly. Events can be forwarded to a profiler such as Java Flight Recorder
+ * by committing an event of its own from each method.
+ * 
+ * @author David
+ * @see DispatchListenerAdapter
+ */
+public interface DispatchListener {
+
+	/**
+	 * Called when a single strategy execution took at least as long as the
+	 * slow strategy threshold.
+	 * 
+	 * @param operationType
+	 *            the type of operation applied
+	 * @param elementType
+	 *            the type of element the strategy was chosen for
+	 * @param strategy
+	 *            the strategy executed
+	 * @param durationNanos
+	 *            the time the strategy took, in nanoseconds
+	 * @see DispatchEvents#setSlowStrategyThreshold
+	 */
+	void slowStrategyExecuted(Class<? extends Operation<?, ?>> operationType, Class<? extends Element> elementType,
+			Strategy<?> strategy, long durationNanos);
+
+	/**
+	 * Called when a strategy table followed one or more redirect strategies,
+	 * such as substitute or bypass strategies, to find the strategy to
+	 * execute for an element.
+	 * 
+	 * @param operationType
+	 *            the type of operation applied
+	 * @param elementType
+	 *            the type of the element that the operation was applied to
+	 * @param redirectCount
+	 *            the number of redirect strategies followed
+	 * @param strategy
+	 *            the strategy that was finally executed
+	 */
+	void redirectChainFollowed(Class<? extends Operation<?, ?>> operationType, Class<? extends Element> elementType,
+			int redirectCount, Strategy<?> strategy);
+
+	/**
+	 * Called when a strategy table has finished applying an operation over a
+	 * collection of elements.
+	 * 
+	 * @param operationType
+	 *            the type of operation applied
+	 * @param elementCount
+	 *            the number of elements in the collection
+	 * @param durationNanos
+	 *            the time taken, in nanoseconds
+	 */
+	void collectionProcessed(Class<? extends Operation<?, ?>> operationType, int elementCount, long durationNanos);
+
+	/**
+	 * Called when an element factory could not reuse a cached element and had
+	 * to create a new one.
+	 * 
+	 * @param elementType
+	 *            the type of element created
+	 * @param value
+	 *            the value of the element created
+	 */
+	void elementCacheMissed(Class<? extends Element> elementType, int value);
+}
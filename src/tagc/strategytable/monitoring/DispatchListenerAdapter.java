@@ -0,0 +1,33 @@
+package tagc.strategytable.monitoring;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.strategy.Strategy;
+
+/**
+ * A {@link DispatchListener} that ignores every event, so that listeners
+ * interested in only some events only need to override those methods.
+ * 
+ * @author David
+ */
+public abstract class DispatchListenerAdapter implements DispatchListener {
+
+	@Override
+	public void slowStrategyExecuted(Class<? extends Operation<?, ?>> operationType,
+			Class<? extends Element> elementType, Strategy<?> strategy, long durationNanos) {
+	}
+
+	@Override
+	public void redirectChainFollowed(Class<? extends Operation<?, ?>> operationType,
+			Class<? extends Element> elementType, int redirectCount, Strategy<?> strategy) {
+	}
+
+	@Override
+	public void collectionProcessed(Class<? extends Operation<?, ?>> operationType, int elementCount,
+			long durationNanos) {
+	}
+
+	@Override
+	public void elementCacheMissed(Class<? extends Element> elementType, int value) {
+	}
+}
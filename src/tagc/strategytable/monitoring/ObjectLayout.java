@@ -0,0 +1,239 @@
+package tagc.strategytable.monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+/**
+ * Estimates how many bytes objects occupy on the heap of the running JVM.
+ * <p>
+ * Estimates follow the HotSpot object layout: a header of a mark word and a
+ * class pointer, followed by the object's fields, padded to the object
+ * alignment. References and class pointers take four bytes when compressed
+ * oops are in use and eight otherwise. Where the running JVM cannot be
+ * queried, compressed oops are assumed for 64-bit JVMs with heaps of under 32
+ * GB, as that is HotSpot's default.
+ *
+ * @author David
+ */
+public final class ObjectLayout {
+
+	private static final long COMPRESSED_OOPS_HEAP_LIMIT = 32L * 1024 * 1024 * 1024;
+
+	private static final boolean COMPRESSED_OOPS;
+	private static final int REFERENCE_SIZE;
+	private static final int OBJECT_HEADER_SIZE;
+	private static final int ARRAY_HEADER_SIZE;
+	private static final int ALIGNMENT;
+
+	/*
+	 * The load factor that the JDK's hash tables resize at by default.
+	 */
+	private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+	private static final int DEFAULT_HASH_TABLE_CAPACITY = 16;
+
+	private static final ClassValue<Long> SHALLOW_SIZES = new ClassValue<Long>() {
+		@Override
+		protected Long computeValue(Class<?> type) {
+			long size = OBJECT_HEADER_SIZE;
+			for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+				for (Field field : c.getDeclaredFields()) {
+					if (!Modifier.isStatic(field.getModifiers()))
+						size += getFieldSize(field.getType());
+				}
+			}
+
+			return align(size);
+		}
+	};
+
+	static {
+		final boolean is32Bit = "32".equals(System.getProperty("sun.arch.data.model"));
+		COMPRESSED_OOPS = !is32Bit
+				&& getBooleanOption("UseCompressedOops", Runtime.getRuntime().maxMemory() < COMPRESSED_OOPS_HEAP_LIMIT);
+
+		final boolean compressedClassPointers = !is32Bit
+				&& getBooleanOption("UseCompressedClassPointers", COMPRESSED_OOPS);
+		final int markWordSize = is32Bit ? 4 : 8;
+
+		REFERENCE_SIZE = is32Bit || COMPRESSED_OOPS ? 4 : 8;
+		OBJECT_HEADER_SIZE = markWordSize + (is32Bit || compressedClassPointers ? 4 : 8);
+		ARRAY_HEADER_SIZE = OBJECT_HEADER_SIZE + 4;
+		ALIGNMENT = getIntOption("ObjectAlignmentInBytes", 8);
+	}
+
+	private ObjectLayout() {
+		throw new AssertionError("ObjectLayout should not be instantiable");
+	}
+
+	private static HotSpotDiagnosticMXBean getDiagnosticBean() {
+		try {
+			return ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+		} catch (RuntimeException | LinkageError e) {
+			return null;
+		}
+	}
+
+	private static String getOption(String name) {
+		final HotSpotDiagnosticMXBean bean = getDiagnosticBean();
+		if (bean == null)
+			return null;
+
+		try {
+			return bean.getVMOption(name).getValue();
+		} catch (IllegalArgumentException e) {
+			/*
+			 * The option does not exist on this JVM.
+			 */
+			return null;
+		}
+	}
+
+	private static boolean getBooleanOption(String name, boolean defaultValue) {
+		final String value = getOption(name);
+		return value != null ? Boolean.parseBoolean(value) : defaultValue;
+	}
+
+	private static int getIntOption(String name, int defaultValue) {
+		final String value = getOption(name);
+		try {
+			return value != null ? Integer.parseInt(value) : defaultValue;
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	private static int getFieldSize(Class<?> type) {
+		if (!type.isPrimitive())
+			return REFERENCE_SIZE;
+
+		if (type == long.class || type == double.class)
+			return 8;
+
+		if (type == int.class || type == float.class)
+			return 4;
+
+		if (type == short.class || type == char.class)
+			return 2;
+
+		return 1;
+	}
+
+	/**
+	 * Returns whether object references are compressed in the running JVM.
+	 *
+	 * @return {@code true} if references take four bytes on a 64-bit JVM
+	 */
+	public static boolean isCompressedOops() {
+		return COMPRESSED_OOPS;
+	}
+
+	/**
+	 * Returns the size of an object reference.
+	 *
+	 * @return the size of a reference, in bytes
+	 */
+	public static int getReferenceSize() {
+		return REFERENCE_SIZE;
+	}
+
+	/**
+	 * Returns the size of the header of every object that is not an array.
+	 *
+	 * @return the size of an object header, in bytes
+	 */
+	public static int getObjectHeaderSize() {
+		return OBJECT_HEADER_SIZE;
+	}
+
+	/**
+	 * Rounds a size up to the object alignment.
+	 *
+	 * @param size
+	 *            the unaligned size, in bytes
+	 * @return the aligned size, in bytes
+	 */
+	public static long align(long size) {
+		return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+
+	/**
+	 * Returns the size of an instance of {@code type}, not including any
+	 * objects that it refers to.
+	 *
+	 * @param type
+	 *            the type of the instance
+	 * @return the size of the instance, in bytes
+	 * @throws NullPointerException
+	 *             if {@code type} is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if {@code type} is an array, primitive or interface type
+	 */
+	public static long shallowSizeOf(Class<?> type) {
+		if (type == null)
+			throw new NullPointerException("The type cannot be null");
+
+		if (type.isArray() || type.isPrimitive() || type.isInterface())
+			throw new IllegalArgumentException("Instances of " + type.getName() + " do not have a fixed size");
+
+		return SHALLOW_SIZES.get(type);
+	}
+
+	/**
+	 * Returns the size of an array, not including any objects that it refers
+	 * to.
+	 *
+	 * @param componentType
+	 *            the component type of the array
+	 * @param length
+	 *            the length of the array
+	 * @return the size of the array, in bytes
+	 * @throws IllegalArgumentException
+	 *             if {@code length} is negative
+	 */
+	public static long arraySizeOf(Class<?> componentType, int length) {
+		if (length < 0)
+			throw new IllegalArgumentException("The length cannot be negative");
+
+		final int elementSize = getFieldSize(componentType);
+
+		/*
+		 * Elements of eight bytes start on an eight byte boundary.
+		 */
+		final long header = elementSize == 8 ? align(ARRAY_HEADER_SIZE) : ARRAY_HEADER_SIZE;
+		return align(header + (long) elementSize * length);
+	}
+
+	/**
+	 * Returns the size of the hash table and entries of a
+	 * {@link java.util.HashMap} or {@link java.util.HashSet} holding
+	 * {@code size} entries, not including the map object itself or its keys
+	 * and values.
+	 *
+	 * @param size
+	 *            the number of entries
+	 * @return the size of the hash table and its entries, in bytes
+	 * @throws IllegalArgumentException
+	 *             if {@code size} is negative
+	 */
+	public static long hashTableSizeOf(int size) {
+		if (size < 0)
+			throw new IllegalArgumentException("The size cannot be negative");
+
+		if (size == 0)
+			return 0;
+
+		int capacity = DEFAULT_HASH_TABLE_CAPACITY;
+		while (capacity * DEFAULT_LOAD_FACTOR < size) {
+			capacity <<= 1;
+		}
+
+		/*
+		 * Each entry holds its hash, key, value and next entry.
+		 */
+		final long entrySize = align(OBJECT_HEADER_SIZE + 4 + 3L * REFERENCE_SIZE);
+		return arraySizeOf(Object.class, capacity) + entrySize * size;
+	}
+}
@@ -0,0 +1,42 @@
+package tagc.strategytable.operation;
+
+/**
+ * Cacheable operations declare that their results can be remembered and
+ * reused by a {@link tagc.strategytable.table.StrategyTable} applying them
+ * over an {@link tagc.strategytable.table.ImmutableElementList}.
+ * <p>
+ * An operation type should only implement this interface if the result of
+ * applying it over a list depends on nothing but the elements of the list and
+ * the operation's starting result, if the strategies registered for it have no
+ * effect other than storing results with the operation, and if the results it
+ * returns are never modified once they have been returned. When a result is
+ * reused, no strategies are executed.
+ * <p>
+ * None of the built-in operations implement this interface, since a strategy
+ * table cannot know what strategies its clients register for them. A client
+ * opts in by declaring its own operation type, for example by extending a
+ * built-in operation, adding that type to the operations its table supports
+ * and registering strategies for it:
+ * 
+ * <pre>
+ * public class CachedTotalOperation extends FindTotalOperation
+ * 		implements CacheableOperation&lt;Integer&gt; {
+ * }
+ * 
+ * table.registerOperationStrategies(CachedTotalOperation.class,
+ * 		new AddTotalOperationStrategy());
+ * </pre>
+ * 
+ * The strategies for the built-in operations can be registered for such a
+ * subtype, because strategies accept subtypes of the operation they handle.
+ *
+ * @author David
+ *
+ * @param <T>
+ *            the type of data that can be passed and retrieved from this
+ *            operation
+ * @see tagc.strategytable.table.StrategyTable#setResultCacheCapacity(int)
+ */
+public interface CacheableOperation<T> extends PureOperation<T> {
+
+}
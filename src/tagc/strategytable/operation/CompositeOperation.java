@@ -0,0 +1,112 @@
+package tagc.strategytable.operation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An operation that holds several sub-operations, so that they can all be
+ * applied to each element while the strategy table only dispatches once. It
+ * is handled by a
+ * {@link tagc.strategytable.strategy.CompositeOperationStrategy}, which holds
+ * one strategy for each sub-operation.
+ * <p>
+ * The data of a composite operation is the list of its sub-operations' data,
+ * in order.
+ *
+ * @author David
+ */
+public class CompositeOperation implements Operation<List<?>, List<Object>> {
+
+	private final List<Operation<?, ?>> operations;
+
+	/**
+	 * Constructs a {@code CompositeOperation} holding each operation in
+	 * {@code operations} in order.
+	 *
+	 * @param operations
+	 *            the sub-operations
+	 * @throws NullPointerException
+	 *             if {@code operations} or any of the operations are
+	 *             {@code null}
+	 */
+	public CompositeOperation(List<? extends Operation<?, ?>> operations) {
+		if (operations == null)
+			throw new NullPointerException("The list of operations cannot be null");
+
+		for (Operation<?, ?> operation : operations) {
+			if (operation == null)
+				throw new NullPointerException("The operation cannot be null");
+		}
+
+		this.operations = Collections.unmodifiableList(new ArrayList<Operation<?, ?>>(operations));
+	}
+
+	/**
+	 * Returns the number of sub-operations this operation holds.
+	 *
+	 * @return the number of sub-operations
+	 */
+	public int size() {
+		return operations.size();
+	}
+
+	/**
+	 * Returns the sub-operation at {@code index}.
+	 *
+	 * @param index
+	 *            the index of the sub-operation
+	 * @return the sub-operation
+	 * @throws IndexOutOfBoundsException
+	 *             if {@code index} is out of range
+	 */
+	public Operation<?, ?> getOperation(int index) {
+		return operations.get(index);
+	}
+
+	/**
+	 * Returns the sub-operations this operation holds.
+	 *
+	 * @return an unmodifiable list of sub-operations
+	 */
+	public List<Operation<?, ?>> getOperations() {
+		return operations;
+	}
+
+	/**
+	 * Stores each item in {@code data} with the sub-operation at the same
+	 * index.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if {@code data} does not hold one item for each
+	 *             sub-operation
+	 */
+	@Override
+	public void store(List<?> data) {
+		if (data.size() != operations.size())
+			throw new IllegalArgumentException("The data must hold one item for each operation");
+
+		for (int i = 0; i < operations.size(); i++) {
+			storeHelper(operations.get(i), data.get(i));
+		}
+	}
+
+	/*
+	 * The caller is responsible for passing data of the type each
+	 * sub-operation accepts.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <I> void storeHelper(Operation<I, ?> operation, Object data) {
+		operation.store((I) data);
+	}
+
+	@Override
+	public List<Object> get() {
+		final List<Object> data = new ArrayList<Object>(operations.size());
+		for (Operation<?, ?> operation : operations) {
+			data.add(operation.get());
+		}
+
+		return data;
+	}
+}
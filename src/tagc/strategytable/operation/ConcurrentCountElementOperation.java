@@ -0,0 +1,11 @@
+package tagc.strategytable.operation;
+
+/**
+ * A version of {@link CountElementOperation} that many threads can apply
+ * elements to at once.
+ * 
+ * @author David
+ */
+public class ConcurrentCountElementOperation extends StripedIntegerOperation {
+
+}
@@ -0,0 +1,11 @@
+package tagc.strategytable.operation;
+
+/**
+ * A version of {@link FindTotalOperation} that many threads can apply elements
+ * to at once. Totals can only be found by adding elements together.
+ * 
+ * @author David
+ */
+public class ConcurrentFindTotalOperation extends StripedIntegerOperation {
+
+}
@@ -1,8 +1,12 @@
 package tagc.strategytable.operation;
 
-public class CountElementOperation implements PureOperation<Integer> {
+public class CountElementOperation implements InvertibleOperation<Integer>, ResettableOperation<Integer, Integer> {
 	
-	private Integer count = 0;
+	/*
+	 * The count is kept unboxed so that strategies can update it through
+	 * #storeCount and #getCount without allocating.
+	 */
+	private int count = 0;
 
 	@Override
 	public void store(Integer data) {
@@ -13,4 +17,45 @@ public class CountElementOperation implements PureOperation<Integer> {
 	public Integer get() {
 		return count;
 	}
+
+	/**
+	 * Stores a new count. This is equivalent to {@link #store} but avoids
+	 * boxing.
+	 * 
+	 * @param count
+	 *            the new count
+	 */
+	public void storeCount(int count) {
+		this.count = count;
+	}
+
+	/**
+	 * Returns the current count. This is equivalent to {@link #get} but avoids
+	 * boxing.
+	 * 
+	 * @return the current count
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	@Override
+	public void reset() {
+		this.count = 0;
+	}
+
+	@Override
+	public Integer identity() {
+		return 0;
+	}
+
+	@Override
+	public Integer combine(Integer first, Integer second) {
+		return first + second;
+	}
+
+	@Override
+	public Integer inverse(Integer result) {
+		return -result;
+	}
 }
@@ -0,0 +1,37 @@
+package tagc.strategytable.operation;
+
+import tagc.strategytable.element.Element;
+
+/**
+ * An operation that finds the first element that a strategy accepts, which
+ * can be used to check whether any such element exists. Only the first
+ * element stored is kept.
+ * 
+ * @author David
+ */
+public class FindElementOperation implements ShortCircuitingOperation<Element, Element>,
+		ResettableOperation<Element, Element> {
+
+	private Element element;
+
+	@Override
+	public void store(Element element) {
+		if (this.element == null)
+			this.element = element;
+	}
+
+	@Override
+	public Element get() {
+		return element;
+	}
+
+	@Override
+	public void reset() {
+		this.element = null;
+	}
+
+	@Override
+	public boolean isComplete() {
+		return element != null;
+	}
+}
@@ -0,0 +1,56 @@
+package tagc.strategytable.operation;
+
+public class FindProductOperation implements ShortCircuitingOperation<Integer, Integer>,
+		ResettableOperation<Integer, Integer> {
+
+	/*
+	 * The product is kept unboxed so that strategies can update it through
+	 * #storeProduct and #getProduct without allocating.
+	 */
+	private int value = 1;
+
+	@Override
+	public void store(Integer value) {
+		this.value = value;
+	}
+
+	@Override
+	public Integer get() {
+		return value;
+	}
+
+	/**
+	 * Stores a new product. This is equivalent to {@link #store} but avoids
+	 * boxing.
+	 * 
+	 * @param value
+	 *            the new product
+	 */
+	public void storeProduct(int value) {
+		this.value = value;
+	}
+
+	/**
+	 * Returns the current product. This is equivalent to {@link #get} but
+	 * avoids boxing.
+	 * 
+	 * @return the current product
+	 */
+	public int getProduct() {
+		return value;
+	}
+
+	@Override
+	public void reset() {
+		this.value = 1;
+	}
+
+	/*
+	 * Once an element with a value of zero has been multiplied in, the product
+	 * can never change again.
+	 */
+	@Override
+	public boolean isComplete() {
+		return value == 0;
+	}
+}
@@ -1,8 +1,12 @@
 package tagc.strategytable.operation;
 
-public class FindTotalOperation implements PureOperation<Integer> {
+public class FindTotalOperation implements InvertibleOperation<Integer>, ResettableOperation<Integer, Integer> {
 	
-	private Integer value = 0;
+	/*
+	 * The total is kept unboxed so that strategies can update it through
+	 * #storeTotal and #getTotal without allocating.
+	 */
+	private int value = 0;
 
 	@Override
 	public void store(Integer value) {
@@ -13,4 +17,51 @@ public class FindTotalOperation implements PureOperation<Integer> {
 	public Integer get() {
 		return value;
 	}
+
+	/**
+	 * Stores a new total. This is equivalent to {@link #store} but avoids
+	 * boxing.
+	 * 
+	 * @param value
+	 *            the new total
+	 */
+	public void storeTotal(int value) {
+		this.value = value;
+	}
+
+	/**
+	 * Returns the current total. This is equivalent to {@link #get} but avoids
+	 * boxing.
+	 * 
+	 * @return the current total
+	 */
+	public int getTotal() {
+		return value;
+	}
+
+	@Override
+	public void reset() {
+		this.value = 0;
+	}
+
+	/*
+	 * Totals are only invertible when they are found by adding elements
+	 * together. Multiplication strategies make the total depend on the order
+	 * of elements, so they are not additive and StrategyTable#isAdditive
+	 * reports tables that use them.
+	 */
+	@Override
+	public Integer identity() {
+		return 0;
+	}
+
+	@Override
+	public Integer combine(Integer first, Integer second) {
+		return first + second;
+	}
+
+	@Override
+	public Integer inverse(Integer result) {
+		return -result;
+	}
 }
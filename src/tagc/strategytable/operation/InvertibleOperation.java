@@ -0,0 +1,53 @@
+package tagc.strategytable.operation;
+
+/**
+ * Invertible operations are {@link PureOperation} objects whose results form a
+ * group: results can be combined, every result has an inverse and there is an
+ * identity result for an empty collection of elements.
+ * <p>
+ * This allows the contribution that a single element makes to the result of an
+ * operation to be found, added and later removed without reprocessing any
+ * other elements. This is only meaningful when every strategy used with the
+ * operation stores a combination of the current result with a value derived
+ * from the element, as
+ * {@link tagc.strategytable.strategy.AdditiveStrategy additive strategies} do.
+ * Whether this holds for a particular strategy table can be checked with
+ * {@link tagc.strategytable.table.StrategyTable#isAdditive}.
+ * 
+ * @author David
+ * 
+ * @param <T>
+ *            the type of data that can be passed and retrieved from this
+ *            operation
+ */
+public interface InvertibleOperation<T> extends PureOperation<T> {
+
+	/**
+	 * Returns the result that this operation has before any elements have been
+	 * applied to it.
+	 * 
+	 * @return the identity result
+	 */
+	T identity();
+
+	/**
+	 * Combines two results of this type of operation.
+	 * 
+	 * @param first
+	 *            the first result
+	 * @param second
+	 *            the second result
+	 * @return the combination of {@code first} and {@code second}
+	 */
+	T combine(T first, T second);
+
+	/**
+	 * Returns the inverse of a result, such that combining the result with its
+	 * inverse gives {@link #identity}.
+	 * 
+	 * @param result
+	 *            the result to invert
+	 * @return the inverse of {@code result}
+	 */
+	T inverse(T result);
+}
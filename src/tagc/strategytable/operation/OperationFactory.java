@@ -0,0 +1,23 @@
+package tagc.strategytable.operation;
+
+/**
+ * A factory object that creates operations in their initial state, such as
+ * one for each group of elements that an operation is applied to.
+ * <p>
+ * Factories may be called from several threads at once, so they should not
+ * share mutable state between the operations they create.
+ *
+ * @author David
+ *
+ * @param <T>
+ *            the type of operation created by this factory
+ */
+public interface OperationFactory<T extends Operation<?, ?>> {
+
+	/**
+	 * Creates a new operation in its initial state.
+	 *
+	 * @return a new operation
+	 */
+	T createOperation();
+}
@@ -0,0 +1,150 @@
+package tagc.strategytable.operation;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A pool of {@link ResettableOperation} objects that lets callers reuse
+ * operations instead of constructing new ones for every sequence of elements.
+ * <p>
+ * Each thread has its own pool of idle operations for each type of operation,
+ * so borrowing and releasing operations requires no synchronisation and, once
+ * the pool is warm, no allocation. Operations should be released by the thread
+ * that borrowed them.
+ * 
+ * @author David
+ */
+public class OperationPool {
+
+	private static final int DEFAULT_MAX_IDLE_PER_TYPE = 16;
+
+	private final int maxIdlePerType;
+	private final ThreadLocal<Map<Class<?>, ArrayDeque<ResettableOperation<?, ?>>>> idleOperations = new ThreadLocal<Map<Class<?>, ArrayDeque<ResettableOperation<?, ?>>>>() {
+		@Override
+		protected Map<Class<?>, ArrayDeque<ResettableOperation<?, ?>>> initialValue() {
+			return new HashMap<Class<?>, ArrayDeque<ResettableOperation<?, ?>>>();
+		}
+	};
+
+	/**
+	 * Constructs an {@code OperationPool} that keeps up to 16 idle operations
+	 * of each type per thread.
+	 */
+	public OperationPool() {
+		this(DEFAULT_MAX_IDLE_PER_TYPE);
+	}
+
+	/**
+	 * Constructs an {@code OperationPool}.
+	 * 
+	 * @param maxIdlePerType
+	 *            the maximum number of idle operations of each type to keep
+	 *            per thread
+	 * @throws IllegalArgumentException
+	 *             if {@code maxIdlePerType} is negative
+	 */
+	public OperationPool(int maxIdlePerType) {
+		if (maxIdlePerType < 0)
+			throw new IllegalArgumentException("The maximum number of idle operations cannot be negative");
+
+		this.maxIdlePerType = maxIdlePerType;
+	}
+
+	/**
+	 * Returns an operation of type {@code operationType} in its initial state,
+	 * reusing an idle operation released by this thread if there is one or
+	 * otherwise constructing a new one.
+	 * 
+	 * @param operationType
+	 *            the type of operation to borrow, which must have a public
+	 *            no-argument constructor
+	 * @return an operation of type {@code operationType}
+	 * @throws NullPointerException
+	 *             if {@code operationType} is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if a new operation of type {@code operationType} cannot be
+	 *             constructed
+	 */
+	public <T extends ResettableOperation<?, ?>> T borrow(Class<T> operationType) {
+		if (operationType == null)
+			throw new NullPointerException("The operation type cannot be null");
+
+		final ArrayDeque<ResettableOperation<?, ?>> idle = idleOperations.get().get(operationType);
+		if (idle != null && !idle.isEmpty())
+			return operationType.cast(idle.pop());
+
+		try {
+			return operationType.newInstance();
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new IllegalArgumentException("Operations of type " + operationType.getSimpleName()
+					+ " cannot be constructed", e);
+		}
+	}
+
+	/**
+	 * Resets {@code operation} and returns it to this thread's pool so that it
+	 * can be borrowed again. The operation should not be used by the caller
+	 * after it has been released. If the pool already holds the maximum number
+	 * of idle operations of this type, the operation is discarded.
+	 * <p>
+	 * Releasing an operation that is already idle in this thread's pool would
+	 * let it be borrowed twice, so it is rejected.
+	 * 
+	 * @param operation
+	 *            the operation to release
+	 * @throws NullPointerException
+	 *             if {@code operation} is {@code null}
+	 * @throws IllegalStateException
+	 *             if {@code operation} has already been released and not
+	 *             borrowed again
+	 */
+	public void release(ResettableOperation<?, ?> operation) {
+		if (operation == null)
+			throw new NullPointerException("The operation cannot be null");
+
+		final Map<Class<?>, ArrayDeque<ResettableOperation<?, ?>>> idleByType = idleOperations.get();
+		ArrayDeque<ResettableOperation<?, ?>> idle = idleByType.get(operation.getClass());
+		if (idle == null) {
+			idle = new ArrayDeque<ResettableOperation<?, ?>>();
+			idleByType.put(operation.getClass(), idle);
+		}
+
+		if (isIdle(idle, operation))
+			throw new IllegalStateException("The operation has already been released");
+
+		operation.reset();
+		if (idle.size() < maxIdlePerType)
+			idle.push(operation);
+	}
+
+	/*
+	 * Operations are compared by identity, and the pool for each type is
+	 * small enough that scanning it is cheaper than keeping a separate set of
+	 * pooled instances. Iterating an ArrayDeque allocates an iterator, so the
+	 * scan is done by cycling the deque's elements instead.
+	 */
+	private static boolean isIdle(ArrayDeque<ResettableOperation<?, ?>> idle, ResettableOperation<?, ?> operation) {
+		boolean found = false;
+		for (int i = 0; i < idle.size(); i++) {
+			final ResettableOperation<?, ?> candidate = idle.pollFirst();
+			found |= candidate == operation;
+			idle.addLast(candidate);
+		}
+
+		return found;
+	}
+
+	/**
+	 * Returns the number of idle operations of type {@code operationType} held
+	 * for the current thread.
+	 * 
+	 * @param operationType
+	 *            the type of operation
+	 * @return the number of idle operations of that type
+	 */
+	public int getIdleCount(Class<? extends ResettableOperation<?, ?>> operationType) {
+		final ArrayDeque<ResettableOperation<?, ?>> idle = idleOperations.get().get(operationType);
+		return idle == null ? 0 : idle.size();
+	}
+}
@@ -0,0 +1,23 @@
+package tagc.strategytable.operation;
+
+/**
+ * Resettable operations can be returned to the state they were in when first
+ * constructed, so that a single instance can be reused for many independent
+ * sequences of elements.
+ * 
+ * @author David
+ * 
+ * @param <I>
+ *            the type of data that can be passed to this type of operation
+ * @param <O>
+ *            the type of data that can be retrieved from this type of operation
+ * @see OperationPool
+ */
+public interface ResettableOperation<I, O> extends Operation<I, O> {
+
+	/**
+	 * Discards any data stored with this operation, returning it to the state
+	 * it was in when constructed.
+	 */
+	void reset();
+}
@@ -0,0 +1,28 @@
+package tagc.strategytable.operation;
+
+/**
+ * Short-circuiting operations can signal that their result is final, so that
+ * no further elements need to be visited.
+ * <p>
+ * Once an operation reports that it is complete, applying it to any further
+ * elements must leave its result unchanged. Collection-level traversals such
+ * as {@link tagc.strategytable.table.StrategyTable#operateOverCollection} stop
+ * as soon as this is the case.
+ * 
+ * @author David
+ * 
+ * @param <I>
+ *            the type of data that can be passed to this type of operation
+ * @param <O>
+ *            the type of data that can be retrieved from this type of operation
+ */
+public interface ShortCircuitingOperation<I, O> extends Operation<I, O> {
+
+	/**
+	 * Returns whether the result of this operation is final.
+	 * 
+	 * @return {@code true} if no further elements can change the result of
+	 *         this operation, otherwise {@code false}
+	 */
+	boolean isComplete();
+}
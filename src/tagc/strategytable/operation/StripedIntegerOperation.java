@@ -0,0 +1,106 @@
+package tagc.strategytable.operation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A base class for operations whose integer result is a sum that many threads
+ * can add to at once.
+ * <p>
+ * The sum is spread over several cells, each padded onto its own cache line,
+ * and each thread adds to the cell chosen by its identity. Threads therefore
+ * rarely contend with each other when adding, and {@link #get} sums the cells.
+ * {@link #add} is thread-safe, but {@link #store} and {@link #reset} should
+ * not be called while other threads are adding.
+ * 
+ * @author David
+ */
+public abstract class StripedIntegerOperation implements InvertibleOperation<Integer>,
+		ResettableOperation<Integer, Integer> {
+
+	/*
+	 * The number of longs between the cells, so that each cell lies on a
+	 * different cache line.
+	 */
+	private static final int PADDING = 16;
+
+	private final int cellMask;
+	private final AtomicLongArray cells;
+
+	protected StripedIntegerOperation() {
+		int cellCount = 1;
+		while (cellCount < Runtime.getRuntime().availableProcessors() * 2) {
+			cellCount <<= 1;
+		}
+
+		this.cellMask = cellCount - 1;
+		this.cells = new AtomicLongArray(cellCount * PADDING);
+	}
+
+	/**
+	 * Adds {@code delta} to the result of this operation. This method may be
+	 * called by many threads at once.
+	 * 
+	 * @param delta
+	 *            the amount to add
+	 */
+	public void add(int delta) {
+		cells.getAndAdd(cellIndex(), delta);
+	}
+
+	/**
+	 * Returns the result of this operation. This is equivalent to
+	 * {@link #get} but avoids boxing.
+	 * 
+	 * @return the sum of all additions
+	 */
+	public int sum() {
+		long sum = 0;
+		for (int i = 0; i <= cellMask; i++) {
+			sum += cells.get(i * PADDING);
+		}
+
+		return (int) sum;
+	}
+
+	private int cellIndex() {
+		long id = Thread.currentThread().getId();
+		id ^= id >>> 33;
+		id *= 0xff51afd7ed558ccdL;
+		id ^= id >>> 33;
+		return ((int) id & cellMask) * PADDING;
+	}
+
+	@Override
+	public void store(Integer data) {
+		for (int i = 1; i <= cellMask; i++) {
+			cells.set(i * PADDING, 0);
+		}
+
+		cells.set(0, data);
+	}
+
+	@Override
+	public Integer get() {
+		return sum();
+	}
+
+	@Override
+	public void reset() {
+		store(0);
+	}
+
+	@Override
+	public Integer identity() {
+		return 0;
+	}
+
+	@Override
+	public Integer combine(Integer first, Integer second) {
+		return first + second;
+	}
+
+	@Override
+	public Integer inverse(Integer result) {
+		return -result;
+	}
+}
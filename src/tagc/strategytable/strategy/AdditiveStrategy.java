@@ -0,0 +1,22 @@
+package tagc.strategytable.strategy;
+
+import tagc.strategytable.operation.InvertibleOperation;
+
+/**
+ * Additive strategies apply an element to an {@link InvertibleOperation} by
+ * combining the operation's current result with a value that depends only on
+ * the element, using {@link InvertibleOperation#combine}.
+ * <p>
+ * The result of applying an operation over a collection using only additive
+ * strategies is then the combination of the contributions of each element, so
+ * it can be maintained incrementally or found by combining the results for
+ * separate parts of the collection. A
+ * {@link tagc.strategytable.table.StrategyTable} uses this marker to decide
+ * whether it is safe to do so.
+ *
+ * @author David
+ * @param <T>
+ *            the specific type of Operation to handle
+ */
+public interface AdditiveStrategy<T extends InvertibleOperation<?>> extends Strategy<T> {
+}
@@ -0,0 +1,90 @@
+package tagc.strategytable.strategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.CompositeOperation;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.table.StrategyTable;
+
+/**
+ * A strategy that handles a {@link CompositeOperation} by executing one
+ * strategy for each of its sub-operations, so that several behaviours, such
+ * as finding a total and counting, are applied to an element while the
+ * strategy table only dispatches once.
+ * <p>
+ * The strategy at each index is executed with the sub-operation at the same
+ * index, so it must handle that sub-operation's type. A {@link NullStrategy}
+ * leaves its sub-operation unchanged.
+ *
+ * @author David
+ */
+public class CompositeOperationStrategy implements Strategy<CompositeOperation> {
+
+	private final List<Strategy<?>> strategies;
+
+	/**
+	 * Constructs a {@code CompositeOperationStrategy} that executes the
+	 * strategy at each index of {@code strategies} with the sub-operation at
+	 * the same index.
+	 *
+	 * @param strategies
+	 *            the strategies for each sub-operation, in order
+	 * @throws NullPointerException
+	 *             if {@code strategies} or any of the strategies are
+	 *             {@code null}
+	 */
+	public CompositeOperationStrategy(List<? extends Strategy<?>> strategies) {
+		if (strategies == null)
+			throw new NullPointerException("The list of strategies cannot be null");
+
+		for (Strategy<?> strategy : strategies) {
+			if (strategy == null)
+				throw new NullPointerException("The strategy cannot be null");
+		}
+
+		this.strategies = Collections.unmodifiableList(new ArrayList<Strategy<?>>(strategies));
+	}
+
+	/**
+	 * Returns the strategies that this strategy executes for each
+	 * sub-operation.
+	 *
+	 * @return an unmodifiable list of strategies
+	 */
+	public List<Strategy<?>> getStrategies() {
+		return strategies;
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if {@code operation} does not hold one sub-operation for
+	 *             each strategy
+	 */
+	@Override
+	public void execute(CompositeOperation operation, Element element, int decorationLevel, StrategyTable table) {
+		if (operation.size() != strategies.size())
+			throw new IllegalArgumentException("The composite operation must hold one operation for each strategy");
+
+		for (int i = 0; i < strategies.size(); i++) {
+			executeHelper(strategies.get(i), operation.getOperation(i), element, decorationLevel, table);
+		}
+	}
+
+	/*
+	 * The caller is responsible for pairing each strategy with a
+	 * sub-operation of the type it handles.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T extends Operation<?, ?>> void executeHelper(Strategy<T> strategy, Operation<?, ?> operation,
+			Element element, int decorationLevel, StrategyTable table) {
+		strategy.execute((T) operation, element, decorationLevel, table);
+	}
+
+	@Override
+	public String toString() {
+		return "Composite operation strategy - executes for each operation: " + strategies;
+	}
+}
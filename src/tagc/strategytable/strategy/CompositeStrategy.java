@@ -0,0 +1,85 @@
+package tagc.strategytable.strategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.table.StrategyTable;
+
+/**
+ * A strategy that executes several strategies for the same operation in
+ * order, so that a single combination of operation and element type can have
+ * several behaviours while the strategy table only dispatches once. Nested
+ * composites are flattened and null strategies are dropped when the composite
+ * is constructed.
+ * <p>
+ * To apply behaviours for different operations with one dispatch, use a
+ * {@link CompositeOperationStrategy} with a
+ * {@link tagc.strategytable.operation.CompositeOperation} instead.
+ * 
+ * @author David
+ * @param <T>
+ *            the specific type of Operation to handle
+ */
+public class CompositeStrategy<T extends Operation<?, ?>> implements Strategy<T> {
+
+	private final List<Strategy<T>> strategies;
+
+	/**
+	 * Constructs a {@code CompositeStrategy} that executes each strategy in
+	 * {@code strategies} in order.
+	 * 
+	 * @param strategies
+	 *            the strategies to execute
+	 * @throws NullPointerException
+	 *             if {@code strategies} or any of the strategies are
+	 *             {@code null}
+	 */
+	public CompositeStrategy(List<? extends Strategy<T>> strategies) {
+		if (strategies == null)
+			throw new NullPointerException("The list of strategies cannot be null");
+
+		final List<Strategy<T>> flattened = new ArrayList<Strategy<T>>();
+		flatten(strategies, flattened);
+		this.strategies = Collections.unmodifiableList(flattened);
+	}
+
+	private static <T extends Operation<?, ?>> void flatten(List<? extends Strategy<T>> strategies,
+			List<Strategy<T>> flattened) {
+
+		for (Strategy<T> strategy : strategies) {
+			if (strategy == null)
+				throw new NullPointerException("The strategy cannot be null");
+
+			if (strategy instanceof CompositeStrategy) {
+				flattened.addAll(((CompositeStrategy<T>) strategy).strategies);
+			} else if (!(strategy instanceof NullStrategy)) {
+				flattened.add(strategy);
+			}
+		}
+	}
+
+	/**
+	 * Returns the strategies that this composite executes after it has
+	 * flattened the strategies it was constructed with.
+	 * 
+	 * @return an unmodifiable list of strategies
+	 */
+	public List<Strategy<T>> getStrategies() {
+		return strategies;
+	}
+
+	@Override
+	public void execute(T operation, Element element, int decorationLevel, StrategyTable table) {
+		for (int i = 0; i < strategies.size(); i++) {
+			strategies.get(i).execute(operation, element, decorationLevel, table);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Composite strategy - executes in order: " + strategies;
+	}
+}
@@ -0,0 +1,30 @@
+package tagc.strategytable.strategy;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.ConcurrentFindTotalOperation;
+import tagc.strategytable.table.StrategyTable;
+
+public class ConcurrentAddTotalOperationStrategy implements ContributingStrategy<ConcurrentFindTotalOperation, Integer>,
+		AdditiveStrategy<ConcurrentFindTotalOperation> {
+
+	@Override
+	public void execute(ConcurrentFindTotalOperation operation, Element element, int decorationLevel,
+			StrategyTable table) {
+		operation.add(element.getValue());
+	}
+
+	@Override
+	public Integer computeContribution(Element element, int decorationLevel) {
+		return element.getValue();
+	}
+
+	@Override
+	public void applyContribution(ConcurrentFindTotalOperation operation, Integer contribution) {
+		operation.add(contribution);
+	}
+
+	@Override
+	public String toString() {
+		return "Concurrent addition strategy";
+	}
+}
@@ -0,0 +1,19 @@
+package tagc.strategytable.strategy;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.ConcurrentCountElementOperation;
+import tagc.strategytable.table.StrategyTable;
+
+public class ConcurrentCountElementOperationStrategy implements AdditiveStrategy<ConcurrentCountElementOperation> {
+
+	@Override
+	public void execute(ConcurrentCountElementOperation operation, Element element, int decorationLevel,
+			StrategyTable table) {
+		operation.add(1);
+	}
+
+	@Override
+	public String toString() {
+		return "Concurrent counting strategy";
+	}
+}
@@ -0,0 +1,45 @@
+package tagc.strategytable.strategy;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.Operation;
+
+/**
+ * Contributing strategies split their execution into two steps: computing a
+ * contribution from an element, and applying that contribution to an
+ * operation.
+ * <p>
+ * The contribution must depend only on the element and the level of decoration
+ * at which it is represented. Because elements are immutable, this allows
+ * contributions to be computed once and reused, as {@link MemoizingStrategy}
+ * does.
+ * 
+ * @author David
+ * @param <T>
+ *            the specific type of Operation to handle
+ * @param <C>
+ *            the type of contribution that this strategy computes
+ */
+public interface ContributingStrategy<T extends Operation<?, ?>, C> extends Strategy<T> {
+
+	/**
+	 * Computes the contribution that an element makes to operations handled by
+	 * this strategy.
+	 * 
+	 * @param element
+	 *            the {@code Element} to compute the contribution of
+	 * @param decorationLevel
+	 *            the level of decoration at which to represent {@code element}
+	 * @return the contribution of {@code element}
+	 */
+	C computeContribution(Element element, int decorationLevel);
+
+	/**
+	 * Applies a previously computed contribution to an operation.
+	 * 
+	 * @param operation
+	 *            the {@code Operation} to apply the contribution to
+	 * @param contribution
+	 *            a contribution computed by {@link #computeContribution}
+	 */
+	void applyContribution(T operation, C contribution);
+}
@@ -4,11 +4,11 @@ import tagc.strategytable.element.Element;
 import tagc.strategytable.operation.CountElementOperation;
 import tagc.strategytable.table.StrategyTable;
 
-public class CountElementOperationStrategy implements Strategy<CountElementOperation> {
+public class CountElementOperationStrategy implements AdditiveStrategy<CountElementOperation> {
 
 	@Override
 	public void execute(CountElementOperation operation, Element element, int decorationLevel, StrategyTable table) {
-		operation.store(operation.get()+1);
+		operation.storeCount(operation.getCount()+1);
 	}
 	
 	@Override
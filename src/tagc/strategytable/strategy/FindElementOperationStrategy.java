@@ -0,0 +1,18 @@
+package tagc.strategytable.strategy;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.FindElementOperation;
+import tagc.strategytable.table.StrategyTable;
+
+public class FindElementOperationStrategy implements Strategy<FindElementOperation> {
+
+	@Override
+	public void execute(FindElementOperation operation, Element element, int decorationLevel, StrategyTable table) {
+		operation.store(element);
+	}
+
+	@Override
+	public String toString() {
+		return "Find element strategy";
+	}
+}
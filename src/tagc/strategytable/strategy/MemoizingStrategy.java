@@ -0,0 +1,140 @@
+package tagc.strategytable.strategy;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.table.StrategyTable;
+
+/**
+ * A strategy that wraps a {@link ContributingStrategy} and caches the
+ * contribution it computes for each element instance.
+ * <p>
+ * Elements are immutable and {@code ElementFactory} shares instances of
+ * identical elements, so the wrapped strategy only needs to compute a
+ * contribution once per distinct element instance and decoration level.
+ * Elements are held weakly, so caching a contribution does not keep its
+ * element alive. {@code null} contributions are never cached.
+ * <p>
+ * Instances of this class are thread-safe if the wrapped strategy is.
+ * 
+ * @author David
+ * @param <T>
+ *            the specific type of Operation to handle
+ * @param <C>
+ *            the type of contribution that the wrapped strategy computes
+ */
+public class MemoizingStrategy<T extends Operation<?, ?>, C> implements Strategy<T> {
+
+	private final ContributingStrategy<T, C> strategy;
+	private final WeakIdentityCache<Element, C> cache = new WeakIdentityCache<Element, C>();
+	private long hitCount;
+	private long missCount;
+
+	/**
+	 * Constructs a {@code MemoizingStrategy} that caches the contributions
+	 * computed by {@code strategy}.
+	 * 
+	 * @param strategy
+	 *            the strategy whose contributions should be cached
+	 * @throws NullPointerException
+	 *             if {@code strategy} is {@code null}
+	 */
+	public MemoizingStrategy(ContributingStrategy<T, C> strategy) {
+		if (strategy == null)
+			throw new NullPointerException("The strategy cannot be null");
+
+		this.strategy = strategy;
+	}
+
+	@Override
+	public void execute(T operation, Element element, int decorationLevel, StrategyTable table) {
+		C contribution;
+		synchronized (cache) {
+			contribution = cache.get(element, decorationLevel);
+			if (contribution != null) {
+				hitCount++;
+			} else {
+				missCount++;
+			}
+		}
+
+		if (contribution == null) {
+			contribution = strategy.computeContribution(element, decorationLevel);
+			synchronized (cache) {
+				cache.put(element, decorationLevel, contribution);
+			}
+		}
+
+		strategy.applyContribution(operation, contribution);
+	}
+
+	/**
+	 * Returns the strategy whose contributions this strategy caches.
+	 *
+	 * @return the wrapped strategy
+	 */
+	public ContributingStrategy<T, C> getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Returns the number of executions that reused a cached contribution.
+	 * 
+	 * @return the number of cache hits
+	 */
+	public long getHitCount() {
+		synchronized (cache) {
+			return hitCount;
+		}
+	}
+
+	/**
+	 * Returns the number of executions that had to compute a contribution.
+	 * 
+	 * @return the number of cache misses
+	 */
+	public long getMissCount() {
+		synchronized (cache) {
+			return missCount;
+		}
+	}
+
+	/**
+	 * Returns the proportion of executions that reused a cached contribution.
+	 * 
+	 * @return the cache hit rate between 0 and 1, or 0 if this strategy has
+	 *         not yet been executed
+	 */
+	public double getHitRate() {
+		synchronized (cache) {
+			final long total = hitCount + missCount;
+			return total == 0 ? 0 : (double) hitCount / total;
+		}
+	}
+
+	/**
+	 * Returns the number of contributions currently cached.
+	 * 
+	 * @return the cache size
+	 */
+	public int getCacheSize() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	/**
+	 * Discards every cached contribution and resets the hit and miss counts.
+	 */
+	public void clearCache() {
+		synchronized (cache) {
+			cache.clear();
+			hitCount = 0;
+			missCount = 0;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Memoizing strategy - caches the contributions of: " + strategy;
+	}
+}
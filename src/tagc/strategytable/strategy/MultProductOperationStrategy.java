@@ -0,0 +1,18 @@
+package tagc.strategytable.strategy;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.FindProductOperation;
+import tagc.strategytable.table.StrategyTable;
+
+public class MultProductOperationStrategy implements Strategy<FindProductOperation> {
+
+	@Override
+	public void execute(FindProductOperation operation, Element element, int decorationLevel, StrategyTable table) {
+		operation.storeProduct(operation.getProduct()*element.getValue());
+	}
+
+	@Override
+	public String toString() {
+		return "Product strategy";
+	}
+}
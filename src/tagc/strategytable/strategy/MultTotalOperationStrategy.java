@@ -4,11 +4,21 @@ import tagc.strategytable.element.Element;
 import tagc.strategytable.operation.FindTotalOperation;
 import tagc.strategytable.table.StrategyTable;
 
-public class MultTotalOperationStrategy implements Strategy<FindTotalOperation> {
+public class MultTotalOperationStrategy implements ContributingStrategy<FindTotalOperation, Integer> {
 
 	@Override
 	public void execute(FindTotalOperation operation, Element element, int decorationLevel, StrategyTable table) {
-		operation.store(operation.get()*element.getValue());
+		operation.storeTotal(operation.getTotal()*element.getValue());
+	}
+
+	@Override
+	public Integer computeContribution(Element element, int decorationLevel) {
+		return element.getValue();
+	}
+
+	@Override
+	public void applyContribution(FindTotalOperation operation, Integer contribution) {
+		operation.storeTotal(operation.getTotal()*contribution);
 	}
 	
 	@Override
@@ -0,0 +1,39 @@
+package tagc.strategytable.strategy;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.table.StrategyTable;
+
+/**
+ * Redirect strategies perform no behaviour of their own when applied to a
+ * decorated element but instead defer to the strategy registered for the
+ * element one level of decoration below.
+ * <p>
+ * A {@link StrategyTable} recognises strategies of this type and follows the
+ * redirection itself in a loop rather than having the strategy call back into
+ * the table, so the depth of a decoration chain does not affect the depth of
+ * the call stack.
+ * 
+ * @author David
+ * @param <T>
+ *            the specific type of Operation to handle
+ */
+public interface RedirectStrategy<T extends Operation<?, ?>> extends Strategy<T> {
+
+	/**
+	 * Returns the element that the operation should continue to be applied to
+	 * at decoration level {@code decorationLevel - 1}.
+	 * 
+	 * @param operation
+	 *            the {@code Operation} being performed on the element
+	 * @param element
+	 *            the {@code Element} that the operation is being applied to
+	 * @param decorationLevel
+	 *            the level of decoration at which {@code element} is currently
+	 *            represented
+	 * @return the element to continue applying the operation to
+	 * @throws IllegalArgumentException
+	 *             if {@code element} is not decorated
+	 */
+	Element redirect(T operation, Element element, int decorationLevel);
+}
@@ -4,15 +4,20 @@ import tagc.strategytable.element.Element;
 import tagc.strategytable.operation.Operation;
 import tagc.strategytable.table.StrategyTable;
 
-public class SubstituteStrategy<T extends Operation<?, ?>> implements Strategy<T> {
+public class SubstituteStrategy<T extends Operation<?, ?>> implements RedirectStrategy<T> {
 
 	@Override
 	public void execute(T operation, Element element, int decorationLevel, StrategyTable table) {
+		table.operate(operation, redirect(operation, element, decorationLevel), decorationLevel-1);
+	}
+
+	@Override
+	public Element redirect(T operation, Element element, int decorationLevel) {
 		if (!element.isDecorated())
 			throw new IllegalArgumentException("This strategy cannot be applied to elements of type: "
 					+ element.getClass().getSimpleName());
 		
-		table.operate(operation, element, decorationLevel-1);
+		return element;
 	}
 
 	@Override
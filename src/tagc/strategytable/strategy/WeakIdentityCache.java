@@ -0,0 +1,172 @@
+package tagc.strategytable.strategy;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * A cache that maps keys to values by reference identity and holds its keys
+ * weakly, so an entry is discarded once its key is no longer used elsewhere.
+ * <p>
+ * This is similar to {@link java.util.WeakHashMap}, which compares keys using
+ * {@code equals} instead. This class is not thread-safe.
+ * 
+ * @author David
+ * @param <K>
+ *            the type of keys
+ * @param <V>
+ *            the type of cached values
+ */
+class WeakIdentityCache<K, V> {
+
+	private static final int INITIAL_CAPACITY = 16;
+	private static final float LOAD_FACTOR = 0.75f;
+
+	private static class Entry<K, V> extends WeakReference<K> {
+		final int hash;
+		final int tag;
+		V value;
+		Entry<K, V> next;
+
+		Entry(K key, int hash, int tag, V value, Entry<K, V> next, ReferenceQueue<K> queue) {
+			super(key, queue);
+			this.hash = hash;
+			this.tag = tag;
+			this.value = value;
+			this.next = next;
+		}
+	}
+
+	private final ReferenceQueue<K> queue = new ReferenceQueue<K>();
+	private Entry<K, V>[] buckets = createBuckets(INITIAL_CAPACITY);
+	private int size;
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static <K, V> Entry<K, V>[] createBuckets(int capacity) {
+		return new Entry[capacity];
+	}
+
+	/**
+	 * Returns the value cached for {@code key} and {@code tag}, or {@code null}
+	 * if there is none.
+	 * 
+	 * @param key
+	 *            the key to look up by identity
+	 * @param tag
+	 *            an additional integer that must match the cached entry's
+	 * @return the cached value or {@code null}
+	 */
+	V get(K key, int tag) {
+		final int hash = System.identityHashCode(key);
+		for (Entry<K, V> e = buckets[hash & (buckets.length - 1)]; e != null; e = e.next) {
+			if (e.get() == key && e.tag == tag)
+				return e.value;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Caches {@code value} for {@code key} and {@code tag}, replacing any
+	 * value previously cached for {@code key}.
+	 * 
+	 * @param key
+	 *            the key to cache the value for
+	 * @param tag
+	 *            an additional integer to associate with the entry
+	 * @param value
+	 *            the value to cache
+	 */
+	void put(K key, int tag, V value) {
+		expungeStaleEntries();
+
+		final int hash = System.identityHashCode(key);
+		final int index = hash & (buckets.length - 1);
+		Entry<K, V> previous = null;
+		for (Entry<K, V> e = buckets[index]; e != null; previous = e, e = e.next) {
+			if (e.get() == key) {
+				if (e.tag == tag) {
+					e.value = value;
+					return;
+				}
+
+				/*
+				 * The tag is part of the entry's identity, so replace the entry
+				 * rather than mutating it.
+				 */
+				if (previous == null) {
+					buckets[index] = e.next;
+				} else {
+					previous.next = e.next;
+				}
+				size--;
+				break;
+			}
+		}
+
+		buckets[index] = new Entry<K, V>(key, hash, tag, value, buckets[index], queue);
+		if (++size > buckets.length * LOAD_FACTOR)
+			resize();
+	}
+
+	/**
+	 * Returns the number of entries in this cache, including any whose keys
+	 * have been collected but not yet expunged.
+	 * 
+	 * @return the number of cached entries
+	 */
+	int size() {
+		expungeStaleEntries();
+		return size;
+	}
+
+	/**
+	 * Removes every entry from this cache.
+	 */
+	void clear() {
+		while (queue.poll() != null)
+			;
+
+		buckets = createBuckets(INITIAL_CAPACITY);
+		size = 0;
+	}
+
+	private void resize() {
+		final Entry<K, V>[] newBuckets = createBuckets(buckets.length * 2);
+		for (Entry<K, V> head : buckets) {
+			Entry<K, V> e = head;
+			while (e != null) {
+				final Entry<K, V> next = e.next;
+				final int index = e.hash & (newBuckets.length - 1);
+				e.next = newBuckets[index];
+				newBuckets[index] = e;
+				e = next;
+			}
+		}
+
+		buckets = newBuckets;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void expungeStaleEntries() {
+		Object stale;
+		while ((stale = queue.poll()) != null) {
+			final Entry<K, V> staleEntry = (Entry<K, V>) stale;
+			final int index = staleEntry.hash & (buckets.length - 1);
+
+			Entry<K, V> previous = null;
+			for (Entry<K, V> e = buckets[index]; e != null; previous = e, e = e.next) {
+				if (e == staleEntry) {
+					if (previous == null) {
+						buckets[index] = e.next;
+					} else {
+						previous.next = e.next;
+					}
+
+					e.value = null;
+					size--;
+					break;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package tagc.strategytable.table;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.element.ElementFactory;
+import tagc.strategytable.operation.CountElementOperation;
+import tagc.strategytable.operation.FindTotalOperation;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.strategy.AddTotalOperationStrategy;
+import tagc.strategytable.strategy.CountElementOperationStrategy;
+import tagc.strategytable.strategy.MultTotalOperationStrategy;
+import tagc.strategytable.strategy.Strategy;
+import tagc.strategytable.table.ElementColumns.BaseType;
+import tagc.strategytable.table.ElementColumns.Decoration;
+
+/*
+ * Applies the built-in total and count operations to every row of an
+ * ElementColumns without creating or dispatching any elements.
+ *
+ * The strategy a table would use for each kind of row is resolved once, and
+ * reduced to an action and a coefficient per row code. The coefficient is 0
+ * for rows handled by null strategies and -1 for rows whose value is negated
+ * by a reverse decorator that the strategy is applied to, which replaces the
+ * per-row branches with a table lookup. A kernel can only be created when
+ * every kind of row resolves to a built-in strategy.
+ */
+final class BulkKernel {
+
+	private static final int SKIP = 0;
+	private static final int ADD = 1;
+	private static final int MULT = 2;
+	private static final int COUNT = 3;
+
+	private final int[] actions = new int[ElementColumns.CODE_COUNT];
+	private final int[] coefficients = new int[ElementColumns.CODE_COUNT];
+	private final boolean additive;
+
+	private BulkKernel(StrategyTable table, Class<? extends Operation<?, ?>> operationType) {
+		boolean additive = true;
+		for (BaseType baseType : BaseType.values()) {
+			for (Decoration decoration : Decoration.values()) {
+				final int code = ElementColumns.encode(baseType, decoration);
+				final Element sample = createSample(baseType, decoration);
+				final ResolvedStrategy<?> resolution = ResolvedStrategy.resolve(table, operationType,
+						ElementSignature.of(sample));
+				final Element target = resolution.getTarget(sample);
+				final Strategy<?> strategy = resolution.getStrategy();
+
+				if (resolution.isSkipped()) {
+					actions[code] = SKIP;
+				} else if (strategy != null && strategy.getClass() == CountElementOperationStrategy.class) {
+					actions[code] = COUNT;
+					coefficients[code] = 1;
+				} else if (strategy != null && target.getClass() != ElementFactory.getIgnoreElementDecoratorClass()
+						&& (strategy.getClass() == AddTotalOperationStrategy.class
+						|| strategy.getClass() == MultTotalOperationStrategy.class)) {
+					actions[code] = strategy.getClass() == AddTotalOperationStrategy.class ? ADD : MULT;
+					coefficients[code] = target.getValue();
+					additive &= actions[code] == ADD;
+				} else {
+					throw new UnsupportedOperationException("No bulk kernel for " + resolution);
+				}
+			}
+		}
+
+		this.additive = additive;
+	}
+
+	/*
+	 * Samples have a base value of 1, so the value that a strategy sees is
+	 * the coefficient for that kind of row.
+	 */
+	private static Element createSample(BaseType baseType, Decoration decoration) {
+		final Element base = baseType == BaseType.ADD ? ElementFactory.createAddElement(1) : ElementFactory
+				.createMultElement(1);
+
+		switch (decoration) {
+		case REVERSE:
+			return ElementFactory.addReverseDecoration(base);
+		case IGNORE:
+			return ElementFactory.addIgnoreDecoration(base);
+		default:
+			return base;
+		}
+	}
+
+	/*
+	 * Returns a kernel for operations of the given type, or null if the table
+	 * is not configured in a way that a kernel can reproduce.
+	 */
+	static BulkKernel forOperation(StrategyTable table, Operation<?, ?> operation) {
+		final Class<?> operationType = operation.getClass();
+		if (operationType != FindTotalOperation.class && operationType != CountElementOperation.class)
+			return null;
+
+		try {
+			if (operationType == FindTotalOperation.class)
+				return new BulkKernel(table, FindTotalOperation.class);
+
+			return new BulkKernel(table, CountElementOperation.class);
+		} catch (IllegalArgumentException | UnsupportedOperationException e) {
+			/*
+			 * The table doesn't support one of the row types, or handles one
+			 * with a strategy that only dispatching can reproduce.
+			 */
+			return null;
+		}
+	}
+
+	void apply(Operation<?, ?> operation, ElementColumns columns) {
+		if (operation instanceof FindTotalOperation) {
+			final FindTotalOperation totalOperation = (FindTotalOperation) operation;
+			totalOperation.storeTotal(additive ? sum(totalOperation.getTotal(), columns) : fold(
+					totalOperation.getTotal(), columns));
+		} else {
+			final CountElementOperation countOperation = (CountElementOperation) operation;
+			countOperation.storeCount(countOperation.getCount() + countRows(columns));
+		}
+	}
+
+	/*
+	 * Four independent accumulators keep the additions from forming a single
+	 * dependency chain. Integer addition wraps, so the result is the same as
+	 * adding the rows in order.
+	 */
+	private int sum(int total, ElementColumns columns) {
+		final int[] values = columns.getValues();
+		final byte[] codes = columns.getCodes();
+		final int size = columns.size();
+
+		int sum0 = total;
+		int sum1 = 0;
+		int sum2 = 0;
+		int sum3 = 0;
+		int i = 0;
+		for (; i + 3 < size; i += 4) {
+			sum0 += values[i] * coefficients[codes[i]];
+			sum1 += values[i + 1] * coefficients[codes[i + 1]];
+			sum2 += values[i + 2] * coefficients[codes[i + 2]];
+			sum3 += values[i + 3] * coefficients[codes[i + 3]];
+		}
+
+		for (; i < size; i++) {
+			sum0 += values[i] * coefficients[codes[i]];
+		}
+
+		return sum0 + sum1 + sum2 + sum3;
+	}
+
+	/*
+	 * Multiplications make the total depend on the order of the rows, so
+	 * they have to be applied one at a time.
+	 */
+	private int fold(int total, ElementColumns columns) {
+		final int[] values = columns.getValues();
+		final byte[] codes = columns.getCodes();
+		final int size = columns.size();
+
+		for (int i = 0; i < size; i++) {
+			final int code = codes[i];
+			final int value = values[i] * coefficients[code];
+			if (actions[code] == ADD) {
+				total += value;
+			} else if (actions[code] == MULT) {
+				total *= value;
+			}
+		}
+
+		return total;
+	}
+
+	private int countRows(ElementColumns columns) {
+		final byte[] codes = columns.getCodes();
+		final int size = columns.size();
+
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			count += coefficients[codes[i]];
+		}
+
+		return count;
+	}
+}
@@ -0,0 +1,96 @@
+package tagc.strategytable.table;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time by which some processing should stop, measured using
+ * {@link System#nanoTime()}. Deadlines are immutable.
+ * 
+ * @author David
+ * @see StrategyTable#operateOverCollection(tagc.strategytable.operation.Operation,
+ *      java.util.Collection, Deadline)
+ */
+public final class Deadline {
+
+	private static final Deadline NONE = new Deadline(0, false);
+
+	private final long expiryTime;
+	private final boolean bounded;
+
+	private Deadline(long expiryTime, boolean bounded) {
+		this.expiryTime = expiryTime;
+		this.bounded = bounded;
+	}
+
+	/**
+	 * Returns a deadline that expires once {@code duration} has elapsed from
+	 * now.
+	 * 
+	 * @param duration
+	 *            the length of time until the deadline expires
+	 * @param unit
+	 *            the unit of {@code duration}
+	 * @return a new deadline
+	 * @throws NullPointerException
+	 *             if {@code unit} is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if {@code duration} is negative
+	 */
+	public static Deadline after(long duration, TimeUnit unit) {
+		if (unit == null)
+			throw new NullPointerException("The time unit cannot be null");
+
+		if (duration < 0)
+			throw new IllegalArgumentException("The duration cannot be negative");
+
+		return new Deadline(System.nanoTime() + unit.toNanos(duration), true);
+	}
+
+	/**
+	 * Returns a deadline that never expires. Processing bounded by this
+	 * deadline can still be stopped by interrupting the thread doing it.
+	 * 
+	 * @return a deadline that never expires
+	 */
+	public static Deadline none() {
+		return NONE;
+	}
+
+	/**
+	 * Returns whether this deadline has passed.
+	 * 
+	 * @return {@code true} if this deadline has expired, otherwise
+	 *         {@code false}
+	 */
+	public boolean isExpired() {
+		return bounded && System.nanoTime() - expiryTime >= 0;
+	}
+
+	/**
+	 * Returns the time remaining until this deadline expires, which is zero if
+	 * it has already expired and {@code Long.MAX_VALUE} if it never expires.
+	 * 
+	 * @param unit
+	 *            the unit to return the remaining time in
+	 * @return the time remaining
+	 * @throws NullPointerException
+	 *             if {@code unit} is {@code null}
+	 */
+	public long getRemaining(TimeUnit unit) {
+		if (unit == null)
+			throw new NullPointerException("The time unit cannot be null");
+
+		if (!bounded)
+			return Long.MAX_VALUE;
+
+		return unit.convert(Math.max(0, expiryTime - System.nanoTime()), TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public String toString() {
+		if (!bounded)
+			return "Deadline - never expires";
+
+		return String.format("Deadline - expires in %d ms", getRemaining(TimeUnit.MILLISECONDS));
+	}
+}
@@ -0,0 +1,28 @@
+package tagc.strategytable.table;
+
+/**
+ * A {@code DispatchMode} describes how a {@link StrategyTable} currently finds
+ * the strategy for operations of a particular type. Strategy tables choose the
+ * mode for each type of operation themselves, based on the types of element
+ * that operations of that type have recently been applied to.
+ * 
+ * @author David
+ */
+public enum DispatchMode {
+	/**
+	 * Operations of this type have only been applied to elements of a single
+	 * type, so the strategy is found with a single comparison.
+	 */
+	MONOMORPHIC,
+	/**
+	 * Operations of this type have been applied to elements of a small number
+	 * of types, whose strategies are found by searching a small inline cache.
+	 */
+	POLYMORPHIC,
+	/**
+	 * Operations of this type have been applied to elements of too many types
+	 * to cache, or have not been profiled yet, so strategies are found with a
+	 * full table lookup.
+	 */
+	MEGAMORPHIC;
+}
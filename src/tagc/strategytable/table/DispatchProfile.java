@@ -0,0 +1,156 @@
+package tagc.strategytable.table;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.monitoring.ObjectLayout;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.strategy.Strategy;
+
+/**
+ * Records the types of element that operations of a single type are applied
+ * to and caches their strategies, choosing a {@link DispatchMode} based on how
+ * many types have been seen.
+ * <p>
+ * The cache is replaced as a whole whenever it changes, so lookups from
+ * several threads see a consistent cache without locking. Cached strategies
+ * are discarded whenever the configuration of the owning table changes.
+ * 
+ * @author David
+ */
+final class DispatchProfile {
+
+	/*
+	 * The number of element types that can be cached before falling back to
+	 * full table lookups.
+	 */
+	private static final int POLYMORPHIC_LIMIT = 4;
+
+	/*
+	 * The average number of dispatches after which a polymorphic or
+	 * megamorphic profile is discarded, so that it can specialise again if the
+	 * mix of element types has narrowed.
+	 */
+	private static final int REPROFILE_INTERVAL = 1 << 16;
+
+	private static final class Cache {
+		final DispatchMode mode;
+		final int configurationVersion;
+		final Class<?>[] elementTypes;
+		final Strategy<?>[] strategies;
+
+		Cache(DispatchMode mode, int configurationVersion, Class<?>[] elementTypes, Strategy<?>[] strategies) {
+			this.mode = mode;
+			this.configurationVersion = configurationVersion;
+			this.elementTypes = elementTypes;
+			this.strategies = strategies;
+		}
+	}
+
+	private final Class<? extends Operation<?, ?>> operationType;
+	private volatile Cache cache;
+
+	DispatchProfile(Class<? extends Operation<?, ?>> operationType) {
+		this.operationType = operationType;
+		this.cache = createEmptyCache(-1);
+	}
+
+	private static Cache createEmptyCache(int configurationVersion) {
+		return new Cache(DispatchMode.MEGAMORPHIC, configurationVersion, new Class<?>[0], new Strategy<?>[0]);
+	}
+
+	/*
+	 * The cached strategies are shared with the table, so only the profile,
+	 * its cache and the cache's arrays are counted.
+	 */
+	long estimateFootprint() {
+		final Cache current = cache;
+		return ObjectLayout.shallowSizeOf(DispatchProfile.class) + ObjectLayout.shallowSizeOf(Cache.class)
+				+ ObjectLayout.arraySizeOf(Class.class, current.elementTypes.length)
+				+ ObjectLayout.arraySizeOf(Strategy.class, current.strategies.length);
+	}
+
+	DispatchMode getMode() {
+		return cache.mode;
+	}
+
+	/*
+	 * We know that this is a safe cast because cached strategies were
+	 * retrieved from the table for this profile's type of operation.
+	 */
+	@SuppressWarnings("unchecked")
+	<T extends Operation<?, ?>> Strategy<T> lookup(Class<? extends Element> elementType, StrategyTable table) {
+		final Cache current = cache;
+		final int configurationVersion = table.getConfigurationVersion();
+
+		if (current.configurationVersion == configurationVersion) {
+			switch (current.mode) {
+			case MONOMORPHIC:
+				if (current.elementTypes[0] == elementType)
+					return (Strategy<T>) current.strategies[0];
+				break;
+
+			case POLYMORPHIC:
+				if (shouldReprofile()) {
+					reprofile(configurationVersion);
+					break;
+				}
+
+				for (int i = 0; i < current.elementTypes.length; i++) {
+					if (current.elementTypes[i] == elementType)
+						return (Strategy<T>) current.strategies[i];
+				}
+				break;
+
+			case MEGAMORPHIC:
+				if (current.elementTypes.length > 0) {
+					if (shouldReprofile())
+						reprofile(configurationVersion);
+
+					return table.getOperationStrategy((Class<? extends T>) operationType, elementType);
+				}
+				break;
+			}
+		} else {
+			reprofile(configurationVersion);
+		}
+
+		final Strategy<T> strategy = table.getOperationStrategy((Class<? extends T>) operationType, elementType);
+		record(elementType, strategy, configurationVersion);
+		return strategy;
+	}
+
+	/*
+	 * Reprofiling is triggered at random rather than by a shared counter, so
+	 * threads dispatching through the same profile never write to it in the
+	 * steady state.
+	 */
+	private static boolean shouldReprofile() {
+		return ThreadLocalRandom.current().nextInt(REPROFILE_INTERVAL) == 0;
+	}
+
+	private void reprofile(int configurationVersion) {
+		cache = createEmptyCache(configurationVersion);
+	}
+
+	private void record(Class<? extends Element> elementType, Strategy<?> strategy, int configurationVersion) {
+		final Cache current = cache;
+		final int size = current.elementTypes.length;
+
+		if (size >= POLYMORPHIC_LIMIT) {
+			cache = new Cache(DispatchMode.MEGAMORPHIC, configurationVersion, current.elementTypes,
+					current.strategies);
+			return;
+		}
+
+		final Class<?>[] elementTypes = new Class<?>[size + 1];
+		final Strategy<?>[] strategies = new Strategy<?>[size + 1];
+		System.arraycopy(current.elementTypes, 0, elementTypes, 0, size);
+		System.arraycopy(current.strategies, 0, strategies, 0, size);
+		elementTypes[size] = elementType;
+		strategies[size] = strategy;
+
+		final DispatchMode mode = size == 0 ? DispatchMode.MONOMORPHIC : DispatchMode.POLYMORPHIC;
+		cache = new Cache(mode, configurationVersion, elementTypes, strategies);
+	}
+}
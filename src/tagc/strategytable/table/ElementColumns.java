@@ -0,0 +1,222 @@
+package tagc.strategytable.table;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.element.ElementFactory;
+
+/**
+ * A list of elements stored as primitive columns rather than as objects. Each
+ * row holds an add or multiply element, optionally wrapped in a single ignore
+ * or reverse decoration.
+ * <p>
+ * When a {@link StrategyTable} applies a {@code FindTotalOperation} or
+ * {@code CountElementOperation} over an {@code ElementColumns} and is
+ * configured with the built-in strategies for them, it runs a bulk kernel over
+ * the columns instead of dispatching each element. Otherwise each row is
+ * turned back into an element and dispatched as usual.
+ * <p>
+ * Rows can only be appended. This class is not thread-safe.
+ * 
+ * @author David
+ * @see StrategyTable#operateOverCollection(tagc.strategytable.operation.Operation,
+ *      java.util.Collection)
+ */
+public class ElementColumns extends AbstractList<Element> implements RandomAccess {
+
+	/**
+	 * The type of base element in a row.
+	 * 
+	 * @author David
+	 */
+	public enum BaseType {
+		ADD, MULT
+	}
+
+	/**
+	 * The decoration applied to the base element in a row.
+	 * 
+	 * @author David
+	 */
+	public enum Decoration {
+		NONE, REVERSE, IGNORE
+	}
+
+	/*
+	 * Each row's base type and decoration are packed into a single code, so
+	 * that kernels can look up what to do with a row in a small table.
+	 */
+	static final int CODE_COUNT = BaseType.values().length * Decoration.values().length;
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private int[] values;
+	private byte[] codes;
+	private int size;
+
+	/**
+	 * Constructs an empty {@code ElementColumns}.
+	 */
+	public ElementColumns() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs an empty {@code ElementColumns} with room for
+	 * {@code capacity} rows before its columns need to grow.
+	 * 
+	 * @param capacity
+	 *            the initial capacity
+	 * @throws IllegalArgumentException
+	 *             if {@code capacity} is negative
+	 */
+	public ElementColumns(int capacity) {
+		if (capacity < 0)
+			throw new IllegalArgumentException("The capacity cannot be negative");
+
+		this.values = new int[capacity];
+		this.codes = new byte[capacity];
+	}
+
+	/**
+	 * Appends a row.
+	 * 
+	 * @param baseType
+	 *            the type of base element
+	 * @param value
+	 *            the value of the base element
+	 * @param decoration
+	 *            the decoration applied to the base element
+	 * @throws NullPointerException
+	 *             if {@code baseType} or {@code decoration} are {@code null}
+	 */
+	public void addRow(BaseType baseType, int value, Decoration decoration) {
+		if (baseType == null)
+			throw new NullPointerException("The base type cannot be null");
+
+		if (decoration == null)
+			throw new NullPointerException("The decoration cannot be null");
+
+		if (size == values.length) {
+			final int capacity = Math.max(DEFAULT_CAPACITY, size * 2);
+			values = Arrays.copyOf(values, capacity);
+			codes = Arrays.copyOf(codes, capacity);
+		}
+
+		values[size] = value;
+		codes[size] = (byte) encode(baseType, decoration);
+		size++;
+		modCount++;
+	}
+
+	/**
+	 * Appends a row equivalent to {@code element}.
+	 * 
+	 * @throws NullPointerException
+	 *             if {@code element} is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if {@code element} is not an add or multiply element with
+	 *             at most one ignore or reverse decoration
+	 */
+	@Override
+	public boolean add(Element element) {
+		if (element == null)
+			throw new NullPointerException("The element cannot be null");
+
+		if (element.getDecorationLevel() > 1)
+			throw new IllegalArgumentException("Rows can only have a single decoration");
+
+		final Element base = element.asDecorationAtLevel(0);
+		final BaseType baseType;
+		if (base.getClass() == ElementFactory.getAddElementClass()) {
+			baseType = BaseType.ADD;
+		} else if (base.getClass() == ElementFactory.getMultElementClass()) {
+			baseType = BaseType.MULT;
+		} else {
+			throw new IllegalArgumentException("Rows cannot hold elements of type: "
+					+ base.getClass().getSimpleName());
+		}
+
+		final Decoration decoration;
+		if (!element.isDecorated()) {
+			decoration = Decoration.NONE;
+		} else if (element.getClass() == ElementFactory.getReverseElementDecoratorClass()) {
+			decoration = Decoration.REVERSE;
+		} else if (element.getClass() == ElementFactory.getIgnoreElementDecoratorClass()) {
+			decoration = Decoration.IGNORE;
+		} else {
+			throw new IllegalArgumentException("Rows cannot hold decorations of type: "
+					+ element.getClass().getSimpleName());
+		}
+
+		addRow(baseType, base.getValue(), decoration);
+		return true;
+	}
+
+	/**
+	 * Returns the element in row {@code index}. A new element is created for
+	 * each call unless the base element is cached by {@link ElementFactory}.
+	 */
+	@Override
+	public Element get(int index) {
+		final Element base = getBaseType(index) == BaseType.ADD ? ElementFactory.createAddElement(values[index])
+				: ElementFactory.createMultElement(values[index]);
+
+		switch (getDecoration(index)) {
+		case REVERSE:
+			return ElementFactory.addReverseDecoration(base);
+		case IGNORE:
+			return ElementFactory.addIgnoreDecoration(base);
+		default:
+			return base;
+		}
+	}
+
+	/**
+	 * Returns the type of base element in row {@code index}.
+	 * 
+	 * @param index
+	 *            the index of the row
+	 * @return the base type of the row
+	 */
+	public BaseType getBaseType(int index) {
+		checkIndex(index);
+		return BaseType.values()[codes[index] / Decoration.values().length];
+	}
+
+	/**
+	 * Returns the decoration in row {@code index}.
+	 * 
+	 * @param index
+	 *            the index of the row
+	 * @return the decoration of the row
+	 */
+	public Decoration getDecoration(int index) {
+		checkIndex(index);
+		return Decoration.values()[codes[index] % Decoration.values().length];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+	}
+
+	static int encode(BaseType baseType, Decoration decoration) {
+		return baseType.ordinal() * Decoration.values().length + decoration.ordinal();
+	}
+
+	int[] getValues() {
+		return values;
+	}
+
+	byte[] getCodes() {
+		return codes;
+	}
+}
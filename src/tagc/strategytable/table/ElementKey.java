@@ -0,0 +1,30 @@
+package tagc.strategytable.table;
+
+import tagc.strategytable.element.Element;
+
+/**
+ * A function that assigns elements to groups, such as by their type or a
+ * value derived from them.
+ * <p>
+ * Keys are compared using {@code equals}, so they should be immutable. Key
+ * functions may be called from several threads at once.
+ *
+ * @author David
+ *
+ * @param <K>
+ *            the type of key that identifies a group
+ * @see StrategyTable#operateGrouped(tagc.strategytable.operation.OperationFactory,
+ *      java.util.Collection, ElementKey)
+ * @see IntElementKey
+ */
+public interface ElementKey<K> {
+
+	/**
+	 * Returns the key of the group that {@code element} belongs to.
+	 *
+	 * @param element
+	 *            the element
+	 * @return the key of the element's group
+	 */
+	K keyOf(Element element);
+}
@@ -0,0 +1,72 @@
+package tagc.strategytable.table;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import tagc.strategytable.element.Element;
+
+/*
+ * The sequence of element types from an element's outermost decorator down to
+ * its base element. Elements with the same signature are always handled by
+ * the same strategies for a given type of operation, unless a custom redirect
+ * strategy chooses otherwise.
+ */
+final class ElementSignature {
+
+	private final List<Class<? extends Element>> types;
+
+	private ElementSignature(List<Class<? extends Element>> types) {
+		this.types = Collections.unmodifiableList(types);
+	}
+
+	static ElementSignature of(Element element) {
+		final List<Class<? extends Element>> types = new ArrayList<Class<? extends Element>>(
+				element.getDecorationLevel() + 1);
+
+		Element representedElement = element;
+		for (int level = element.getDecorationLevel(); level >= 0; level--) {
+			types.add(representedElement.getClass());
+			if (level > 0) {
+				representedElement = representedElement.asDecorationAtLevel(level - 1);
+			}
+		}
+
+		return new ElementSignature(types);
+	}
+
+	int getDecorationLevel() {
+		return types.size() - 1;
+	}
+
+	Class<? extends Element> getTypeAtLevel(int decorationLevel) {
+		return types.get(getDecorationLevel() - decorationLevel);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof ElementSignature && types.equals(((ElementSignature) obj).types);
+	}
+
+	@Override
+	public int hashCode() {
+		return types.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < types.size(); i++) {
+			builder.append(types.get(i).getSimpleName());
+			if (i < types.size() - 1) {
+				builder.append('(');
+			}
+		}
+
+		for (int i = 1; i < types.size(); i++) {
+			builder.append(')');
+		}
+
+		return builder.toString();
+	}
+}
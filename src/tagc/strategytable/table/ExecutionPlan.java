@@ -0,0 +1,212 @@
+package tagc.strategytable.table;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.operation.ShortCircuitingOperation;
+
+/**
+ * A plan for applying operations of one type to a fixed collection of
+ * elements, created by {@link StrategyTable#plan}.
+ * <p>
+ * Elements are grouped by their signature, which is the sequence of element
+ * types from the outermost decorator down to the base element. The strategy
+ * table is consulted once per signature to find the strategy that will
+ * ultimately be executed and the decoration level it will be executed at.
+ * Elements whose strategy is a null strategy are left out of the plan
+ * entirely, and the plan can be executed any number of times over the same
+ * elements.
+ * <p>
+ * Substitute and bypass strategies are resolved when the plan is created.
+ * Elements that reach any other kind of redirect strategy are handed back to
+ * the strategy table from that point when the plan is executed.
+ * 
+ * @author David
+ * @param <T>
+ *            the type of operation that this plan applies
+ */
+public class ExecutionPlan<T extends Operation<?, ?>> {
+
+	private final StrategyTable table;
+	private final Class<T> operationType;
+	private final int configurationVersion;
+	private final int elementCount;
+	private final Map<ElementSignature, Group<T>> groups;
+
+	private final Element[] targets;
+	private final ResolvedStrategy<T>[] strategies;
+
+	@SuppressWarnings("unchecked")
+	ExecutionPlan(StrategyTable table, Class<T> operationType, Collection<? extends Element> elements) {
+		this.table = table;
+		this.operationType = operationType;
+		this.configurationVersion = table.getConfigurationVersion();
+		this.elementCount = elements.size();
+		this.groups = new LinkedHashMap<ElementSignature, Group<T>>();
+
+		final List<Element> plannedTargets = new ArrayList<Element>();
+		final List<ResolvedStrategy<T>> plannedStrategies = new ArrayList<ResolvedStrategy<T>>();
+		for (Element element : elements) {
+			if (element == null)
+				throw new NullPointerException("The element cannot be null");
+
+			final ElementSignature signature = ElementSignature.of(element);
+			Group<T> group = groups.get(signature);
+			if (group == null) {
+				group = new Group<T>(ResolvedStrategy.resolve(table, operationType, signature));
+				groups.put(signature, group);
+			}
+
+			group.count++;
+			if (!group.strategy.isSkipped()) {
+				plannedTargets.add(group.strategy.getTarget(element));
+				plannedStrategies.add(group.strategy);
+			}
+		}
+
+		checkImplemented();
+
+		this.targets = plannedTargets.toArray(new Element[plannedTargets.size()]);
+		this.strategies = plannedStrategies.toArray((ResolvedStrategy<T>[]) new ResolvedStrategy<?>[plannedStrategies
+				.size()]);
+	}
+
+	private void checkImplemented() {
+		final List<ElementSignature> unimplemented = new ArrayList<ElementSignature>();
+		for (Entry<ElementSignature, Group<T>> entry : groups.entrySet()) {
+			if (entry.getValue().strategy.isUnimplemented()) {
+				unimplemented.add(entry.getKey());
+			}
+		}
+
+		if (!unimplemented.isEmpty())
+			throw new UnsupportedOperationException(String.format(
+					"No strategy configured for applying operations of type %s to elements with signatures %s",
+					operationType.getSimpleName(), unimplemented));
+	}
+
+	/**
+	 * Applies {@code operation} to every element in this plan that is not
+	 * handled by a null strategy, in the order that the elements were
+	 * provided in. A {@link ShortCircuitingOperation} stops being applied as
+	 * soon as it is complete.
+	 * 
+	 * @param operation
+	 *            the operation to apply
+	 * @throws NullPointerException
+	 *             if {@code operation} is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if {@code operation} is not of the type this plan was
+	 *             created for
+	 * @throws IllegalStateException
+	 *             if the strategy table has been reconfigured since this plan
+	 *             was created
+	 */
+	public void execute(T operation) {
+		if (operation == null)
+			throw new NullPointerException("The operation cannot be null");
+
+		if (operation.getClass() != operationType)
+			throw new IllegalArgumentException("This plan can only execute operations of type "
+					+ operationType.getSimpleName());
+
+		if (isStale())
+			throw new IllegalStateException("The strategy table has been reconfigured since this plan was created");
+
+		final ShortCircuitingOperation<?, ?> shortCircuiting = StrategyTable.asShortCircuiting(operation);
+		for (int i = 0; i < targets.length; i++) {
+			if (shortCircuiting != null && shortCircuiting.isComplete())
+				return;
+
+			strategies[i].execute(operation, targets[i], table);
+		}
+	}
+
+	/**
+	 * Returns whether strategies have been registered with the strategy table
+	 * since this plan was created, in which case this plan can no longer be
+	 * executed.
+	 * 
+	 * @return {@code true} if this plan is out of date, otherwise
+	 *         {@code false}
+	 */
+	public boolean isStale() {
+		return table.getConfigurationVersion() != configurationVersion;
+	}
+
+	/**
+	 * Returns the type of operation that this plan applies.
+	 * 
+	 * @return the operation type
+	 */
+	public Class<T> getOperationType() {
+		return operationType;
+	}
+
+	/**
+	 * Returns the number of elements that this plan was created for.
+	 * 
+	 * @return the total number of elements
+	 */
+	public int getElementCount() {
+		return elementCount;
+	}
+
+	/**
+	 * Returns the number of elements that have a strategy executed for them
+	 * each time this plan is executed.
+	 * 
+	 * @return the number of elements that are not skipped
+	 */
+	public int getExecutedCount() {
+		return targets.length;
+	}
+
+	/**
+	 * Returns the number of distinct element signatures in this plan.
+	 * 
+	 * @return the number of groups
+	 */
+	public int getGroupCount() {
+		return groups.size();
+	}
+
+	/**
+	 * Returns a human-readable report describing, for each distinct element
+	 * signature, which strategy will be executed, at what decoration level and
+	 * for how many elements.
+	 * 
+	 * @return the explain report for this plan
+	 */
+	public String explain() {
+		String output = String.format("Execution plan for %s over %d elements (%d executed, %d skipped)\n",
+				operationType.getSimpleName(), elementCount, getExecutedCount(), elementCount - getExecutedCount());
+
+		for (Entry<ElementSignature, Group<T>> entry : groups.entrySet()) {
+			output += String.format("\t* %s -> %s [%d elements]\n", entry.getKey(), entry.getValue().strategy,
+					entry.getValue().count);
+		}
+
+		return output;
+	}
+
+	@Override
+	public String toString() {
+		return explain();
+	}
+
+	private static class Group<T extends Operation<?, ?>> {
+		private final ResolvedStrategy<T> strategy;
+		private int count;
+
+		Group(ResolvedStrategy<T> strategy) {
+			this.strategy = strategy;
+		}
+	}
+}
@@ -0,0 +1,294 @@
+package tagc.strategytable.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.InvertibleOperation;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.operation.OperationFactory;
+import tagc.strategytable.operation.ShortCircuitingOperation;
+
+/*
+ * Applies an operation created for each group of elements to the elements of
+ * that group in one pass. Large collections of elements are split into
+ * chunks that are aggregated on separate threads and merged in chunk order,
+ * so groups appear in the order their first element was encountered either
+ * way. Only invertible operations whose strategies are all additive are
+ * split, since otherwise merging the chunks would give a different result
+ * from a single pass.
+ */
+abstract class GroupedAggregation<K, T extends Operation<?, ?>> {
+
+	/*
+	 * The smallest number of elements each thread is given, below which the
+	 * cost of starting threads outweighs the work they save.
+	 */
+	private static final int MIN_CHUNK_SIZE = 1 << 15;
+
+	private final StrategyTable table;
+	private final OperationFactory<? extends T> operationFactory;
+
+	GroupedAggregation(StrategyTable table, OperationFactory<? extends T> operationFactory) {
+		this.table = table;
+		this.operationFactory = operationFactory;
+	}
+
+	static <K, T extends Operation<?, ?>> GroupedAggregation<K, T> byKey(StrategyTable table,
+			OperationFactory<? extends T> operationFactory, final ElementKey<? extends K> keyFunction) {
+		return new GroupedAggregation<K, T>(table, operationFactory) {
+			@Override
+			Map<K, T> aggregateChunk(List<? extends Element> elements, int from, int to) {
+				final Map<K, T> groups = new LinkedHashMap<K, T>();
+				for (int i = from; i < to; i++) {
+					final Element element = elements.get(i);
+					final K key = keyFunction.keyOf(element);
+
+					T operation = groups.get(key);
+					if (operation == null) {
+						operation = createOperation();
+						groups.put(key, operation);
+					}
+
+					apply(operation, element);
+				}
+
+				return groups;
+			}
+		};
+	}
+
+	static <T extends Operation<?, ?>> GroupedAggregation<Integer, T> byIntKey(StrategyTable table,
+			OperationFactory<? extends T> operationFactory, final IntElementKey keyFunction) {
+		return new GroupedAggregation<Integer, T>(table, operationFactory) {
+			@Override
+			Map<Integer, T> aggregateChunk(List<? extends Element> elements, int from, int to) {
+				final IntGroups<T> groups = new IntGroups<T>();
+				int lastKey = 0;
+				T lastOperation = null;
+				for (int i = from; i < to; i++) {
+					final Element element = elements.get(i);
+					final int key = keyFunction.keyOf(element);
+
+					/*
+					 * Elements of the same group are often adjacent.
+					 */
+					if (lastOperation == null || key != lastKey) {
+						lastOperation = groups.get(key);
+						if (lastOperation == null) {
+							lastOperation = createOperation();
+							groups.put(key, lastOperation);
+						}
+						lastKey = key;
+					}
+
+					apply(lastOperation, element);
+				}
+
+				return groups.toMap();
+			}
+		};
+	}
+
+	/*
+	 * An open-addressing table of operations keyed by int, which remembers the
+	 * order that keys were added in. Slots hold one more than the index of
+	 * their group, so that zero marks an empty slot.
+	 */
+	private static final class IntGroups<T> {
+		private static final int INITIAL_CAPACITY = 16;
+
+		private int[] slots = new int[INITIAL_CAPACITY];
+		private int[] keys = new int[INITIAL_CAPACITY / 2];
+		private Object[] operations = new Object[INITIAL_CAPACITY / 2];
+		private int size;
+
+		private static int mix(int key) {
+			final int hash = key * 0x9E3779B9;
+			return hash ^ hash >>> 16;
+		}
+
+		private int findSlot(int[] slots, int key) {
+			final int mask = slots.length - 1;
+			int slot = mix(key) & mask;
+			while (slots[slot] != 0 && keys[slots[slot] - 1] != key) {
+				slot = (slot + 1) & mask;
+			}
+
+			return slot;
+		}
+
+		@SuppressWarnings("unchecked")
+		T get(int key) {
+			final int index = slots[findSlot(slots, key)];
+			return index == 0 ? null : (T) operations[index - 1];
+		}
+
+		void put(int key, T operation) {
+			if (size == keys.length)
+				grow();
+
+			keys[size] = key;
+			operations[size] = operation;
+			slots[findSlot(slots, key)] = ++size;
+		}
+
+		private void grow() {
+			keys = Arrays.copyOf(keys, keys.length * 2);
+			operations = Arrays.copyOf(operations, operations.length * 2);
+
+			final int[] grownSlots = new int[slots.length * 2];
+			for (int i = 0; i < size; i++) {
+				grownSlots[findSlot(grownSlots, keys[i])] = i + 1;
+			}
+			slots = grownSlots;
+		}
+
+		@SuppressWarnings("unchecked")
+		Map<Integer, T> toMap() {
+			final Map<Integer, T> map = new LinkedHashMap<Integer, T>(size * 2);
+			for (int i = 0; i < size; i++) {
+				map.put(keys[i], (T) operations[i]);
+			}
+
+			return map;
+		}
+	}
+
+	abstract Map<K, T> aggregateChunk(List<? extends Element> elements, int from, int to);
+
+	T createOperation() {
+		final T operation = operationFactory.createOperation();
+		if (operation == null)
+			throw new NullPointerException("The operation factory cannot create null operations");
+
+		return operation;
+	}
+
+	void apply(T operation, Element element) {
+		if (element == null)
+			throw new NullPointerException("The collection of elements cannot contain null elements");
+
+		final ShortCircuitingOperation<?, ?> shortCircuiting = StrategyTable.asShortCircuiting(operation);
+		if (shortCircuiting == null || !shortCircuiting.isComplete())
+			table.operate(operation, element);
+	}
+
+	Map<K, T> aggregate(Collection<? extends Element> elements) {
+		return aggregate(elements, Runtime.getRuntime().availableProcessors());
+	}
+
+	Map<K, T> aggregate(Collection<? extends Element> elements, int parallelism) {
+		final List<? extends Element> elementList;
+		if (elements instanceof List && elements instanceof RandomAccess) {
+			elementList = (List<? extends Element>) elements;
+		} else {
+			elementList = new ArrayList<Element>(elements);
+		}
+
+		final int chunkCount = Math.min(parallelism, elementList.size() / MIN_CHUNK_SIZE);
+		if (chunkCount <= 1 || !isCombinable())
+			return aggregateChunk(elementList, 0, elementList.size());
+
+		return aggregateInParallel(elementList, chunkCount);
+	}
+
+	/*
+	 * Operations created by the same factory are assumed to be of the same
+	 * type, so only one is examined. We know that the cast is safe because
+	 * the operation was checked to be invertible.
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean isCombinable() {
+		final T operation = createOperation();
+		return operation instanceof InvertibleOperation
+				&& table.isAdditive((Class<? extends InvertibleOperation<?>>) operation.getClass());
+	}
+
+	private Map<K, T> aggregateInParallel(final List<? extends Element> elements, int chunkCount) {
+		final ExecutorService executor = Executors.newFixedThreadPool(chunkCount - 1);
+		final List<Future<Map<K, T>>> futures = new ArrayList<Future<Map<K, T>>>();
+		final Map<K, T> groups;
+		try {
+			for (int i = 1; i < chunkCount; i++) {
+				final int from = (int) ((long) elements.size() * i / chunkCount);
+				final int to = (int) ((long) elements.size() * (i + 1) / chunkCount);
+				futures.add(executor.submit(new Callable<Map<K, T>>() {
+					@Override
+					public Map<K, T> call() {
+						return aggregateChunk(elements, from, to);
+					}
+				}));
+			}
+
+			groups = aggregateChunk(elements, 0, elements.size() / chunkCount);
+		} finally {
+			executor.shutdown();
+		}
+
+		for (Future<Map<K, T>> future : futures) {
+			mergeInto(groups, getUninterruptibly(future));
+		}
+
+		return groups;
+	}
+
+	/*
+	 * The other chunks are still being aggregated by the operation's
+	 * strategies, so they are waited for even if this thread is interrupted.
+	 */
+	private static <V> V getUninterruptibly(Future<V> future) {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return future.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					final Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException)
+						throw (RuntimeException) cause;
+
+					if (cause instanceof Error)
+						throw (Error) cause;
+
+					throw new IllegalStateException("Unexpected failure while aggregating groups", cause);
+				}
+			}
+		} finally {
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+
+	private void mergeInto(Map<K, T> groups, Map<K, T> chunkGroups) {
+		for (Map.Entry<K, T> entry : chunkGroups.entrySet()) {
+			final T operation = groups.get(entry.getKey());
+			if (operation == null) {
+				groups.put(entry.getKey(), entry.getValue());
+			} else {
+				combine((InvertibleOperation<?>) operation, entry.getValue());
+			}
+		}
+	}
+
+	/*
+	 * We know that this is a safe cast because both operations were created
+	 * by the same factory.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <R> void combine(InvertibleOperation<R> operation, Operation<?, ?> other) {
+		operation.store(operation.combine(operation.get(), ((InvertibleOperation<R>) other).get()));
+	}
+}
@@ -0,0 +1,100 @@
+package tagc.strategytable.table;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.CacheableOperation;
+import tagc.strategytable.operation.Operation;
+
+/**
+ * An unmodifiable list of {@link Element} objects whose contents are fixed
+ * when it is constructed.
+ * <p>
+ * When a {@link StrategyTable} applies a {@link CacheableOperation} over an
+ * {@code ImmutableElementList}, it remembers the result, and the same type of
+ * operation applied over the same list from the same starting result is given
+ * the remembered result without visiting any elements, until the table's
+ * strategies are reconfigured. Elements should therefore not be shared with
+ * collections that decorate them in place.
+ * <p>
+ * The list also has a content hash derived from the types and values of its
+ * elements, which is the same for lists with the same contents in any JVM.
+ * This collection is thread-safe.
+ *
+ * @author David
+ * @see StrategyTable#operateOverCollection(Operation, Collection)
+ * @see StrategyTable#setResultCacheCapacity(int)
+ */
+public final class ImmutableElementList extends AbstractList<Element> implements RandomAccess {
+
+	private static final long HASH_MULTIPLIER = 31;
+
+	private final Element[] elements;
+	private final long contentHash;
+
+	/**
+	 * Constructs an {@code ImmutableElementList} containing each element in
+	 * {@code elements}, in the order returned by its iterator.
+	 *
+	 * @param elements
+	 *            the elements to copy into this list
+	 * @throws NullPointerException
+	 *             if {@code elements} or any of the elements are {@code null}
+	 */
+	public ImmutableElementList(Collection<? extends Element> elements) {
+		if (elements == null)
+			throw new NullPointerException("The collection of elements cannot be null");
+
+		this.elements = elements.toArray(new Element[elements.size()]);
+
+		long hash = 1;
+		for (Element e : this.elements) {
+			if (e == null)
+				throw new NullPointerException("The collection of elements cannot contain null elements");
+
+			hash = HASH_MULTIPLIER * hash + hashElement(e);
+		}
+
+		this.contentHash = hash;
+	}
+
+	/*
+	 * Class names and values hash the same way in every JVM, unlike the
+	 * classes and elements themselves.
+	 */
+	private static long hashElement(Element element) {
+		long hash = 1;
+		Element representedElement = element;
+		for (int level = element.getDecorationLevel(); level >= 0; level--) {
+			hash = HASH_MULTIPLIER * hash + representedElement.getClass().getName().hashCode();
+			if (level > 0) {
+				representedElement = representedElement.asDecorationAtLevel(level - 1);
+			}
+		}
+
+		return HASH_MULTIPLIER * hash + representedElement.getValue();
+	}
+
+	/**
+	 * Returns a hash of the types and values of the elements in this list, in
+	 * order. Lists with the same contents have the same content hash, even in
+	 * different JVMs.
+	 *
+	 * @return the content hash of this list
+	 */
+	public long getContentHash() {
+		return contentHash;
+	}
+
+	@Override
+	public Element get(int index) {
+		return elements[index];
+	}
+
+	@Override
+	public int size() {
+		return elements.length;
+	}
+}
@@ -0,0 +1,27 @@
+package tagc.strategytable.table;
+
+import tagc.strategytable.element.Element;
+
+/**
+ * A function that assigns elements to groups identified by an {@code int},
+ * such as a value derived from each element. Grouping by an
+ * {@code IntElementKey} avoids boxing a key for every element.
+ * <p>
+ * Key functions may be called from several threads at once.
+ *
+ * @author David
+ * @see StrategyTable#operateGrouped(tagc.strategytable.operation.OperationFactory,
+ *      java.util.Collection, IntElementKey)
+ * @see ElementKey
+ */
+public interface IntElementKey {
+
+	/**
+	 * Returns the key of the group that {@code element} belongs to.
+	 *
+	 * @param element
+	 *            the element
+	 * @return the key of the element's group
+	 */
+	int keyOf(Element element);
+}
@@ -0,0 +1,247 @@
+package tagc.strategytable.table;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.InvertibleOperation;
+
+/**
+ * A list of {@link Element} objects that keeps the results of a set of
+ * {@link InvertibleOperation} objects up to date as elements are added,
+ * removed or replaced.
+ * <p>
+ * Every change applies the contribution of the affected elements to each
+ * registered operation using a {@link StrategyTable}, so the cost of keeping
+ * results current does not depend on the size of the collection. Replacing an
+ * element with a decorated version of itself with {@link #set} re-decorates it
+ * in this way.
+ * <p>
+ * Only operations whose strategies are all additive can be registered, so
+ * that their results match those of {@link StrategyTable#operateOverCollection}.
+ * The strategy table should not be reconfigured while operations are
+ * registered.
+ * 
+ * @author David
+ */
+public class LiveElementCollection extends AbstractList<Element> {
+
+	private final StrategyTable table;
+	private final List<Element> elements = new ArrayList<Element>();
+	private final List<InvertibleOperation<?>> operations = new ArrayList<InvertibleOperation<?>>();
+
+	/**
+	 * Constructs an empty {@code LiveElementCollection} that applies
+	 * operations using {@code table}.
+	 * 
+	 * @param table
+	 *            the strategy table used to apply operations to elements
+	 * @throws NullPointerException
+	 *             if {@code table} is {@code null}
+	 */
+	public LiveElementCollection(StrategyTable table) {
+		if (table == null)
+			throw new NullPointerException("The strategy table cannot be null");
+
+		this.table = table;
+	}
+
+	/**
+	 * Registers an operation to be kept up to date with the contents of this
+	 * collection. The operation is immediately applied to every element
+	 * currently in the collection, starting from its identity result.
+	 * 
+	 * @param operation
+	 *            the operation to register
+	 * @return {@code true} if the operation was registered, or {@code false}
+	 *         if it was already registered
+	 * @throws NullPointerException
+	 *             if {@code operation} is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if the strategy table does not handle operations of this
+	 *             type with only additive strategies
+	 * @see StrategyTable#isAdditive
+	 */
+	public <T> boolean registerOperation(InvertibleOperation<T> operation) {
+		if (operation == null)
+			throw new NullPointerException("The operation cannot be null");
+
+		if (!table.isAdditive(getOperationType(operation)))
+			throw new IllegalArgumentException("Operations of type " + operation.getClass().getSimpleName()
+					+ " are not handled additively by the strategy table");
+
+		for (InvertibleOperation<?> registered : operations) {
+			if (registered == operation)
+				return false;
+		}
+
+		T result = operation.identity();
+		for (Element e : elements) {
+			result = operation.combine(result, computeContribution(operation, e));
+		}
+
+		operation.store(result);
+		operations.add(operation);
+		return true;
+	}
+
+	/**
+	 * Stops keeping an operation up to date with the contents of this
+	 * collection. The operation retains its current result.
+	 * 
+	 * @param operation
+	 *            the operation to unregister
+	 * @return {@code true} if the operation was registered, otherwise
+	 *         {@code false}
+	 */
+	public boolean unregisterOperation(InvertibleOperation<?> operation) {
+		for (int i = 0; i < operations.size(); i++) {
+			if (operations.get(i) == operation) {
+				operations.remove(i);
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the operations registered with this collection.
+	 * 
+	 * @return an unmodifiable view of the registered operations
+	 */
+	public List<InvertibleOperation<?>> getOperations() {
+		return Collections.unmodifiableList(operations);
+	}
+
+	@Override
+	public Element get(int index) {
+		return elements.get(index);
+	}
+
+	@Override
+	public int size() {
+		return elements.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The contribution of {@code element} is added to each registered
+	 * operation.
+	 * 
+	 * @throws NullPointerException
+	 *             if {@code element} is {@code null}
+	 */
+	@Override
+	public void add(int index, Element element) {
+		if (element == null)
+			throw new NullPointerException("The element cannot be null");
+
+		if (index < 0 || index > elements.size())
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + elements.size());
+
+		update(null, element);
+		elements.add(index, element);
+		modCount++;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The contribution of the replaced element is removed from each
+	 * registered operation and that of {@code element} is added.
+	 * 
+	 * @throws NullPointerException
+	 *             if {@code element} is {@code null}
+	 */
+	@Override
+	public Element set(int index, Element element) {
+		if (element == null)
+			throw new NullPointerException("The element cannot be null");
+
+		update(elements.get(index), element);
+		return elements.set(index, element);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The contribution of the removed element is removed from each registered
+	 * operation.
+	 */
+	@Override
+	public Element remove(int index) {
+		update(elements.get(index), null);
+		modCount++;
+		return elements.remove(index);
+	}
+
+	@Override
+	public void clear() {
+		for (InvertibleOperation<?> operation : operations) {
+			reset(operation);
+		}
+
+		elements.clear();
+		modCount++;
+	}
+
+	/*
+	 * All contributions are computed before any result is changed, so a
+	 * strategy that throws leaves every registered operation untouched.
+	 */
+	private void update(Element removed, Element added) {
+		final Object[] removedContributions = new Object[operations.size()];
+		final Object[] addedContributions = new Object[operations.size()];
+		for (int i = 0; i < operations.size(); i++) {
+			if (removed != null)
+				removedContributions[i] = computeContribution(operations.get(i), removed);
+
+			if (added != null)
+				addedContributions[i] = computeContribution(operations.get(i), added);
+		}
+
+		for (int i = 0; i < operations.size(); i++) {
+			applyContributions(operations.get(i), removedContributions[i], addedContributions[i]);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Class<? extends InvertibleOperation<?>> getOperationType(InvertibleOperation<?> operation) {
+		return (Class<? extends InvertibleOperation<?>>) operation.getClass();
+	}
+
+	private <T> T computeContribution(InvertibleOperation<T> operation, Element element) {
+		final T result = operation.get();
+		try {
+			operation.store(operation.identity());
+			table.operate(operation, element);
+			return operation.get();
+		} finally {
+			operation.store(result);
+		}
+	}
+
+	/*
+	 * We know that these are safe casts because each contribution was
+	 * computed by the same operation that it is applied to.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> void applyContributions(InvertibleOperation<T> operation, Object removed, Object added) {
+		T result = operation.get();
+		if (removed != null)
+			result = operation.combine(result, operation.inverse((T) removed));
+
+		if (added != null)
+			result = operation.combine(result, (T) added);
+
+		operation.store(result);
+	}
+
+	private static <T> void reset(InvertibleOperation<T> operation) {
+		operation.store(operation.identity());
+	}
+}
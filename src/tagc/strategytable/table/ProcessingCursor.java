@@ -0,0 +1,228 @@
+package tagc.strategytable.table;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.operation.ShortCircuitingOperation;
+
+/**
+ * Records how far an operation has been applied over a collection of elements
+ * by {@link StrategyTable#operateOverCollection(Operation, Collection, Deadline)}
+ * , so that processing can be resumed later on the same operation.
+ * <p>
+ * A cursor is resumed by one thread at a time, but its progress can be polled
+ * from any thread while it is being resumed. The collection should not be
+ * modified until processing is complete.
+ * 
+ * @author David
+ * @param <T>
+ *            the type of operation being applied
+ */
+public class ProcessingCursor<T extends Operation<?, ?>> {
+
+	/**
+	 * The reasons that processing can stop.
+	 * 
+	 * @author David
+	 */
+	public enum Status {
+		/**
+		 * Processing has not started or is in progress.
+		 */
+		PENDING,
+		/**
+		 * The operation has been applied to every element, or it is a
+		 * {@link ShortCircuitingOperation} that has completed.
+		 */
+		COMPLETE,
+		/**
+		 * Processing stopped because the deadline expired.
+		 */
+		DEADLINE_EXPIRED,
+		/**
+		 * Processing stopped because the thread doing it was interrupted. The
+		 * thread's interrupt status is left set.
+		 */
+		INTERRUPTED
+	}
+
+	/*
+	 * Checking the clock for every element would cost more than most
+	 * strategies, so the deadline and interrupt status are only checked, and
+	 * progress only published, once per this many elements.
+	 */
+	private static final int CHECK_INTERVAL = 64;
+
+	private final StrategyTable table;
+	private final T operation;
+	private final Collection<? extends Element> elements;
+	private final List<? extends Element> elementList;
+	private final Iterator<? extends Element> elementIterator;
+	private final int elementCount;
+
+	/*
+	 * The element taken from the iterator that the operation has not yet been
+	 * applied to successfully, so that it is retried if a strategy fails.
+	 */
+	private Element pending;
+
+	private volatile int position;
+	private volatile Status status = Status.PENDING;
+
+	ProcessingCursor(StrategyTable table, T operation, Collection<? extends Element> elements) {
+		this.table = table;
+		this.operation = operation;
+		this.elements = elements;
+		this.elementCount = elements.size();
+
+		/*
+		 * Random access lists are resumed by index, and other collections by
+		 * keeping hold of an iterator.
+		 */
+		if (elements instanceof List && elements instanceof RandomAccess) {
+			this.elementList = (List<? extends Element>) elements;
+			this.elementIterator = null;
+		} else {
+			this.elementList = null;
+			this.elementIterator = elements.iterator();
+		}
+	}
+
+	/**
+	 * Continues applying the operation to the remaining elements until every
+	 * element has been processed, {@code deadline} expires or the current
+	 * thread is interrupted.
+	 * 
+	 * @param deadline
+	 *            the deadline by which to stop processing
+	 * @return the status of this cursor once processing stops
+	 * @throws NullPointerException
+	 *             if {@code deadline} is {@code null}
+	 * @throws UnsupportedOperationException
+	 *             if there is no explicitly registered {@code Strategy} for the
+	 *             type of the operation and an element and the strategy
+	 *             table's policy is set to {@link StrategyTablePolicy#STRICT}
+	 */
+	public Status resume(Deadline deadline) {
+		if (deadline == null)
+			throw new NullPointerException("The deadline cannot be null");
+
+		if (status == Status.COMPLETE)
+			return status;
+
+		status = Status.PENDING;
+		final ShortCircuitingOperation<?, ?> shortCircuiting = StrategyTable.asShortCircuiting(operation);
+		int current = position;
+		try {
+			while (current < elementCount) {
+				if (current % CHECK_INTERVAL == 0) {
+					position = current;
+					if (Thread.currentThread().isInterrupted())
+						return status = Status.INTERRUPTED;
+
+					if (deadline.isExpired())
+						return status = Status.DEADLINE_EXPIRED;
+				}
+
+				if (shortCircuiting != null && shortCircuiting.isComplete())
+					break;
+
+				if (elementList != null) {
+					table.operate(operation, elementList.get(current));
+				} else {
+					if (pending == null)
+						pending = elementIterator.next();
+
+					table.operate(operation, pending);
+					pending = null;
+				}
+				current++;
+			}
+		} finally {
+			position = current;
+		}
+
+		return status = Status.COMPLETE;
+	}
+
+	/**
+	 * Returns the operation being applied.
+	 * 
+	 * @return the operation
+	 */
+	public T getOperation() {
+		return operation;
+	}
+
+	/**
+	 * Returns the collection of elements that the operation is being applied
+	 * over.
+	 * 
+	 * @return the collection of elements
+	 */
+	public Collection<? extends Element> getElements() {
+		return elements;
+	}
+
+	/**
+	 * Returns the status of this cursor after it was last resumed, or
+	 * {@link Status#PENDING} while it is being resumed.
+	 * 
+	 * @return the status of this cursor
+	 */
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * Returns whether processing is complete.
+	 * 
+	 * @return {@code true} if the status of this cursor is
+	 *         {@link Status#COMPLETE}, otherwise {@code false}
+	 */
+	public boolean isComplete() {
+		return status == Status.COMPLETE;
+	}
+
+	/**
+	 * Returns the number of elements that the operation has been applied to.
+	 * While this cursor is being resumed, the value returned lags slightly
+	 * behind the true position.
+	 * 
+	 * @return the number of elements processed
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+	/**
+	 * Returns the number of elements in the collection.
+	 * 
+	 * @return the total number of elements
+	 */
+	public int getElementCount() {
+		return elementCount;
+	}
+
+	/**
+	 * Returns the fraction of elements that have been processed, between
+	 * {@code 0} and {@code 1}.
+	 * 
+	 * @return the progress of this cursor
+	 */
+	public double getProgress() {
+		if (status == Status.COMPLETE || elementCount == 0)
+			return 1;
+
+		return (double) position / elementCount;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Processing cursor - %s, %d of %d elements", status, position, elementCount);
+	}
+}
@@ -0,0 +1,96 @@
+package tagc.strategytable.table;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.strategy.BypassStrategy;
+import tagc.strategytable.strategy.NullStrategy;
+import tagc.strategytable.strategy.RedirectStrategy;
+import tagc.strategytable.strategy.Strategy;
+import tagc.strategytable.strategy.SubstituteStrategy;
+import tagc.strategytable.strategy.UnimplementedStrategy;
+
+/*
+ * The strategy that a strategy table ultimately executes for elements of one
+ * signature, found by following substitute and bypass strategies ahead of
+ * time. Any other kind of redirect strategy can only be followed once the
+ * element is known, so resolution stops there and the strategy is left null.
+ */
+final class ResolvedStrategy<T extends Operation<?, ?>> {
+
+	private final Strategy<T> strategy;
+	private final int decorationLevel;
+	private final int elementLevel;
+
+	private ResolvedStrategy(Strategy<T> strategy, int decorationLevel, int elementLevel) {
+		this.strategy = strategy;
+		this.decorationLevel = decorationLevel;
+		this.elementLevel = elementLevel;
+	}
+
+	static <T extends Operation<?, ?>> ResolvedStrategy<T> resolve(StrategyTable table, Class<T> operationType,
+			ElementSignature signature) {
+
+		final int topLevel = signature.getDecorationLevel();
+		int decorationLevel = topLevel;
+		int elementLevel = topLevel;
+		Strategy<T> strategy = table.getOperationStrategy(operationType, signature.getTypeAtLevel(topLevel));
+
+		while (strategy instanceof RedirectStrategy) {
+			if (decorationLevel <= 0)
+				throw new IllegalArgumentException("Redirect strategies cannot be applied to elements of type: "
+						+ signature.getTypeAtLevel(0).getSimpleName());
+
+			if (strategy.getClass() == SubstituteStrategy.class) {
+				decorationLevel--;
+			} else if (strategy.getClass() == BypassStrategy.class) {
+				decorationLevel--;
+				elementLevel = decorationLevel;
+			} else {
+				return new ResolvedStrategy<T>(null, decorationLevel, elementLevel);
+			}
+
+			strategy = table.getOperationStrategy(operationType, signature.getTypeAtLevel(decorationLevel));
+		}
+
+		return new ResolvedStrategy<T>(strategy, decorationLevel, elementLevel);
+	}
+
+	Strategy<T> getStrategy() {
+		return strategy;
+	}
+
+	boolean isSkipped() {
+		return strategy instanceof NullStrategy;
+	}
+
+	boolean isUnimplemented() {
+		return strategy instanceof UnimplementedStrategy;
+	}
+
+	/*
+	 * Returns the element that the resolved strategy should be given in place
+	 * of an element with the resolved signature.
+	 */
+	Element getTarget(Element element) {
+		return elementLevel == element.getDecorationLevel() ? element : element.asDecorationAtLevel(elementLevel);
+	}
+
+	void execute(T operation, Element target, StrategyTable table) {
+		if (strategy == null) {
+			table.operate(operation, target, decorationLevel);
+		} else {
+			strategy.execute(operation, target, decorationLevel, table);
+		}
+	}
+
+	@Override
+	public String toString() {
+		if (strategy == null)
+			return "resolved by the table at level " + decorationLevel;
+
+		if (isSkipped())
+			return "skipped";
+
+		return strategy + " at level " + decorationLevel;
+	}
+}
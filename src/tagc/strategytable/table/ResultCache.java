@@ -0,0 +1,141 @@
+package tagc.strategytable.table;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import tagc.strategytable.monitoring.ObjectLayout;
+import tagc.strategytable.operation.Operation;
+
+/*
+ * The results of applying types of operation over immutable element lists,
+ * keyed by the table's configuration version, the operation type and the
+ * identity of the list. The least recently used results are evicted once the
+ * capacity is reached. The cache is shared between threads applying
+ * operations, so every access is synchronized.
+ */
+final class ResultCache {
+
+	private static final class Key {
+		private final int configurationVersion;
+		private final Class<?> operationType;
+		private final ImmutableElementList elements;
+
+		Key(int configurationVersion, Class<?> operationType, ImmutableElementList elements) {
+			this.configurationVersion = configurationVersion;
+			this.operationType = operationType;
+			this.elements = elements;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+
+			final Key other = (Key) obj;
+			return configurationVersion == other.configurationVersion && operationType == other.operationType
+					&& elements == other.elements;
+		}
+
+		@Override
+		public int hashCode() {
+			final long contentHash = elements.getContentHash();
+			return 31 * (31 * configurationVersion + operationType.hashCode())
+					+ (int) (contentHash ^ contentHash >>> 32);
+		}
+	}
+
+	/*
+	 * The result of an operation is only reused when the operation starts
+	 * from the same result as the one that was cached.
+	 */
+	private static final class CachedResult {
+		private final Object startResult;
+		private final Object endResult;
+
+		CachedResult(Object startResult, Object endResult) {
+			this.startResult = startResult;
+			this.endResult = endResult;
+		}
+	}
+
+	private final Map<Key, CachedResult> entries = new LinkedHashMap<Key, CachedResult>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, CachedResult> eldest) {
+			return size() > capacity;
+		}
+	};
+
+	private int capacity;
+
+	ResultCache(int capacity) {
+		this.capacity = capacity;
+	}
+
+	synchronized int getCapacity() {
+		return capacity;
+	}
+
+	synchronized void setCapacity(int capacity) {
+		this.capacity = capacity;
+		if (capacity == 0) {
+			entries.clear();
+			return;
+		}
+
+		while (entries.size() > capacity) {
+			entries.remove(entries.keySet().iterator().next());
+		}
+	}
+
+	synchronized int size() {
+		return entries.size();
+	}
+
+	/*
+	 * Returns whether a result is cached for the operation type, list and
+	 * starting result, storing it with the operation if it is.
+	 */
+	synchronized <T> boolean apply(int configurationVersion, Operation<T, T> operation, ImmutableElementList elements) {
+		if (capacity == 0)
+			return false;
+
+		final CachedResult cached = entries.get(new Key(configurationVersion, operation.getClass(), elements));
+		if (cached == null || !equal(cached.startResult, operation.get()))
+			return false;
+
+		@SuppressWarnings("unchecked")
+		final T result = (T) cached.endResult;
+		operation.store(result);
+		return true;
+	}
+
+	synchronized void put(int configurationVersion, Class<?> operationType, ImmutableElementList elements,
+			Object startResult, Object endResult) {
+		if (capacity > 0)
+			entries.put(new Key(configurationVersion, operationType, elements),
+					new CachedResult(startResult, endResult));
+	}
+
+	synchronized void clear() {
+		entries.clear();
+	}
+
+	/*
+	 * The cached lists and results belong to the callers, so only the cache,
+	 * its map, the keys and the map's entries are counted. Linked hash map
+	 * entries hold two more references than hash map entries.
+	 */
+	synchronized long estimateFootprint() {
+		final int size = entries.size();
+		final long perEntry = ObjectLayout.shallowSizeOf(Key.class) + ObjectLayout.shallowSizeOf(CachedResult.class)
+				+ 2L * ObjectLayout.getReferenceSize();
+		return ObjectLayout.shallowSizeOf(ResultCache.class) + ObjectLayout.shallowSizeOf(entries.getClass())
+				+ ObjectLayout.hashTableSizeOf(size) + perEntry * size;
+	}
+
+	private static boolean equal(Object first, Object second) {
+		return first == null ? second == null : first.equals(second);
+	}
+}
@@ -3,17 +3,35 @@ package tagc.strategytable.table;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import tagc.strategytable.element.Element;
+import tagc.strategytable.monitoring.DispatchEvents;
+import tagc.strategytable.monitoring.DispatchListener;
+import tagc.strategytable.monitoring.ObjectLayout;
+import tagc.strategytable.operation.CacheableOperation;
+import tagc.strategytable.operation.InvertibleOperation;
 import tagc.strategytable.operation.Operation;
+import tagc.strategytable.operation.OperationFactory;
+import tagc.strategytable.operation.ShortCircuitingOperation;
+import tagc.strategytable.strategy.AdditiveStrategy;
 import tagc.strategytable.strategy.BypassStrategy;
+import tagc.strategytable.strategy.CompositeOperationStrategy;
+import tagc.strategytable.strategy.CompositeStrategy;
+import tagc.strategytable.strategy.MemoizingStrategy;
 import tagc.strategytable.strategy.NullStrategy;
+import tagc.strategytable.strategy.RedirectStrategy;
 import tagc.strategytable.strategy.Strategy;
 import tagc.strategytable.strategy.SubstituteStrategy;
+import tagc.strategytable.strategy.UnimplementedStrategy;
 
 public class StrategyTable {
 
@@ -21,6 +39,17 @@ public class StrategyTable {
 	private final Map<Class<? extends Element>, Map<Class<? extends Operation<?, ?>>, Strategy<? extends Operation<?, ?>>>> table;
 	private final Map<Class<? extends Element>, Boolean> elementLockStates;
 	private final Map<Class<? extends Operation<?, ?>>, Boolean> operationLockStates;
+	private final Map<Class<? extends Operation<?, ?>>, DispatchProfile> dispatchProfiles;
+
+	private static final int DEFAULT_RESULT_CACHE_CAPACITY = 64;
+
+	/*
+	 * Incremented whenever a strategy is registered or strategies are locked
+	 * or unlocked, so that cached strategies and results can tell when they
+	 * have become stale.
+	 */
+	private volatile int configurationVersion;
+	private final ResultCache resultCache = new ResultCache(DEFAULT_RESULT_CACHE_CAPACITY);
 
 	/**
 	 * Constructs and configures a {@code StrategyTable} which can associate
@@ -104,8 +133,13 @@ public class StrategyTable {
 		this.table = new HashMap<Class<? extends Element>, Map<Class<? extends Operation<?, ?>>, Strategy<? extends Operation<?, ?>>>>();
 		this.elementLockStates = new HashMap<Class<? extends Element>, Boolean>();
 		this.operationLockStates = new HashMap<Class<? extends Operation<?, ?>>, Boolean>();
+		this.dispatchProfiles = new HashMap<Class<? extends Operation<?, ?>>, DispatchProfile>();
 		this.decoratedElementClassSet = decoratedElementClassSet;
 
+		for (Class<? extends Operation<?, ?>> operationClass : operationClassSet) {
+			dispatchProfiles.put(operationClass, new DispatchProfile(operationClass));
+		}
+
 		final Set<Class<? extends Element>> combinedElementClassSet = new LinkedHashSet<Class<? extends Element>>(
 				baseElementClassSet);
 		combinedElementClassSet.addAll(decoratedElementClassSet);
@@ -240,6 +274,7 @@ public class StrategyTable {
 							+ operationType.getSimpleName());
 
 		operationLockStates.put(operationType, locked);
+		configurationChanged();
 	}
 
 	/**
@@ -267,6 +302,7 @@ public class StrategyTable {
 							+ elementType.getSimpleName());
 
 		elementLockStates.put(elementType, locked);
+		configurationChanged();
 	}
 
 	/**
@@ -608,6 +644,12 @@ public class StrategyTable {
 							+ operationType.getSimpleName());
 
 		strategyMap.put(operationType, strategy);
+		configurationChanged();
+	}
+
+	private void configurationChanged() {
+		configurationVersion++;
+		resultCache.clear();
 	}
 
 	private <T extends Operation<?, ?>> boolean putOperationStrategy(Class<? extends T> operationType,
@@ -665,10 +707,164 @@ public class StrategyTable {
 		return getOperationStrategyHelper(getStrategyMap(elementType), operationType);
 	}
 
+	/**
+	 * Returns the mode this strategy table is currently using to find the
+	 * strategies for operations of type {@code operationType}.
+	 * <p>
+	 * The mode is chosen automatically based on the types of element that
+	 * operations of this type have recently been applied to, and changes back
+	 * to a more general mode if those types change.
+	 * 
+	 * @param operationType
+	 *            the type of operation to return the dispatch mode of
+	 * @return the current dispatch mode for {@code operationType}
+	 * @throws NullPointerException
+	 *             if {@code operationType} is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if this strategy table has not been configured to support
+	 *             operations of type {@code operationType}
+	 * @see DispatchMode
+	 */
+	public DispatchMode getDispatchMode(Class<? extends Operation<?, ?>> operationType) {
+		if (operationType == null)
+			throw new NullPointerException("The operation type cannot be null");
+
+		if (!dispatchProfiles.containsKey(operationType))
+			throw new IllegalArgumentException(
+					"This strategy table has not been configured to support operations of type "
+							+ operationType.getSimpleName());
+
+		return dispatchProfiles.get(operationType).getMode();
+	}
+
+	/**
+	 * Returns whether every strategy registered in this table for operations
+	 * of type {@code operationType} is additive, so that the result of
+	 * applying such an operation over a collection of elements is the
+	 * combination of the results for each element.
+	 * <p>
+	 * Null, unimplemented and redirect strategies are treated as additive, as
+	 * are memoizing and composite strategies that only wrap additive
+	 * strategies.
+	 *
+	 * @param operationType
+	 *            the type of operation to check the strategies of
+	 * @return {@code true} if every strategy for {@code operationType} is
+	 *         additive, otherwise {@code false}
+	 * @throws NullPointerException
+	 *             if {@code operationType} is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if this strategy table has not been configured to support
+	 *             operations of type {@code operationType}
+	 * @see AdditiveStrategy
+	 */
+	public boolean isAdditive(Class<? extends InvertibleOperation<?>> operationType) {
+		if (operationType == null)
+			throw new NullPointerException("The operation type cannot be null");
+
+		for (Map<Class<? extends Operation<?, ?>>, Strategy<? extends Operation<?, ?>>> strategyMap : table.values()) {
+			if (!isAdditive(getOperationStrategyHelper(strategyMap, operationType)))
+				return false;
+		}
+
+		return true;
+	}
+
+	private static boolean isAdditive(Strategy<?> strategy) {
+		if (strategy instanceof AdditiveStrategy || strategy instanceof NullStrategy
+				|| strategy instanceof UnimplementedStrategy || strategy instanceof RedirectStrategy)
+			return true;
+
+		if (strategy instanceof MemoizingStrategy)
+			return isAdditive(((MemoizingStrategy<?, ?>) strategy).getStrategy());
+
+		if (strategy instanceof CompositeStrategy) {
+			for (Strategy<?> component : ((CompositeStrategy<?>) strategy).getStrategies()) {
+				if (!isAdditive(component))
+					return false;
+			}
+
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Estimates the bytes of heap retained by this strategy table's own
+	 * structures: the table of strategies, the lock states, the dispatch
+	 * profiles and the result cache, using the object layout of the running
+	 * JVM.
+	 * <p>
+	 * Each distinct strategy registered in this table is counted once, by its
+	 * shallow size. Any state that strategies refer to, such as the caches of
+	 * memoizing strategies, the lists and results held by the result cache, and
+	 * the element and operation classes themselves are not included.
+	 * 
+	 * @return the estimated size of this strategy table, in bytes
+	 * @see ObjectLayout
+	 */
+	public long estimateFootprint() {
+		long size = ObjectLayout.shallowSizeOf(getClass());
+		size += estimateStructure(decoratedElementClassSet) + estimateStructure(elementLockStates)
+				+ estimateStructure(operationLockStates) + estimateStructure(table);
+
+		final Set<Strategy<?>> strategies = Collections.newSetFromMap(new IdentityHashMap<Strategy<?>, Boolean>());
+		for (Map<Class<? extends Operation<?, ?>>, Strategy<? extends Operation<?, ?>>> strategyMap : table.values()) {
+			size += estimateStructure(strategyMap);
+			strategies.addAll(strategyMap.values());
+		}
+
+		for (Strategy<?> strategy : strategies) {
+			size += ObjectLayout.shallowSizeOf(strategy.getClass());
+		}
+
+		size += estimateStructure(dispatchProfiles);
+		for (DispatchProfile profile : dispatchProfiles.values()) {
+			size += profile.estimateFootprint();
+		}
+
+		size += resultCache.estimateFootprint();
+
+		return size;
+	}
+
+	/*
+	 * Estimates the size of a hash-based collection's own objects, not
+	 * including its keys or values. Hash sets are backed by a hash map.
+	 */
+	private static long estimateStructure(Object collection) {
+		final int size = collection instanceof Map ? ((Map<?, ?>) collection).size() : ((Set<?>) collection).size();
+		long footprint = ObjectLayout.shallowSizeOf(collection.getClass()) + ObjectLayout.hashTableSizeOf(size);
+		if (collection instanceof HashSet)
+			footprint += ObjectLayout.shallowSizeOf(HashMap.class);
+
+		return footprint;
+	}
+
+	int getConfigurationVersion() {
+		return configurationVersion;
+	}
+
+	private <T extends Operation<?, ?>> Strategy<T> lookupOperationStrategy(Class<? extends T> operationType,
+			Class<? extends Element> elementType) {
+
+		final DispatchProfile profile = dispatchProfiles.get(operationType);
+		if (profile == null)
+			return getOperationStrategy(operationType, elementType);
+
+		return profile.lookup(elementType, this);
+	}
+
 	/**
 	 * Handles the execution of {@code operation} on {@code element} based on
 	 * the appropriate registered {@link Strategy} (if any) and this strategy
 	 * table's {@code policy}.
+	 * <p>
+	 * Many threads may apply operations using the same strategy table at once,
+	 * provided that no strategies are registered while they do. An operation
+	 * shared between threads must itself be thread-safe, such as
+	 * {@link tagc.strategytable.operation.ConcurrentFindTotalOperation}.
 	 * 
 	 * @param operation
 	 *            the operation to perform on {@code element}
@@ -733,18 +929,84 @@ public class StrategyTable {
 
 		@SuppressWarnings("unchecked")
 		final Class<? extends T> operationType = (Class<? extends T>) operation.getClass();
-		final Class<? extends Element> elementType = element.asDecorationAtLevel(decorationLevel).getClass();
-		final Strategy<T> strategy = getOperationStrategy(operationType, elementType);
+		Element representedElement = element.asDecorationAtLevel(decorationLevel);
+		Strategy<T> strategy = lookupOperationStrategy(operationType, representedElement.getClass());
+		final Class<? extends Element> requestedType = representedElement.getClass();
+		int redirectCount = 0;
+
+		/*
+		 * Redirect strategies are followed here in a loop rather than by
+		 * letting them call back into this table, so that the stack depth
+		 * stays the same however deeply an element is decorated.
+		 */
+		while (strategy instanceof RedirectStrategy) {
+			if (decorationLevel <= 0)
+				throw new IllegalArgumentException("Redirect strategies cannot be applied to elements of type: "
+						+ representedElement.getClass().getSimpleName());
+
+			final Element redirectedElement = ((RedirectStrategy<T>) strategy).redirect(operation, element,
+					decorationLevel);
+			decorationLevel--;
+
+			/*
+			 * The represented element is one level above the new decoration
+			 * level, so stepping down from it is cheap. Only an element that a
+			 * custom redirect strategy has swapped in needs to be represented
+			 * from scratch.
+			 */
+			final Element decoratee = representedElement.asDecorationAtLevel(decorationLevel);
+			if (redirectedElement == element || redirectedElement == decoratee) {
+				representedElement = decoratee;
+			} else {
+				representedElement = redirectedElement.asDecorationAtLevel(decorationLevel);
+			}
+
+			element = redirectedElement;
+			strategy = lookupOperationStrategy(operationType, representedElement.getClass());
+			redirectCount++;
+		}
 
 		assert (strategy != null) : "The strategy should not be null";
+
+		/*
+		 * The listener is read once, so that the only cost while events are
+		 * disabled is a single volatile read.
+		 */
+		final DispatchListener listener = DispatchEvents.getListener();
+		if (listener == null) {
+			strategy.execute(operation, element, decorationLevel, this);
+			return;
+		}
+
+		if (redirectCount > 0)
+			listener.redirectChainFollowed(operationType, requestedType, redirectCount, strategy);
+
+		final long start = System.nanoTime();
 		strategy.execute(operation, element, decorationLevel, this);
+		final long duration = System.nanoTime() - start;
+
+		if (duration >= DispatchEvents.getSlowStrategyThreshold(TimeUnit.NANOSECONDS))
+			listener.slowStrategyExecuted(operationType, representedElement.getClass(), strategy, duration);
 	}
 
 	/**
 	 * Handles the execution of {@code operation} over a collection of
 	 * {@code Element} objects in sequence based on the appropriate registered
 	 * {@link Strategy} (if any) and this strategy table's {@code policy}.
-	 * 
+	 * <p>
+	 * If {@code elements} is a {@link TypedElementBag}, elements that would be
+	 * handled by a null strategy are not visited at all.
+	 * If {@code elements} is an {@link ElementColumns} and the operation is a
+	 * built-in total or count operation handled by the built-in strategies,
+	 * the rows are processed in bulk without creating any elements.
+	 * If {@code elements} is an {@link ImmutableElementList} and the operation
+	 * is a {@link CacheableOperation}, a result cached from applying the same type
+	 * of operation over the same list from the same starting result is stored
+	 * with the operation without visiting any elements.
+	 * <p>
+	 * If {@code operation} is a {@link ShortCircuitingOperation}, no further
+	 * elements are visited once it reports that it is complete.
+	 *
 	 * @param operation
 	 *            the operation to perform on {@code element}
 	 * @param elements
@@ -768,11 +1030,356 @@ public class StrategyTable {
 		if (elements == null)
 			throw new NullPointerException("The collection of elements cannot be null");
 
+		final DispatchListener listener = DispatchEvents.getListener();
+		if (listener == null) {
+			operateOverCollectionHelper(operation, elements);
+			return;
+		}
+
+		final long start = System.nanoTime();
+		operateOverCollectionHelper(operation, elements);
+		listener.collectionProcessed(getOperationType(operation), elements.size(), System.nanoTime() - start);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Class<? extends Operation<?, ?>> getOperationType(Operation<?, ?> operation) {
+		return (Class<? extends Operation<?, ?>>) operation.getClass();
+	}
+
+	private <T extends Operation<?, ?>> void operateOverCollectionHelper(T operation,
+			Collection<? extends Element> elements) {
+		if (elements instanceof TypedElementBag) {
+			operateOverBag(operation, (TypedElementBag) elements);
+			return;
+		}
+
+		if (elements instanceof ElementColumns) {
+			final BulkKernel kernel = BulkKernel.forOperation(this, operation);
+			if (kernel != null) {
+				kernel.apply(operation, (ElementColumns) elements);
+				return;
+			}
+		}
+
+		if (elements instanceof ImmutableElementList && operation instanceof CacheableOperation) {
+			operateOverImmutableList((CacheableOperation<?>) operation, (ImmutableElementList) elements);
+			return;
+		}
+
+		/*
+		 * Indexing random access lists avoids allocating an iterator.
+		 */
+		if (elements instanceof List && elements instanceof RandomAccess) {
+			operateOverList(operation, (List<? extends Element>) elements);
+			return;
+		}
+
+		final ShortCircuitingOperation<?, ?> shortCircuiting = asShortCircuiting(operation);
 		for (Element e : elements) {
+			if (shortCircuiting != null && shortCircuiting.isComplete())
+				return;
+
 			operate(operation, e);
 		}
 	}
 
+	private <T extends Operation<?, ?>> void operateOverList(T operation, List<? extends Element> elements) {
+		final ShortCircuitingOperation<?, ?> shortCircuiting = asShortCircuiting(operation);
+		for (int i = 0; i < elements.size(); i++) {
+			if (shortCircuiting != null && shortCircuiting.isComplete())
+				return;
+
+			operate(operation, elements.get(i));
+		}
+	}
+
+	/*
+	 * The whole state of a cacheable operation is its result and its
+	 * strategies only store results, so applying it over an unchanging list
+	 * from the same starting result always gives the same result. The
+	 * configuration version is read before traversing, so a result computed
+	 * while strategies were being registered is never found.
+	 */
+	private <T> void operateOverImmutableList(CacheableOperation<T> operation, ImmutableElementList elements) {
+		final int version = configurationVersion;
+		if (resultCache.apply(version, operation, elements))
+			return;
+
+		final T startResult = operation.get();
+		operateOverList(operation, elements);
+		resultCache.put(version, operation.getClass(), elements, startResult, operation.get());
+	}
+
+	/**
+	 * Sets the maximum number of results of operations applied over
+	 * {@link ImmutableElementList} objects that this strategy table keeps,
+	 * evicting the least recently used results beyond it. A capacity of zero
+	 * disables the result cache. The default capacity is 64.
+	 * <p>
+	 * Only the results of {@link CacheableOperation} objects are cached.
+	 * Cached results keep the lists that they were computed over reachable
+	 * until they are evicted or the strategy table is reconfigured.
+	 * 
+	 * @param capacity
+	 *            the maximum number of cached results
+	 * @throws IllegalArgumentException
+	 *             if {@code capacity} is negative
+	 * @see ImmutableElementList
+	 * @see CacheableOperation
+	 */
+	public void setResultCacheCapacity(int capacity) {
+		if (capacity < 0)
+			throw new IllegalArgumentException("The result cache capacity cannot be negative");
+
+		resultCache.setCapacity(capacity);
+	}
+
+	/**
+	 * Returns the maximum number of results of operations applied over
+	 * {@link ImmutableElementList} objects that this strategy table keeps.
+	 * 
+	 * @return the capacity of the result cache
+	 */
+	public int getResultCacheCapacity() {
+		return resultCache.getCapacity();
+	}
+
+	/**
+	 * Returns the number of results of operations applied over
+	 * {@link ImmutableElementList} objects that this strategy table currently
+	 * keeps.
+	 * 
+	 * @return the number of cached results
+	 */
+	public int getResultCacheSize() {
+		return resultCache.size();
+	}
+
+	/**
+	 * Handles the execution of {@code operation} over a collection of
+	 * {@code Element} objects in sequence, as
+	 * {@link #operateOverCollection(Operation, Collection)} does, but stops
+	 * once {@code deadline} expires or the current thread is interrupted.
+	 * <p>
+	 * The returned cursor records how many elements have been processed and
+	 * can be used to resume processing later on the same operation. Progress
+	 * can be polled from the cursor from other threads during long runs.
+	 * 
+	 * @param operation
+	 *            the operation to perform on {@code element}
+	 * @param elements
+	 *            the collection of {@code Element} objects to have
+	 *            {@code operation} applied to
+	 * @param deadline
+	 *            the deadline by which to stop processing
+	 * @return a cursor recording how far processing got
+	 * @throws NullPointerException
+	 *             if {@code operation}, {@code elements} or {@code deadline}
+	 *             are {@code null}
+	 * @throws IllegalArgumentException
+	 *             if this strategy table has not been configured to support
+	 *             elements of type {@code elementType}
+	 * @throws UnsupportedOperationException
+	 *             if there is no explicitly registered {@code Strategy} for the
+	 *             types of {@code operation} and {@code element} and this
+	 *             strategy table's policy is set to
+	 *             {@link StrategyTablePolicy#STRICT}
+	 * @see ProcessingCursor#resume(Deadline)
+	 */
+	public <T extends Operation<?, ?>> ProcessingCursor<T> operateOverCollection(T operation,
+			Collection<? extends Element> elements, Deadline deadline) {
+		if (operation == null)
+			throw new NullPointerException("The operation cannot be null");
+
+		if (elements == null)
+			throw new NullPointerException("The collection of elements cannot be null");
+
+		if (deadline == null)
+			throw new NullPointerException("The deadline cannot be null");
+
+		final ProcessingCursor<T> cursor = new ProcessingCursor<T>(this, operation, elements);
+		cursor.resume(deadline);
+		return cursor;
+	}
+
+	/*
+	 * Returns the operation as a short-circuiting operation if it is one, so
+	 * that traversals only test for completion when it is possible.
+	 */
+	static ShortCircuitingOperation<?, ?> asShortCircuiting(Operation<?, ?> operation) {
+		return operation instanceof ShortCircuitingOperation ? (ShortCircuitingOperation<?, ?>) operation : null;
+	}
+
+	private <T extends Operation<?, ?>> void operateOverBag(T operation, TypedElementBag bag) {
+		@SuppressWarnings("unchecked")
+		final Class<T> operationType = (Class<T>) operation.getClass();
+
+		/*
+		 * Every bucket is resolved before any are operated on, so that a
+		 * missing strategy is reported before the operation has been partly
+		 * applied.
+		 */
+		for (TypedElementBag.Bucket bucket : bag.getBuckets()) {
+			if (bucket.resolve(this, operationType).isUnimplemented())
+				throw new UnsupportedOperationException(String.format(
+						"No strategy configured for applying operations of type %s to elements with signature %s",
+						operationType.getSimpleName(), bucket.getSignature()));
+		}
+
+		final ShortCircuitingOperation<?, ?> shortCircuiting = asShortCircuiting(operation);
+		for (TypedElementBag.Bucket bucket : bag.getBuckets()) {
+			final ResolvedStrategy<T> resolution = bucket.resolve(this, operationType);
+			if (resolution.isSkipped())
+				continue;
+
+			final List<Element> bucketElements = bucket.getElements();
+			for (int i = 0; i < bucketElements.size(); i++) {
+				if (shortCircuiting != null && shortCircuiting.isComplete())
+					return;
+
+				resolution.execute(operation, resolution.getTarget(bucketElements.get(i)), this);
+			}
+		}
+	}
+
+	/**
+	 * Applies a separate operation to each group of elements in
+	 * {@code elements} in one pass, where each element's group is given by
+	 * {@code keyFunction}, and returns the operation for each group.
+	 * <p>
+	 * An operation is created with {@code operationFactory} for each group
+	 * when its first element is encountered, and the groups are returned in
+	 * that order. Large collections are split between threads, each of which
+	 * creates its own operation for every group it encounters, if the
+	 * operations are {@link InvertibleOperation} objects and every strategy
+	 * registered for them is additive, as reported by {@link #isAdditive}; the
+	 * operations for the same group are then merged using
+	 * {@link InvertibleOperation#combine}. Otherwise the elements are processed
+	 * on the calling thread, so the results are the same as those of a single
+	 * pass either way.
+	 * <p>
+	 * If the operations are {@link ShortCircuitingOperation} objects, no
+	 * further elements are applied to a group's operation once it reports that
+	 * it is complete.
+	 *
+	 * @param operationFactory
+	 *            the factory that creates the operation for each group
+	 * @param elements
+	 *            the collection of {@code Element} objects to group and have
+	 *            the operations applied to
+	 * @param keyFunction
+	 *            the function that gives the key of each element's group
+	 * @return a map from the key of each group to its operation
+	 * @throws NullPointerException
+	 *             if {@code operationFactory}, {@code elements},
+	 *             {@code keyFunction} or any of the elements are {@code null},
+	 *             or if {@code operationFactory} creates a {@code null}
+	 *             operation
+	 * @throws IllegalArgumentException
+	 *             if this strategy table has not been configured to support
+	 *             the types of any of the elements or operations created by
+	 *             {@code operationFactory}
+	 * @throws UnsupportedOperationException
+	 *             if there is no explicitly registered {@code Strategy} for the
+	 *             types of an operation and element and this strategy table's
+	 *             policy is set to {@link StrategyTablePolicy#STRICT}
+	 * @see #operateGrouped(OperationFactory, Collection, IntElementKey)
+	 */
+	public <K, T extends Operation<?, ?>> Map<K, T> operateGrouped(OperationFactory<? extends T> operationFactory,
+			Collection<? extends Element> elements, ElementKey<? extends K> keyFunction) {
+		if (keyFunction == null)
+			throw new NullPointerException("The key function cannot be null");
+
+		checkGroupedArguments(operationFactory, elements);
+		return GroupedAggregation.<K, T> byKey(this, operationFactory, keyFunction).aggregate(elements);
+	}
+
+	/**
+	 * Applies a separate operation to each group of elements in
+	 * {@code elements} in one pass, as
+	 * {@link #operateGrouped(OperationFactory, Collection, ElementKey)} does,
+	 * where each element's group is identified by an {@code int}. Groups are
+	 * found without boxing the key of every element.
+	 *
+	 * @param operationFactory
+	 *            the factory that creates the operation for each group
+	 * @param elements
+	 *            the collection of {@code Element} objects to group and have
+	 *            the operations applied to
+	 * @param keyFunction
+	 *            the function that gives the key of each element's group
+	 * @return a map from the key of each group to its operation
+	 * @throws NullPointerException
+	 *             if {@code operationFactory}, {@code elements},
+	 *             {@code keyFunction} or any of the elements are {@code null},
+	 *             or if {@code operationFactory} creates a {@code null}
+	 *             operation
+	 * @throws IllegalArgumentException
+	 *             if this strategy table has not been configured to support
+	 *             the types of any of the elements or operations created by
+	 *             {@code operationFactory}
+	 * @throws UnsupportedOperationException
+	 *             if there is no explicitly registered {@code Strategy} for the
+	 *             types of an operation and element and this strategy table's
+	 *             policy is set to {@link StrategyTablePolicy#STRICT}
+	 */
+	public <T extends Operation<?, ?>> Map<Integer, T> operateGrouped(OperationFactory<? extends T> operationFactory,
+			Collection<? extends Element> elements, IntElementKey keyFunction) {
+		if (keyFunction == null)
+			throw new NullPointerException("The key function cannot be null");
+
+		checkGroupedArguments(operationFactory, elements);
+		return GroupedAggregation.<T> byIntKey(this, operationFactory, keyFunction).aggregate(elements);
+	}
+
+	private static void checkGroupedArguments(OperationFactory<?> operationFactory,
+			Collection<? extends Element> elements) {
+		if (operationFactory == null)
+			throw new NullPointerException("The operation factory cannot be null");
+
+		if (elements == null)
+			throw new NullPointerException("The collection of elements cannot be null");
+	}
+
+	/**
+	 * Creates an {@link ExecutionPlan} for applying operations of type
+	 * {@code operationType} to {@code elements}.
+	 * <p>
+	 * The strategy for each distinct element signature is resolved once when
+	 * the plan is created, so that the plan can be executed repeatedly over
+	 * the same elements without consulting this table for each element.
+	 * Elements handled by null strategies are skipped by the plan.
+	 * 
+	 * @param operationType
+	 *            the type of operation to plan for
+	 * @param elements
+	 *            the collection of {@code Element} objects to plan for
+	 * @return an execution plan for {@code operationType} over
+	 *         {@code elements}
+	 * @throws NullPointerException
+	 *             if {@code operationType}, {@code elements} or any of the
+	 *             elements are {@code null}
+	 * @throws IllegalArgumentException
+	 *             if this strategy table has not been configured to support
+	 *             the types of any of the elements or operations of type
+	 *             {@code operationType}
+	 * @throws UnsupportedOperationException
+	 *             if there is no explicitly registered {@code Strategy} for
+	 *             {@code operationType} and the type of any of the elements,
+	 *             and this strategy table's policy is set to
+	 *             {@link StrategyTablePolicy#STRICT}
+	 */
+	public <T extends Operation<?, ?>> ExecutionPlan<T> plan(Class<T> operationType,
+			Collection<? extends Element> elements) {
+		if (operationType == null)
+			throw new NullPointerException("The operation type cannot be null");
+
+		if (elements == null)
+			throw new NullPointerException("The collection of elements cannot be null");
+
+		return new ExecutionPlan<T>(this, operationType, elements);
+	}
+
 	@Override
 	public String toString() {
 		String output = "Strategy table\n";
@@ -790,10 +1397,29 @@ public class StrategyTable {
 			for (Entry<Class<? extends Operation<?, ?>>, Strategy<? extends Operation<?, ?>>> strategyMap : elementMap
 					.getValue().entrySet()) {
 
-				output += String.format("\t* %s -> %s\n", strategyMap.getKey().getSimpleName(), strategyMap.getValue());
+				final Strategy<? extends Operation<?, ?>> strategy = strategyMap.getValue();
+				final List<? extends Strategy<?>> components = getComponents(strategy);
+				if (components != null) {
+					output += String.format("\t* %s -> Composite strategy\n", strategyMap.getKey().getSimpleName());
+					for (Strategy<?> component : components) {
+						output += String.format("\t\t- %s\n", component);
+					}
+				} else {
+					output += String.format("\t* %s -> %s\n", strategyMap.getKey().getSimpleName(), strategy);
+				}
 			}
 		}
 
 		return output;
 	}
+
+	private static List<? extends Strategy<?>> getComponents(Strategy<?> strategy) {
+		if (strategy instanceof CompositeStrategy)
+			return ((CompositeStrategy<?>) strategy).getStrategies();
+
+		if (strategy instanceof CompositeOperationStrategy)
+			return ((CompositeOperationStrategy) strategy).getStrategies();
+
+		return null;
+	}
 }
@@ -0,0 +1,20 @@
+package tagc.strategytable.table;
+
+/**
+ * A factory object that creates and configures {@link StrategyTable} objects.
+ * <p>
+ * Implementations that are used to create tables in other processes, such as
+ * the workers of a {@code PartitionedExecutor}, must be public and have a
+ * public no-argument constructor.
+ * 
+ * @author David
+ */
+public interface StrategyTableFactory {
+
+	/**
+	 * Creates and configures a new strategy table.
+	 * 
+	 * @return a new {@code StrategyTable}
+	 */
+	StrategyTable createTable();
+}
@@ -0,0 +1,207 @@
+package tagc.strategytable.table;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.operation.Operation;
+
+/**
+ * An unordered collection of {@link Element} objects that keeps elements in
+ * buckets according to their type and the types of their decorators.
+ * <p>
+ * When a {@link StrategyTable} applies an operation over a
+ * {@code TypedElementBag}, it finds the strategy for each bucket once and
+ * skips any bucket handled by a null strategy without visiting its elements.
+ * Operations that only affect a small fraction of the elements therefore
+ * only cost time in proportion to that fraction.
+ * <p>
+ * Elements are iterated bucket by bucket, in the order that each bucket was
+ * first added to. This collection is not thread-safe.
+ * 
+ * @author David
+ * @see StrategyTable#operateOverCollection(Operation, Collection)
+ */
+public class TypedElementBag extends AbstractCollection<Element> {
+
+	private final Map<ElementSignature, Bucket> buckets = new LinkedHashMap<ElementSignature, Bucket>();
+	private int size;
+
+	/**
+	 * Constructs an empty {@code TypedElementBag}.
+	 */
+	public TypedElementBag() {
+	}
+
+	/**
+	 * Constructs a {@code TypedElementBag} containing each element in
+	 * {@code elements}.
+	 * 
+	 * @param elements
+	 *            the elements to add to this bag
+	 * @throws NullPointerException
+	 *             if {@code elements} or any of the elements are {@code null}
+	 */
+	public TypedElementBag(Collection<? extends Element> elements) {
+		addAll(elements);
+	}
+
+	@Override
+	public boolean add(Element element) {
+		if (element == null)
+			throw new NullPointerException("The element cannot be null");
+
+		final ElementSignature signature = ElementSignature.of(element);
+		Bucket bucket = buckets.get(signature);
+		if (bucket == null) {
+			bucket = new Bucket(signature);
+			buckets.put(signature, bucket);
+		}
+
+		bucket.elements.add(element);
+		size++;
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (!(o instanceof Element))
+			return false;
+
+		final ElementSignature signature = ElementSignature.of((Element) o);
+		final Bucket bucket = buckets.get(signature);
+		if (bucket == null || !bucket.elements.remove(o))
+			return false;
+
+		if (bucket.elements.isEmpty()) {
+			buckets.remove(signature);
+		}
+
+		size--;
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		buckets.clear();
+		size = 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of buckets in this bag, which is the number of
+	 * distinct combinations of element type and decorator types among its
+	 * elements.
+	 * 
+	 * @return the number of buckets
+	 */
+	public int getBucketCount() {
+		return buckets.size();
+	}
+
+	Collection<Bucket> getBuckets() {
+		return Collections.unmodifiableCollection(buckets.values());
+	}
+
+	@Override
+	public Iterator<Element> iterator() {
+		return new Iterator<Element>() {
+			private final Iterator<Bucket> bucketIterator = buckets.values().iterator();
+			private Bucket bucket;
+			private Iterator<Element> elementIterator = Collections.<Element> emptyList().iterator();
+
+			@Override
+			public boolean hasNext() {
+				return elementIterator.hasNext() || bucketIterator.hasNext();
+			}
+
+			@Override
+			public Element next() {
+				if (!elementIterator.hasNext()) {
+					if (!bucketIterator.hasNext())
+						throw new NoSuchElementException();
+
+					bucket = bucketIterator.next();
+					elementIterator = bucket.elements.iterator();
+				}
+
+				return elementIterator.next();
+			}
+
+			@Override
+			public void remove() {
+				elementIterator.remove();
+				size--;
+				if (bucket.elements.isEmpty()) {
+					bucketIterator.remove();
+				}
+			}
+		};
+	}
+
+	/*
+	 * Elements that share a signature, along with the strategy most recently
+	 * resolved for them. Only one resolution is cached since a bag is usually
+	 * operated on by one table and one type of operation at a time.
+	 */
+	static class Bucket {
+		private final ElementSignature signature;
+		private final List<Element> elements = new ArrayList<Element>();
+		private volatile CachedResolution cachedResolution;
+
+		Bucket(ElementSignature signature) {
+			this.signature = signature;
+		}
+
+		ElementSignature getSignature() {
+			return signature;
+		}
+
+		List<Element> getElements() {
+			return elements;
+		}
+
+		/*
+		 * We know that this is a safe cast because the cached resolution is
+		 * only returned for the operation type it was resolved for.
+		 */
+		@SuppressWarnings("unchecked")
+		<T extends Operation<?, ?>> ResolvedStrategy<T> resolve(StrategyTable table, Class<T> operationType) {
+			final CachedResolution cached = cachedResolution;
+			final int version = table.getConfigurationVersion();
+			if (cached != null && cached.table == table && cached.operationType == operationType
+					&& cached.configurationVersion == version)
+				return (ResolvedStrategy<T>) cached.resolution;
+
+			final ResolvedStrategy<T> resolution = ResolvedStrategy.resolve(table, operationType, signature);
+			cachedResolution = new CachedResolution(table, operationType, version, resolution);
+			return resolution;
+		}
+	}
+
+	private static class CachedResolution {
+		private final StrategyTable table;
+		private final Class<?> operationType;
+		private final int configurationVersion;
+		private final ResolvedStrategy<?> resolution;
+
+		CachedResolution(StrategyTable table, Class<?> operationType, int configurationVersion,
+				ResolvedStrategy<?> resolution) {
+			this.table = table;
+			this.operationType = operationType;
+			this.configurationVersion = configurationVersion;
+			this.resolution = resolution;
+		}
+	}
+}
@@ -0,0 +1,192 @@
+package tagc.strategytable.annotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.element.ElementFactory;
+import tagc.strategytable.operation.CountElementOperation;
+import tagc.strategytable.operation.FindTotalOperation;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.table.StrategyTable;
+
+public class StrategyDispatcherProcessorTest {
+
+	private static final String ADD_STRATEGY = "package sample;\n"
+			+ "import tagc.strategytable.annotation.StrategyFor;\n"
+			+ "import tagc.strategytable.element.AddElement;\n"
+			+ "import tagc.strategytable.operation.FindTotalOperation;\n"
+			+ "import tagc.strategytable.strategy.AddTotalOperationStrategy;\n"
+			+ "@StrategyFor(operation = FindTotalOperation.class, element = AddElement.class)\n"
+			+ "public class SampleAddStrategy extends AddTotalOperationStrategy {}\n";
+
+	private static final String MULT_STRATEGY = "package sample;\n"
+			+ "import tagc.strategytable.annotation.StrategyFor;\n"
+			+ "import tagc.strategytable.element.MultElement;\n"
+			+ "import tagc.strategytable.operation.FindTotalOperation;\n"
+			+ "import tagc.strategytable.strategy.MultTotalOperationStrategy;\n"
+			+ "@StrategyFor(operation = FindTotalOperation.class, element = MultElement.class)\n"
+			+ "public class SampleMultStrategy extends MultTotalOperationStrategy {}\n";
+
+	private static final String COUNT_STRATEGY = "package sample;\n"
+			+ "import tagc.strategytable.annotation.StrategyFor;\n"
+			+ "import tagc.strategytable.operation.CountElementOperation;\n"
+			+ "import tagc.strategytable.strategy.CountElementOperationStrategy;\n"
+			+ "@StrategyFor(operation = CountElementOperation.class)\n"
+			+ "public class SampleCountStrategy extends CountElementOperationStrategy {}\n";
+
+	private static final String REDIRECT_STRATEGY = "package sample;\n"
+			+ "import tagc.strategytable.annotation.StrategyFor;\n"
+			+ "import tagc.strategytable.element.ReverseElementDecorator;\n"
+			+ "import tagc.strategytable.operation.CountElementOperation;\n"
+			+ "import tagc.strategytable.strategy.SubstituteStrategy;\n"
+			+ "@StrategyFor(operation = CountElementOperation.class, element = ReverseElementDecorator.class)\n"
+			+ "public class SampleRedirectStrategy extends SubstituteStrategy<CountElementOperation> {}\n";
+
+	private static final String TABLE = "package sample;\n"
+			+ "import tagc.strategytable.annotation.GeneratedStrategyTable;\n"
+			+ "import tagc.strategytable.element.*;\n"
+			+ "import tagc.strategytable.operation.*;\n"
+			+ "import tagc.strategytable.table.StrategyTablePolicy;\n"
+			+ "@GeneratedStrategyTable(baseElements = { AddElement.class, MultElement.class },\n"
+			+ "		decoratedElements = { ReverseElementDecorator.class },\n"
+			+ "		operations = { FindTotalOperation.class, CountElementOperation.class },\n"
+			+ "		policy = StrategyTablePolicy.%s)\n"
+			+ "public interface SampleTable {}\n";
+
+	private File outputDirectory;
+
+	private static class SourceFile extends SimpleJavaFileObject {
+		private final String source;
+
+		SourceFile(String className, String source) {
+			super(URI.create("string:///sample/" + className + Kind.SOURCE.extension), Kind.SOURCE);
+			this.source = source;
+		}
+
+		@Override
+		public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+			return source;
+		}
+	}
+
+	private boolean compile(String policy, DiagnosticCollector<JavaFileObject> diagnostics,
+			JavaFileObject... extraSources) {
+		final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assertNotNull("Tests must be run on a JDK", compiler);
+
+		final List<JavaFileObject> sources = new ArrayList<JavaFileObject>();
+		sources.add(new SourceFile("SampleAddStrategy", ADD_STRATEGY));
+		sources.add(new SourceFile("SampleMultStrategy", MULT_STRATEGY));
+		sources.add(new SourceFile("SampleCountStrategy", COUNT_STRATEGY));
+		sources.add(new SourceFile("SampleTable", String.format(TABLE, policy)));
+		sources.addAll(Arrays.asList(extraSources));
+
+		final List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"), "-d",
+				outputDirectory.getPath());
+		final CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, sources);
+		task.setProcessors(Collections.singletonList(new StrategyDispatcherProcessor()));
+		return task.call();
+	}
+
+	@Test
+	public void generatedDispatcherShouldApplyDeclaredStrategies() throws Exception {
+		final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+		assertTrue(diagnostics.getDiagnostics().toString(), compile("DEFAULT", diagnostics));
+
+		try (URLClassLoader loader = new URLClassLoader(new URL[] { outputDirectory.toURI().toURL() }, getClass()
+				.getClassLoader())) {
+			final Class<?> dispatcher = loader.loadClass("sample.SampleTableDispatcher");
+			final Method operate = dispatcher.getMethod("operate", Operation.class, Element.class);
+
+			final FindTotalOperation total = new FindTotalOperation();
+			final CountElementOperation count = new CountElementOperation();
+			for (Element e : Arrays.asList(ElementFactory.createAddElement(4),
+					ElementFactory.createMultElement(3),
+					ElementFactory.addReverseDecoration(ElementFactory.createAddElement(2)))) {
+				operate.invoke(null, total, e);
+				operate.invoke(null, count, e);
+			}
+
+			assertEquals(Integer.valueOf(10), total.get());
+			assertEquals(Integer.valueOf(3), count.get());
+			assertTrue(dispatcher.getMethod("createTable").invoke(null) instanceof StrategyTable);
+		}
+	}
+
+	@Test
+	public void missingStrictCellsShouldBeCompileErrors() {
+		final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+		assertFalse(compile("STRICT", diagnostics));
+
+		boolean reported = false;
+		for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+			reported |= diagnostic.getKind() == Diagnostic.Kind.ERROR
+					&& diagnostic.getMessage(null).contains(
+							"operations of type FindTotalOperation to elements of type ReverseElementDecorator");
+		}
+
+		assertTrue(diagnostics.getDiagnostics().toString(), reported);
+	}
+
+	@Test
+	public void redirectStrategiesShouldBeCompileErrors() {
+		final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+		assertFalse(compile("DEFAULT", diagnostics, new SourceFile("SampleRedirectStrategy", REDIRECT_STRATEGY)));
+
+		boolean reported = false;
+		for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+			reported |= diagnostic.getKind() == Diagnostic.Kind.ERROR
+					&& diagnostic.getMessage(null).contains("SampleRedirectStrategy is a redirect strategy");
+		}
+
+		assertTrue(diagnostics.getDiagnostics().toString(), reported);
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		outputDirectory = Files.createTempDirectory("dispatcher").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		delete(outputDirectory);
+	}
+
+	private static void delete(File file) {
+		final File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+
+		file.delete();
+	}
+}
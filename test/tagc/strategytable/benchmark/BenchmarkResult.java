@@ -0,0 +1,163 @@
+package tagc.strategytable.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The measurements taken from running one workload against one kind of
+ * strategy table.
+ * <p>
+ * Results are written to and read from JSON files holding one result object
+ * per line, so that a results file can be kept as a baseline for later runs.
+ *
+ * @author David
+ */
+public final class BenchmarkResult {
+
+	private static final Pattern NAME_PATTERN = Pattern.compile("\"name\"\\s*:\\s*\"([^\"]*)\"");
+	private static final Pattern THROUGHPUT_PATTERN = Pattern.compile("\"throughput\"\\s*:\\s*([0-9.Ee+-]+)");
+
+	private final String name;
+	private final double throughput;
+	private final long[] latencyPercentiles;
+	private final long gcCount;
+	private final long gcTimeMillis;
+
+	/**
+	 * The percentiles of pass latency that are recorded.
+	 */
+	static final double[] PERCENTILES = { 50, 90, 99, 100 };
+
+	/**
+	 * Creates a result.
+	 *
+	 * @param name
+	 *            the name of the workload and table the result is for
+	 * @param throughput
+	 *            the elements processed per second
+	 * @param latencyPercentiles
+	 *            the latencies of single passes at each of
+	 *            {@link #PERCENTILES}, in nanoseconds
+	 * @param gcCount
+	 *            the number of garbage collections during the run
+	 * @param gcTimeMillis
+	 *            the time spent in garbage collection during the run
+	 */
+	BenchmarkResult(String name, double throughput, long[] latencyPercentiles, long gcCount, long gcTimeMillis) {
+		assert latencyPercentiles.length == PERCENTILES.length;
+
+		this.name = name;
+		this.throughput = throughput;
+		this.latencyPercentiles = latencyPercentiles.clone();
+		this.gcCount = gcCount;
+		this.gcTimeMillis = gcTimeMillis;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public double getThroughput() {
+		return throughput;
+	}
+
+	/**
+	 * Returns the latency of a single pass at the given percentile.
+	 *
+	 * @param index
+	 *            the index of the percentile in {@link #PERCENTILES}
+	 * @return the latency, in nanoseconds
+	 */
+	public long getLatencyPercentile(int index) {
+		return latencyPercentiles[index];
+	}
+
+	public long getGcCount() {
+		return gcCount;
+	}
+
+	public long getGcTimeMillis() {
+		return gcTimeMillis;
+	}
+
+	/**
+	 * Returns the latency at {@code percentile} of the sorted latencies, using
+	 * the nearest-rank method.
+	 */
+	static long percentile(long[] sortedLatencies, double percentile) {
+		final int rank = (int) Math.ceil(percentile / 100 * sortedLatencies.length);
+		return sortedLatencies[Math.max(0, rank - 1)];
+	}
+
+	String toJson() {
+		final StringBuilder builder = new StringBuilder();
+		builder.append(String.format(Locale.ROOT, "{\"name\": \"%s\", \"throughput\": %.1f, \"latencyNanos\": {",
+				name, throughput));
+		for (int i = 0; i < PERCENTILES.length; i++) {
+			builder.append(String.format(Locale.ROOT, "%s\"p%.0f\": %d", i == 0 ? "" : ", ", PERCENTILES[i],
+					latencyPercentiles[i]));
+		}
+
+		builder.append(String.format(Locale.ROOT, "}, \"gcCount\": %d, \"gcTimeMillis\": %d}", gcCount,
+				gcTimeMillis));
+		return builder.toString();
+	}
+
+	/**
+	 * Writes results to a JSON file.
+	 *
+	 * @param results
+	 *            the results to write
+	 * @param file
+	 *            the file to write to
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	static void write(List<BenchmarkResult> results, Path file) throws IOException {
+		final List<String> lines = new ArrayList<String>();
+		lines.add("{\"results\": [");
+		for (int i = 0; i < results.size(); i++) {
+			lines.add("  " + results.get(i).toJson() + (i < results.size() - 1 ? "," : ""));
+		}
+
+		lines.add("]}");
+		Files.write(file, lines, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads the throughput of each result in a JSON file written by
+	 * {@link #write}.
+	 *
+	 * @param file
+	 *            the file to read
+	 * @return the throughput of each result, by name
+	 * @throws IOException
+	 *             if the file cannot be read
+	 */
+	static Map<String, Double> readThroughputs(Path file) throws IOException {
+		final Map<String, Double> throughputs = new LinkedHashMap<String, Double>();
+		for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+			final Matcher name = NAME_PATTERN.matcher(line);
+			final Matcher throughput = THROUGHPUT_PATTERN.matcher(line);
+			if (name.find() && throughput.find())
+				throughputs.put(name.group(1), Double.valueOf(throughput.group(1)));
+		}
+
+		return throughputs;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%-40s %,15.0f elements/s, p50: %,d ns, p99: %,d ns, GCs: %d (%d ms)", name, throughput,
+				latencyPercentiles[0], latencyPercentiles[2], gcCount, gcTimeMillis);
+	}
+}
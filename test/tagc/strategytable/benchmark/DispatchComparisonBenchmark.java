@@ -0,0 +1,458 @@
+package tagc.strategytable.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import tagc.strategytable.element.AddElement;
+import tagc.strategytable.element.Element;
+import tagc.strategytable.element.ElementFactory;
+import tagc.strategytable.element.IgnoreElementDecorator;
+import tagc.strategytable.element.MultElement;
+import tagc.strategytable.element.ReverseElementDecorator;
+import tagc.strategytable.operation.CountElementOperation;
+import tagc.strategytable.operation.FindTotalOperation;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.strategy.AddTotalOperationStrategy;
+import tagc.strategytable.strategy.CountElementOperationStrategy;
+import tagc.strategytable.strategy.MultTotalOperationStrategy;
+import tagc.strategytable.table.StrategyTable;
+
+/**
+ * Compares strategy table dispatch against three conventional ways of
+ * implementing the same total and count workload: a double-dispatch Visitor,
+ * a chain of {@code instanceof} tests and a switch over an enum of element
+ * kinds.
+ * <p>
+ * Each workload is shaped to put the strategy table in one of its dispatch
+ * modes: a single element type for monomorphic dispatch, the demonstration's
+ * four element types for polymorphic dispatch, and two extra base element
+ * types on top of those for megamorphic dispatch. Every implementation is
+ * checked to produce the same results before it is timed, and throughput and
+ * bytes allocated per pass are reported side by side.
+ *
+ * @author David
+ */
+public class DispatchComparisonBenchmark {
+
+	private static final int ELEMENTS = 100000;
+	private static final int WARMUP_PASSES = 100;
+	private static final int MEASURED_PASSES = 300;
+	private static final long SEED = 7;
+
+	private static final com.sun.management.ThreadMXBean THREAD_BEAN = (com.sun.management.ThreadMXBean) ManagementFactory
+			.getThreadMXBean();
+
+	/*
+	 * Extra base element types, which only exist to push strategy tables past
+	 * the number of element types they can cache.
+	 */
+	static final class OffsetElement implements Element {
+		private final int value;
+
+		OffsetElement(int value) {
+			this.value = value;
+		}
+
+		@Override
+		public int getValue() {
+			return value;
+		}
+
+		@Override
+		public boolean isDecorated() {
+			return false;
+		}
+
+		@Override
+		public int getDecorationLevel() {
+			return 0;
+		}
+
+		@Override
+		public Element asDecorationAtLevel(int decorationLevel) {
+			return this;
+		}
+	}
+
+	static final class ScaleElement implements Element {
+		private final int value;
+
+		ScaleElement(int value) {
+			this.value = value;
+		}
+
+		@Override
+		public int getValue() {
+			return value;
+		}
+
+		@Override
+		public boolean isDecorated() {
+			return false;
+		}
+
+		@Override
+		public int getDecorationLevel() {
+			return 0;
+		}
+
+		@Override
+		public Element asDecorationAtLevel(int decorationLevel) {
+			return this;
+		}
+	}
+
+	private enum Kind {
+		ADD, MULT, OFFSET, SCALE, IGNORE, REVERSE
+	}
+
+	/*
+	 * An element that carries its kind, so that it can be handled by a switch
+	 * over the kind's ordinal.
+	 */
+	private static final class KindedElement {
+		final Kind kind;
+		final int value;
+		final KindedElement decoratee;
+
+		KindedElement(Kind kind, int value, KindedElement decoratee) {
+			this.kind = kind;
+			this.value = value;
+			this.decoratee = decoratee;
+		}
+	}
+
+	private enum Shape {
+		MONOMORPHIC(1, 0), POLYMORPHIC(2, 2), MEGAMORPHIC(4, 2);
+
+		final int baseTypes;
+		final int maxDepth;
+
+		private Shape(int baseTypes, int maxDepth) {
+			this.baseTypes = baseTypes;
+			this.maxDepth = maxDepth;
+		}
+
+		List<Element> createElements() {
+			final Random random = new Random(SEED);
+			final List<Element> elements = new ArrayList<Element>(ELEMENTS);
+			for (int i = 0; i < ELEMENTS; i++) {
+				final int value = 1 + random.nextInt(3);
+				Element e;
+				switch (random.nextInt(baseTypes)) {
+				case 0:
+					e = ElementFactory.createAddElement(value);
+					break;
+				case 1:
+					e = ElementFactory.createMultElement(value);
+					break;
+				case 2:
+					e = new OffsetElement(value);
+					break;
+				default:
+					e = new ScaleElement(value);
+					break;
+				}
+
+				final int depth = random.nextInt(maxDepth + 1);
+				for (int j = 0; j < depth; j++) {
+					e = random.nextInt(4) == 0 ? ElementFactory.addIgnoreDecoration(e) : ElementFactory
+							.addReverseDecoration(e);
+				}
+
+				elements.add(e);
+			}
+
+			return elements;
+		}
+	}
+
+	private abstract static class Contender {
+		abstract String getName();
+
+		abstract void prepare(List<Element> elements);
+
+		abstract int total();
+
+		abstract int count();
+	}
+
+	private static class TableContender extends Contender {
+		private final FindTotalOperation totalOperation = new FindTotalOperation();
+		private final CountElementOperation countOperation = new CountElementOperation();
+		private StrategyTable table;
+		private List<Element> elements;
+
+		@Override
+		String getName() {
+			return "StrategyTable (" + table.getDispatchMode(FindTotalOperation.class) + ")";
+		}
+
+		@Override
+		void prepare(List<Element> elements) {
+			final Set<Class<? extends Element>> baseElements = new HashSet<Class<? extends Element>>(Arrays.asList(
+					ElementFactory.getAddElementClass(), ElementFactory.getMultElementClass(), OffsetElement.class,
+					ScaleElement.class));
+			final Set<Class<? extends Element>> decorations = new HashSet<Class<? extends Element>>(Arrays.asList(
+					ElementFactory.getIgnoreElementDecoratorClass(), ElementFactory.getReverseElementDecoratorClass()));
+			final Set<Class<? extends Operation<?, ?>>> operations = new HashSet<Class<? extends Operation<?, ?>>>(
+					Arrays.asList(FindTotalOperation.class, CountElementOperation.class));
+
+			table = new StrategyTable(baseElements, decorations, operations);
+			table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+					new AddTotalOperationStrategy());
+			table.registerOperationStrategy(FindTotalOperation.class, OffsetElement.class,
+					new AddTotalOperationStrategy());
+			table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getMultElementClass(),
+					new MultTotalOperationStrategy());
+			table.registerOperationStrategy(FindTotalOperation.class, ScaleElement.class,
+					new MultTotalOperationStrategy());
+			table.registerOperationStrategies(CountElementOperation.class, new CountElementOperationStrategy());
+			table.registerNullElementStrategies(ElementFactory.getIgnoreElementDecoratorClass());
+			this.elements = elements;
+		}
+
+		@Override
+		int total() {
+			totalOperation.reset();
+			table.operateOverCollection(totalOperation, elements);
+			return totalOperation.getTotal();
+		}
+
+		@Override
+		int count() {
+			countOperation.reset();
+			table.operateOverCollection(countOperation, elements);
+			return countOperation.get();
+		}
+	}
+
+	private static class InstanceofContender extends Contender {
+		private Element[] elements;
+
+		@Override
+		String getName() {
+			return "instanceof chain";
+		}
+
+		@Override
+		void prepare(List<Element> elements) {
+			this.elements = elements.toArray(new Element[elements.size()]);
+		}
+
+		@Override
+		int total() {
+			int total = 0;
+			for (Element e : elements) {
+				int sign = 1;
+				while (true) {
+					if (e instanceof AddElement || e instanceof OffsetElement) {
+						total += sign * e.getValue();
+					} else if (e instanceof MultElement || e instanceof ScaleElement) {
+						total *= sign * e.getValue();
+					} else if (e instanceof ReverseElementDecorator) {
+						sign = -sign;
+						e = e.asDecorationAtLevel(e.getDecorationLevel() - 1);
+						continue;
+					} else if (!(e instanceof IgnoreElementDecorator)) {
+						throw new IllegalArgumentException("Unknown element: " + e);
+					}
+					break;
+				}
+			}
+
+			return total;
+		}
+
+		@Override
+		int count() {
+			int count = 0;
+			for (Element e : elements) {
+				if (!(e instanceof IgnoreElementDecorator))
+					count++;
+			}
+
+			return count;
+		}
+	}
+
+	private static class VisitorContender extends Contender {
+		private VisitableElement[] elements;
+
+		@Override
+		String getName() {
+			return "Visitor";
+		}
+
+		@Override
+		void prepare(List<Element> elements) {
+			this.elements = new VisitableElement[elements.size()];
+			for (int i = 0; i < this.elements.length; i++) {
+				this.elements[i] = toVisitable(elements.get(i));
+			}
+		}
+
+		private static VisitableElement toVisitable(Element e) {
+			if (e instanceof AddElement)
+				return new VisitableElement.Add(e.getValue());
+			if (e instanceof MultElement)
+				return new VisitableElement.Mult(e.getValue());
+			if (e instanceof OffsetElement)
+				return new VisitableElement.Offset(e.getValue());
+			if (e instanceof ScaleElement)
+				return new VisitableElement.Scale(e.getValue());
+
+			final VisitableElement decoratee = toVisitable(e.asDecorationAtLevel(e.getDecorationLevel() - 1));
+			return e instanceof IgnoreElementDecorator ? new VisitableElement.Ignore(decoratee)
+					: new VisitableElement.Reverse(decoratee);
+		}
+
+		@Override
+		int total() {
+			final VisitableElement.TotalVisitor visitor = new VisitableElement.TotalVisitor();
+			for (VisitableElement e : elements) {
+				e.accept(visitor);
+			}
+
+			return visitor.total;
+		}
+
+		@Override
+		int count() {
+			final VisitableElement.CountVisitor visitor = new VisitableElement.CountVisitor();
+			for (VisitableElement e : elements) {
+				e.accept(visitor);
+			}
+
+			return visitor.count;
+		}
+	}
+
+	private static class EnumSwitchContender extends Contender {
+		private KindedElement[] elements;
+
+		@Override
+		String getName() {
+			return "enum ordinal switch";
+		}
+
+		@Override
+		void prepare(List<Element> elements) {
+			this.elements = new KindedElement[elements.size()];
+			for (int i = 0; i < this.elements.length; i++) {
+				this.elements[i] = toKinded(elements.get(i));
+			}
+		}
+
+		private static KindedElement toKinded(Element e) {
+			if (e instanceof AddElement)
+				return new KindedElement(Kind.ADD, e.getValue(), null);
+			if (e instanceof MultElement)
+				return new KindedElement(Kind.MULT, e.getValue(), null);
+			if (e instanceof OffsetElement)
+				return new KindedElement(Kind.OFFSET, e.getValue(), null);
+			if (e instanceof ScaleElement)
+				return new KindedElement(Kind.SCALE, e.getValue(), null);
+
+			final KindedElement decoratee = toKinded(e.asDecorationAtLevel(e.getDecorationLevel() - 1));
+			return new KindedElement(e instanceof IgnoreElementDecorator ? Kind.IGNORE : Kind.REVERSE, 0, decoratee);
+		}
+
+		@Override
+		int total() {
+			int total = 0;
+			for (KindedElement e : elements) {
+				int sign = 1;
+				loop: while (true) {
+					switch (e.kind) {
+					case ADD:
+					case OFFSET:
+						total += sign * e.value;
+						break loop;
+					case MULT:
+					case SCALE:
+						total *= sign * e.value;
+						break loop;
+					case REVERSE:
+						sign = -sign;
+						e = e.decoratee;
+						break;
+					case IGNORE:
+						break loop;
+					}
+				}
+			}
+
+			return total;
+		}
+
+		@Override
+		int count() {
+			int count = 0;
+			for (KindedElement e : elements) {
+				switch (e.kind) {
+				case IGNORE:
+					break;
+				default:
+					count++;
+					break;
+				}
+			}
+
+			return count;
+		}
+	}
+
+	private static void run(Shape shape) {
+		final List<Element> elements = shape.createElements();
+		final List<Contender> contenders = Arrays.asList(new TableContender(), new VisitorContender(),
+				new InstanceofContender(), new EnumSwitchContender());
+
+		System.out.printf("%s workload, %d elements\n", shape, elements.size());
+		Integer expectedTotal = null;
+		Integer expectedCount = null;
+		for (Contender contender : contenders) {
+			contender.prepare(elements);
+
+			int total = 0;
+			int count = 0;
+			for (int i = 0; i < WARMUP_PASSES; i++) {
+				total = contender.total();
+				count = contender.count();
+			}
+
+			if (expectedTotal == null) {
+				expectedTotal = total;
+				expectedCount = count;
+			} else if (expectedTotal != total || expectedCount != count) {
+				throw new AssertionError(String.format("%s found total %d and count %d, expected %d and %d",
+						contender.getName(), total, count, expectedTotal, expectedCount));
+			}
+
+			final long threadId = Thread.currentThread().getId();
+			final long allocatedBefore = THREAD_BEAN.getThreadAllocatedBytes(threadId);
+			final long startTime = System.nanoTime();
+			for (int i = 0; i < MEASURED_PASSES; i++) {
+				contender.total();
+				contender.count();
+			}
+			final long executionTime = Math.max(1, System.nanoTime() - startTime);
+			final long allocated = THREAD_BEAN.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+			final double throughput = 2.0 * elements.size() * MEASURED_PASSES * 1e9 / executionTime;
+			System.out.printf("\t%-30s %,15.0f dispatches/s %,10.1f bytes/pass\n", contender.getName(), throughput,
+					(double) allocated / (2 * MEASURED_PASSES));
+		}
+	}
+
+	public static void main(String[] args) {
+		for (Shape shape : Shape.values()) {
+			run(shape);
+		}
+	}
+}
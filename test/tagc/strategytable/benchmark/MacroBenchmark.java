@@ -0,0 +1,195 @@
+package tagc.strategytable.benchmark;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import tagc.strategytable.benchmark.Workload.ValueDistribution;
+import tagc.strategytable.element.Element;
+import tagc.strategytable.element.ElementFactory;
+import tagc.strategytable.operation.CountElementOperation;
+import tagc.strategytable.operation.FindTotalOperation;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.strategy.AddTotalOperationStrategy;
+import tagc.strategytable.strategy.CountElementOperationStrategy;
+import tagc.strategytable.strategy.MultTotalOperationStrategy;
+import tagc.strategytable.table.StrategyTable;
+import tagc.strategytable.table.StrategyTablePolicy;
+
+/**
+ * Runs synthetic end-to-end workloads against strategy tables under each
+ * policy, writes the results to a JSON file and compares them against a
+ * baseline results file if one is given.
+ * <p>
+ * Usage: {@code MacroBenchmark [results file] [baseline file]}. The process
+ * exits with status 1 if any result's throughput has regressed by more than
+ * {@link #REGRESSION_TOLERANCE} against the baseline.
+ *
+ * @author David
+ */
+public class MacroBenchmark {
+
+	private static final Set<Class<? extends Element>> BASE_ELEMENTS = new HashSet<Class<? extends Element>>(
+			Arrays.asList(ElementFactory.getAddElementClass(), ElementFactory.getMultElementClass()));
+
+	private static final Set<Class<? extends Element>> DECORATIONS = new HashSet<Class<? extends Element>>(
+			Arrays.asList(ElementFactory.getIgnoreElementDecoratorClass(),
+					ElementFactory.getReverseElementDecoratorClass()));
+
+	private static final Set<Class<? extends Operation<?, ?>>> OPERATIONS = new HashSet<Class<? extends Operation<?, ?>>>(
+			Arrays.asList(FindTotalOperation.class, CountElementOperation.class));
+
+	private static final List<Workload> WORKLOADS = Arrays.asList(
+			new Workload("flat-uniform", 100000, 0.5, ValueDistribution.UNIFORM, 100, new int[] { 1 }, 0.5, 0.5, 1),
+			new Workload("shallow-mixed", 100000, 0.7, ValueDistribution.SKEWED, 1000, new int[] { 6, 3, 1 }, 0.3,
+					0.7, 2),
+			new Workload("deep-reversed", 20000, 0.5, ValueDistribution.UNIFORM, 100,
+					new int[] { 1, 1, 1, 1, 1, 1, 1, 1 }, 0.1, 0.5, 3),
+			new Workload("small-constant", 100, 1.0, ValueDistribution.CONSTANT, 7, new int[] { 2, 1 }, 0.5, 0.5, 4));
+
+	private static final int WARMUP_PASSES = 200;
+	private static final int MEASURED_PASSES = 500;
+
+	/**
+	 * The fraction of a baseline's throughput that a result may lose before it
+	 * is flagged as a regression.
+	 */
+	private static final double REGRESSION_TOLERANCE = 0.10;
+
+	private static final Path DEFAULT_RESULTS_FILE = Paths.get("macro-benchmark-results.json");
+
+	/*
+	 * Every policy is configured so that ignored elements contribute nothing
+	 * and reversed elements are totalled by their wrapped element's strategy,
+	 * as in the demonstration. Under STRICT this has to be registered
+	 * explicitly, while the other policies rely on their defaults.
+	 */
+	private static StrategyTable createTable(StrategyTablePolicy policy) {
+		final StrategyTable table = new StrategyTable(BASE_ELEMENTS, DECORATIONS, OPERATIONS, policy);
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new AddTotalOperationStrategy());
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getMultElementClass(),
+				new MultTotalOperationStrategy());
+		table.registerOperationStrategies(CountElementOperation.class, new CountElementOperationStrategy());
+
+		if (policy == StrategyTablePolicy.STRICT || policy == StrategyTablePolicy.DEFAULT)
+			table.registerNullElementStrategies(ElementFactory.getIgnoreElementDecoratorClass());
+
+		if (policy == StrategyTablePolicy.STRICT)
+			table.registerSubstituteElementStrategies(ElementFactory.getReverseElementDecoratorClass());
+
+		return table;
+	}
+
+	private static BenchmarkResult run(Workload workload, StrategyTablePolicy policy) {
+		final StrategyTable table = createTable(policy);
+		final List<Element> elements = workload.createElements();
+
+		for (Operation<?, ?> operation : workload.createOperations(WARMUP_PASSES)) {
+			table.operateOverCollection(operation, elements);
+		}
+
+		final List<Operation<?, ?>> operations = workload.createOperations(MEASURED_PASSES);
+		final long[] latencies = new long[MEASURED_PASSES];
+		final long gcCountBefore = getGcCount();
+		final long gcTimeBefore = getGcTimeMillis();
+
+		final long startTime = System.nanoTime();
+		for (int i = 0; i < MEASURED_PASSES; i++) {
+			final long passStart = System.nanoTime();
+			table.operateOverCollection(operations.get(i), elements);
+			latencies[i] = System.nanoTime() - passStart;
+		}
+		final long executionTime = Math.max(1, System.nanoTime() - startTime);
+
+		final long gcCount = getGcCount() - gcCountBefore;
+		final long gcTime = getGcTimeMillis() - gcTimeBefore;
+
+		Arrays.sort(latencies);
+		final long[] percentiles = new long[BenchmarkResult.PERCENTILES.length];
+		for (int i = 0; i < percentiles.length; i++) {
+			percentiles[i] = BenchmarkResult.percentile(latencies, BenchmarkResult.PERCENTILES[i]);
+		}
+
+		final double throughput = (double) elements.size() * MEASURED_PASSES * 1e9 / executionTime;
+		return new BenchmarkResult(workload.getName() + "/" + policy, throughput, percentiles, gcCount, gcTime);
+	}
+
+	private static long getGcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, collector.getCollectionCount());
+		}
+
+		return count;
+	}
+
+	private static long getGcTimeMillis() {
+		long time = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(0, collector.getCollectionTime());
+		}
+
+		return time;
+	}
+
+	/*
+	 * Returns whether any result regressed. Results without a baseline are
+	 * reported but never count as regressions.
+	 */
+	private static boolean compare(List<BenchmarkResult> results, Map<String, Double> baseline) {
+		boolean regressed = false;
+		for (BenchmarkResult result : results) {
+			final Double baselineThroughput = baseline.get(result.getName());
+			if (baselineThroughput == null) {
+				System.out.printf("%-40s no baseline\n", result.getName());
+				continue;
+			}
+
+			final double change = result.getThroughput() / baselineThroughput - 1;
+			final boolean regression = change < -REGRESSION_TOLERANCE;
+			regressed |= regression;
+			System.out.printf("%-40s %+6.1f%%%s\n", result.getName(), change * 100, regression ? "  REGRESSION" : "");
+		}
+
+		return regressed;
+	}
+
+	public static void main(String[] args) throws IOException {
+		final Path resultsFile = args.length > 0 ? Paths.get(args[0]) : DEFAULT_RESULTS_FILE;
+		final Path baselineFile = args.length > 1 ? Paths.get(args[1]) : null;
+
+		final List<BenchmarkResult> results = new ArrayList<BenchmarkResult>();
+		for (Workload workload : WORKLOADS) {
+			for (StrategyTablePolicy policy : StrategyTablePolicy.values()) {
+				final BenchmarkResult result = run(workload, policy);
+				System.out.println(result);
+				results.add(result);
+			}
+		}
+
+		BenchmarkResult.write(results, resultsFile);
+		System.out.println("Results written to " + resultsFile.toAbsolutePath());
+
+		if (baselineFile == null)
+			return;
+
+		if (!Files.exists(baselineFile)) {
+			System.out.println("No baseline found at " + baselineFile + ", nothing to compare against");
+			return;
+		}
+
+		System.out.println("\nComparison against " + baselineFile);
+		if (compare(results, BenchmarkResult.readThroughputs(baselineFile)))
+			System.exit(1);
+	}
+}
@@ -0,0 +1,277 @@
+package tagc.strategytable.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.element.ElementFactory;
+import tagc.strategytable.operation.CountElementOperation;
+import tagc.strategytable.operation.FindTotalOperation;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.strategy.AddTotalOperationStrategy;
+import tagc.strategytable.strategy.CountElementOperationStrategy;
+import tagc.strategytable.strategy.MultTotalOperationStrategy;
+import tagc.strategytable.table.StrategyTable;
+
+/**
+ * Measures how throughput scales as more threads share one strategy table and
+ * the element factory.
+ * <p>
+ * The table's configuration is fixed while the threads run, because
+ * registering strategies while other threads apply operations is not
+ * supported by {@link StrategyTable}.
+ * <p>
+ * Every thread does the same amount of work, so perfect scaling keeps the
+ * execution time flat and the reported efficiency at 100%. While the threads
+ * run, a sampler records how often they are blocked or waiting and on which
+ * locks, so a drop in efficiency can be traced to its cause.
+ * <p>
+ * Usage: {@code ScalingBenchmark [max threads]}. By default threads are added
+ * in powers of two up to the number of available processors.
+ *
+ * @author David
+ */
+public class ScalingBenchmark {
+
+	private static final Set<Class<? extends Element>> BASE_ELEMENTS = new HashSet<Class<? extends Element>>(
+			Arrays.asList(ElementFactory.getAddElementClass(), ElementFactory.getMultElementClass()));
+
+	private static final Set<Class<? extends Element>> DECORATIONS = new HashSet<Class<? extends Element>>(
+			Arrays.asList(ElementFactory.getIgnoreElementDecoratorClass(),
+					ElementFactory.getReverseElementDecoratorClass()));
+
+	private static final Set<Class<? extends Operation<?, ?>>> OPERATIONS = new HashSet<Class<? extends Operation<?, ?>>>(
+			Arrays.asList(FindTotalOperation.class, CountElementOperation.class));
+
+	private static final int ELEMENTS = 10000;
+	private static final int DISPATCHES_PER_THREAD = 5000000;
+	private static final int FACTORY_VALUES = 4096;
+
+	private static final long SAMPLE_INTERVAL_MILLIS = 2;
+
+	private enum Scenario {
+		/** Single dispatches of shared elements. */
+		OPERATE {
+			@Override
+			void run(StrategyTable table, List<Element> elements) {
+				final FindTotalOperation total = new FindTotalOperation();
+				final int size = elements.size();
+				for (int i = 0; i < DISPATCHES_PER_THREAD; i++) {
+					table.operate(total, elements.get(i % size));
+				}
+			}
+		},
+		/** Whole passes over a shared collection. */
+		OPERATE_OVER_COLLECTION {
+			@Override
+			void run(StrategyTable table, List<Element> elements) {
+				final FindTotalOperation total = new FindTotalOperation();
+				final CountElementOperation count = new CountElementOperation();
+				for (int i = 0; i < DISPATCHES_PER_THREAD / elements.size() / 2; i++) {
+					table.operateOverCollection(total, elements);
+					table.operateOverCollection(count, elements);
+				}
+			}
+		},
+		/** Single dispatches of elements fetched from the factory's caches. */
+		FACTORY_AND_OPERATE {
+			@Override
+			void run(StrategyTable table, List<Element> elements) {
+				final FindTotalOperation total = new FindTotalOperation();
+				for (int i = 0; i < DISPATCHES_PER_THREAD; i++) {
+					final int value = i % FACTORY_VALUES;
+					final Element e = (i & 1) == 0 ? ElementFactory.createAddElement(value) : ElementFactory
+							.createMultElement(value);
+					table.operate(total, e);
+				}
+			}
+		};
+
+		abstract void run(StrategyTable table, List<Element> elements);
+	}
+
+	/*
+	 * The blocked and waiting samples taken of the worker threads, and the
+	 * locks they were found waiting on.
+	 */
+	private static class ContentionProfile {
+		int samples;
+		int blockedSamples;
+		int waitingSamples;
+		long blockedCount;
+		long blockedTimeMillis;
+		final Map<String, Integer> lockSamples = new HashMap<String, Integer>();
+
+		void sample(ThreadInfo info) {
+			samples++;
+			switch (info.getThreadState()) {
+			case BLOCKED:
+				blockedSamples++;
+				break;
+			case WAITING:
+			case TIMED_WAITING:
+				waitingSamples++;
+				break;
+			default:
+				return;
+			}
+
+			final String lockName = info.getLockName() != null ? info.getLockName() : "(parked)";
+			final Integer previous = lockSamples.get(lockName);
+			lockSamples.put(lockName, previous == null ? 1 : previous + 1);
+		}
+
+		synchronized void addThreadTotals(ThreadInfo info) {
+			blockedCount += info.getBlockedCount();
+			blockedTimeMillis += Math.max(0, info.getBlockedTime());
+		}
+
+		String getTopLock() {
+			String topLock = "none";
+			int topSamples = 0;
+			for (Entry<String, Integer> entry : lockSamples.entrySet()) {
+				if (entry.getValue() > topSamples) {
+					topLock = entry.getKey();
+					topSamples = entry.getValue();
+				}
+			}
+
+			return topLock;
+		}
+
+		@Override
+		public String toString() {
+			final double sampleCount = Math.max(1, samples);
+			return String.format("blocked %.1f%%, waiting %.1f%% of samples, %d blocks (%d ms), top lock: %s",
+					blockedSamples * 100 / sampleCount, waitingSamples * 100 / sampleCount, blockedCount,
+					blockedTimeMillis, getTopLock());
+		}
+	}
+
+	private static StrategyTable createTable() {
+		final StrategyTable table = new StrategyTable(BASE_ELEMENTS, DECORATIONS, OPERATIONS);
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new AddTotalOperationStrategy());
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getMultElementClass(),
+				new MultTotalOperationStrategy());
+		table.registerOperationStrategies(CountElementOperation.class, new CountElementOperationStrategy());
+		table.registerNullElementStrategies(ElementFactory.getIgnoreElementDecoratorClass());
+		return table;
+	}
+
+	private static List<Element> createElements() {
+		final List<Element> elements = new ArrayList<Element>(ELEMENTS);
+		for (int i = 0; i < ELEMENTS; i++) {
+			final Element base = i % 2 == 0 ? ElementFactory.createAddElement(i % 100) : ElementFactory
+					.createMultElement(i % 7);
+			elements.add(i % 5 == 0 ? ElementFactory.addReverseDecoration(base) : i % 5 == 1 ? ElementFactory
+					.addIgnoreDecoration(base) : base);
+		}
+
+		return elements;
+	}
+
+	private static long runThreads(final Scenario scenario, final StrategyTable table, final List<Element> elements,
+			int threadCount, final ContentionProfile profile) throws InterruptedException {
+		final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		final AtomicBoolean started = new AtomicBoolean();
+		final Thread[] threads = new Thread[threadCount];
+		final long[] threadIds = new long[threadCount];
+
+		for (int i = 0; i < threadCount; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					/*
+					 * Workers spin rather than wait on a latch so that waking
+					 * up does not show up as contention in the samples.
+					 */
+					while (!started.get()) {
+						Thread.yield();
+					}
+
+					scenario.run(table, elements);
+					profile.addThreadTotals(threadBean.getThreadInfo(Thread.currentThread().getId()));
+				}
+			}, "worker-" + i);
+			threads[i].start();
+			threadIds[i] = threads[i].getId();
+		}
+
+		final long startTime = System.nanoTime();
+		started.set(true);
+
+		while (isAnyAlive(threads)) {
+			for (ThreadInfo info : threadBean.getThreadInfo(threadIds)) {
+				if (info != null)
+					profile.sample(info);
+			}
+
+			Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		return System.nanoTime() - startTime;
+	}
+
+	private static boolean isAnyAlive(Thread[] threads) {
+		for (Thread thread : threads) {
+			if (thread.isAlive())
+				return true;
+		}
+
+		return false;
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		final int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime()
+				.availableProcessors();
+
+		final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if (threadBean.isThreadContentionMonitoringSupported())
+			threadBean.setThreadContentionMonitoringEnabled(true);
+
+		final List<Element> elements = createElements();
+		for (Scenario scenario : Scenario.values()) {
+			final StrategyTable table = createTable();
+
+			/*
+			 * The first run warms up the code and is timed again as the
+			 * single-threaded reference.
+			 */
+			runThreads(scenario, table, elements, 1, new ContentionProfile());
+			final long singleThreadTime = runThreads(scenario, table, elements, 1, new ContentionProfile());
+
+			for (int threadCount = 1; threadCount <= maxThreads; threadCount = nextThreadCount(threadCount,
+					maxThreads)) {
+				final ContentionProfile profile = new ContentionProfile();
+				final long executionTime = runThreads(scenario, table, elements, threadCount, profile);
+				final double efficiency = (double) singleThreadTime / executionTime;
+				final double throughput = (double) threadCount * DISPATCHES_PER_THREAD * 1e9 / executionTime;
+
+				System.out.printf("%s, Threads: %d, Execution time: %d ms, Throughput: %,.0f dispatches/s,"
+						+ " Efficiency: %.0f%%\n\t%s\n", scenario, threadCount,
+						TimeUnit.MILLISECONDS.convert(executionTime, TimeUnit.NANOSECONDS), throughput,
+						efficiency * 100, profile);
+			}
+		}
+	}
+
+	private static int nextThreadCount(int threadCount, int maxThreads) {
+		return threadCount < maxThreads && threadCount * 2 > maxThreads ? maxThreads : threadCount * 2;
+	}
+}
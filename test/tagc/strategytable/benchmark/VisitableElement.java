@@ -0,0 +1,186 @@
+package tagc.strategytable.benchmark;
+
+/**
+ * A classic double-dispatch Visitor version of the demonstration's element
+ * hierarchy, used as a baseline for strategy table dispatch.
+ * <p>
+ * Elements mirror the add, multiply, ignore and reverse elements, plus the
+ * benchmark's offset and scale elements, and visitors find the total or count
+ * of elements in the same way that the benchmark's strategy tables are
+ * configured to.
+ *
+ * @author David
+ */
+abstract class VisitableElement {
+
+	interface Visitor {
+		void visitAdd(Add element);
+
+		void visitMult(Mult element);
+
+		void visitOffset(Offset element);
+
+		void visitScale(Scale element);
+
+		void visitIgnore(Ignore element);
+
+		void visitReverse(Reverse element);
+	}
+
+	abstract void accept(Visitor visitor);
+
+	static final class Add extends VisitableElement {
+		final int value;
+
+		Add(int value) {
+			this.value = value;
+		}
+
+		@Override
+		void accept(Visitor visitor) {
+			visitor.visitAdd(this);
+		}
+	}
+
+	static final class Mult extends VisitableElement {
+		final int value;
+
+		Mult(int value) {
+			this.value = value;
+		}
+
+		@Override
+		void accept(Visitor visitor) {
+			visitor.visitMult(this);
+		}
+	}
+
+	static final class Offset extends VisitableElement {
+		final int value;
+
+		Offset(int value) {
+			this.value = value;
+		}
+
+		@Override
+		void accept(Visitor visitor) {
+			visitor.visitOffset(this);
+		}
+	}
+
+	static final class Scale extends VisitableElement {
+		final int value;
+
+		Scale(int value) {
+			this.value = value;
+		}
+
+		@Override
+		void accept(Visitor visitor) {
+			visitor.visitScale(this);
+		}
+	}
+
+	static final class Ignore extends VisitableElement {
+		final VisitableElement decoratee;
+
+		Ignore(VisitableElement decoratee) {
+			this.decoratee = decoratee;
+		}
+
+		@Override
+		void accept(Visitor visitor) {
+			visitor.visitIgnore(this);
+		}
+	}
+
+	static final class Reverse extends VisitableElement {
+		final VisitableElement decoratee;
+
+		Reverse(VisitableElement decoratee) {
+			this.decoratee = decoratee;
+		}
+
+		@Override
+		void accept(Visitor visitor) {
+			visitor.visitReverse(this);
+		}
+	}
+
+	/*
+	 * Reversal flips the sign of the wrapped element's value, and ignored
+	 * elements contribute nothing however deeply they are wrapped.
+	 */
+	static final class TotalVisitor implements Visitor {
+		int total;
+		private int sign = 1;
+
+		@Override
+		public void visitAdd(Add element) {
+			total += sign * element.value;
+		}
+
+		@Override
+		public void visitMult(Mult element) {
+			total *= sign * element.value;
+		}
+
+		@Override
+		public void visitOffset(Offset element) {
+			total += sign * element.value;
+		}
+
+		@Override
+		public void visitScale(Scale element) {
+			total *= sign * element.value;
+		}
+
+		@Override
+		public void visitIgnore(Ignore element) {
+		}
+
+		@Override
+		public void visitReverse(Reverse element) {
+			sign = -sign;
+			element.decoratee.accept(this);
+			sign = -sign;
+		}
+	}
+
+	/*
+	 * Every element is counted except those whose outermost decoration is an
+	 * ignore decoration.
+	 */
+	static final class CountVisitor implements Visitor {
+		int count;
+
+		@Override
+		public void visitAdd(Add element) {
+			count++;
+		}
+
+		@Override
+		public void visitMult(Mult element) {
+			count++;
+		}
+
+		@Override
+		public void visitOffset(Offset element) {
+			count++;
+		}
+
+		@Override
+		public void visitScale(Scale element) {
+			count++;
+		}
+
+		@Override
+		public void visitIgnore(Ignore element) {
+		}
+
+		@Override
+		public void visitReverse(Reverse element) {
+			count++;
+		}
+	}
+}
@@ -0,0 +1,203 @@
+package tagc.strategytable.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.element.ElementFactory;
+import tagc.strategytable.operation.CountElementOperation;
+import tagc.strategytable.operation.FindTotalOperation;
+import tagc.strategytable.operation.Operation;
+
+/**
+ * Describes a synthetic workload: the elements a collection is made of and
+ * the mix of operations applied to it.
+ * <p>
+ * Workloads are generated from a seed, so the same workload always produces
+ * the same elements and operations and runs can be compared with each other.
+ *
+ * @author David
+ */
+public final class Workload {
+
+	/**
+	 * The distributions that element values can be drawn from.
+	 */
+	public enum ValueDistribution {
+		/** Values drawn evenly from {@code [0, maxValue)}. */
+		UNIFORM {
+			@Override
+			int nextValue(Random random, int maxValue) {
+				return random.nextInt(maxValue);
+			}
+		},
+		/** Mostly small values, with a long tail up to {@code maxValue}. */
+		SKEWED {
+			@Override
+			int nextValue(Random random, int maxValue) {
+				final double u = random.nextDouble();
+				return (int) (u * u * u * maxValue);
+			}
+		},
+		/** The same value for every element. */
+		CONSTANT {
+			@Override
+			int nextValue(Random random, int maxValue) {
+				return maxValue;
+			}
+		};
+
+		abstract int nextValue(Random random, int maxValue);
+	}
+
+	private final String name;
+	private final int collectionSize;
+	private final double addElementRatio;
+	private final ValueDistribution valueDistribution;
+	private final int maxValue;
+	private final int[] depthWeights;
+	private final double ignoreDecorationRatio;
+	private final double totalOperationRatio;
+	private final long seed;
+
+	/**
+	 * Creates a workload.
+	 *
+	 * @param name
+	 *            the name results for this workload are reported under
+	 * @param collectionSize
+	 *            the number of elements in the collection
+	 * @param addElementRatio
+	 *            the fraction of base elements that are {@code AddElement}s
+	 *            rather than {@code MultElement}s
+	 * @param valueDistribution
+	 *            the distribution element values are drawn from
+	 * @param maxValue
+	 *            the largest value (exclusive for random distributions)
+	 * @param depthWeights
+	 *            the relative weights of each decoration depth, starting from
+	 *            undecorated elements
+	 * @param ignoreDecorationRatio
+	 *            the fraction of decorations that are ignore rather than
+	 *            reverse decorations
+	 * @param totalOperationRatio
+	 *            the fraction of passes that find the total rather than count
+	 *            the elements
+	 * @param seed
+	 *            the seed elements and operations are generated from
+	 * @throws IllegalArgumentException
+	 *             if any ratio is outside {@code [0, 1]}, the collection size
+	 *             is negative, {@code maxValue} is not positive or there are no
+	 *             positive depth weights
+	 */
+	public Workload(String name, int collectionSize, double addElementRatio, ValueDistribution valueDistribution,
+			int maxValue, int[] depthWeights, double ignoreDecorationRatio, double totalOperationRatio, long seed) {
+		if (name == null || valueDistribution == null || depthWeights == null)
+			throw new NullPointerException("The name, value distribution and depth weights cannot be null");
+
+		if (collectionSize < 0 || maxValue <= 0)
+			throw new IllegalArgumentException("The collection size cannot be negative and the maximum value must be"
+					+ " positive");
+
+		if (!isRatio(addElementRatio) || !isRatio(ignoreDecorationRatio) || !isRatio(totalOperationRatio))
+			throw new IllegalArgumentException("Ratios must be between 0 and 1");
+
+		int totalWeight = 0;
+		for (int weight : depthWeights) {
+			if (weight < 0)
+				throw new IllegalArgumentException("Depth weights cannot be negative");
+
+			totalWeight += weight;
+		}
+
+		if (totalWeight == 0)
+			throw new IllegalArgumentException("At least one depth weight must be positive");
+
+		this.name = name;
+		this.collectionSize = collectionSize;
+		this.addElementRatio = addElementRatio;
+		this.valueDistribution = valueDistribution;
+		this.maxValue = maxValue;
+		this.depthWeights = depthWeights.clone();
+		this.ignoreDecorationRatio = ignoreDecorationRatio;
+		this.totalOperationRatio = totalOperationRatio;
+		this.seed = seed;
+	}
+
+	private static boolean isRatio(double ratio) {
+		return ratio >= 0 && ratio <= 1;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getCollectionSize() {
+		return collectionSize;
+	}
+
+	/**
+	 * Generates the elements of this workload's collection.
+	 *
+	 * @return a new list of elements
+	 */
+	public List<Element> createElements() {
+		final Random random = new Random(seed);
+		final List<Element> elements = new ArrayList<Element>(collectionSize);
+		for (int i = 0; i < collectionSize; i++) {
+			final int value = valueDistribution.nextValue(random, maxValue);
+			Element element = random.nextDouble() < addElementRatio ? ElementFactory.createAddElement(value)
+					: ElementFactory.createMultElement(value);
+
+			final int depth = nextDepth(random);
+			for (int j = 0; j < depth; j++) {
+				element = random.nextDouble() < ignoreDecorationRatio ? ElementFactory.addIgnoreDecoration(element)
+						: ElementFactory.addReverseDecoration(element);
+			}
+
+			elements.add(element);
+		}
+
+		return elements;
+	}
+
+	/**
+	 * Generates the operations to apply in each pass over the collection.
+	 *
+	 * @param passes
+	 *            the number of passes
+	 * @return a new list of operations, one for each pass
+	 */
+	public List<Operation<?, ?>> createOperations(int passes) {
+		final Random random = new Random(~seed);
+		final List<Operation<?, ?>> operations = new ArrayList<Operation<?, ?>>(passes);
+		for (int i = 0; i < passes; i++) {
+			operations.add(random.nextDouble() < totalOperationRatio ? new FindTotalOperation()
+					: new CountElementOperation());
+		}
+
+		return operations;
+	}
+
+	private int nextDepth(Random random) {
+		int totalWeight = 0;
+		for (int weight : depthWeights) {
+			totalWeight += weight;
+		}
+
+		int choice = random.nextInt(totalWeight);
+		for (int depth = 0; depth < depthWeights.length; depth++) {
+			choice -= depthWeights[depth];
+			if (choice < 0)
+				return depth;
+		}
+
+		throw new AssertionError("A depth should always be chosen");
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s (%d elements, %s values)", name, collectionSize, valueDistribution);
+	}
+}
@@ -0,0 +1,128 @@
+package tagc.strategytable.element;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import tagc.strategytable.monitoring.ObjectLayout;
+import tagc.strategytable.operation.CountElementOperation;
+import tagc.strategytable.operation.FindTotalOperation;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.strategy.AddTotalOperationStrategy;
+import tagc.strategytable.strategy.CountElementOperationStrategy;
+import tagc.strategytable.strategy.MultTotalOperationStrategy;
+import tagc.strategytable.table.StrategyTable;
+
+/*
+ * Compares footprint estimates with the growth of the used heap while many
+ * copies of the estimated structure are held, so that the few bytes of noise
+ * from collecting garbage are negligible. Cached elements left behind by other
+ * tests can be reclaimed at any time, so the element factory's caches are
+ * excluded from the heap using their own estimate.
+ */
+public class ElementFootprintTest {
+
+	private static final int COPIES = 200000;
+	private static final int TABLE_COPIES = 2000;
+	private static final double TOLERANCE = 0.10;
+
+	private static final int MAX_COLLECTIONS = 30;
+	private static final long COLLECTION_PAUSE_MILLIS = 20;
+	private static final long SETTLED_HEAP_CHANGE = 1024;
+	private static final int SETTLED_COLLECTIONS = 5;
+
+	/*
+	 * Objects left behind by other tests, such as those waiting on reference
+	 * processing, can take several collections to be reclaimed, so collections
+	 * are repeated until the used heap settles.
+	 */
+	private static long getUsedHeap() throws InterruptedException {
+		final Runtime runtime = Runtime.getRuntime();
+		long previous = Long.MAX_VALUE;
+		int settledCollections = 0;
+		for (int i = 0; i < MAX_COLLECTIONS && settledCollections < SETTLED_COLLECTIONS; i++) {
+			System.gc();
+			Thread.sleep(COLLECTION_PAUSE_MILLIS);
+
+			final long used = runtime.totalMemory() - runtime.freeMemory() - ElementFootprint.estimateFactoryCaches();
+			settledCollections = Math.abs(previous - used) < SETTLED_HEAP_CHANGE ? settledCollections + 1 : 0;
+			previous = used;
+		}
+
+		return previous;
+	}
+
+	private static void assertWithinTolerance(long expected, long actual) {
+		assertEquals("Estimated " + expected + " bytes but measured " + actual, 1.0, (double) expected / actual,
+				TOLERANCE);
+	}
+
+	@Test
+	public void decoratedElementEstimatesShouldMatchHeapGrowth() throws InterruptedException {
+		final long before = getUsedHeap();
+		final Element[] elements = new Element[COPIES];
+		for (int i = 0; i < COPIES; i++) {
+			final Element base = i % 2 == 0 ? new AddElement(i) : new MultElement(i);
+			elements[i] = ElementFactory.addIgnoreDecoration(ElementFactory.addReverseDecoration(base));
+		}
+		final long measured = getUsedHeap() - before;
+
+		assertWithinTolerance(ElementFootprint.estimateElements(Arrays.asList(elements)), measured);
+	}
+
+	@Test
+	public void sharedElementsShouldOnlyBeCountedOnce() {
+		final Element base = new AddElement(7);
+		final List<Element> elements = new ArrayList<Element>();
+		for (int i = 0; i < 10; i++) {
+			elements.add(ElementFactory.addReverseDecoration(base));
+		}
+
+		final long expected = ObjectLayout.shallowSizeOf(ArrayList.class)
+				+ ObjectLayout.arraySizeOf(Element.class, elements.size()) + 10
+				* ObjectLayout.shallowSizeOf(ReverseElementDecorator.class)
+				+ ObjectLayout.shallowSizeOf(AddElement.class);
+		assertEquals(expected, ElementFootprint.estimateElements(elements));
+		assertEquals(ObjectLayout.shallowSizeOf(ReverseElementDecorator.class)
+				+ ObjectLayout.shallowSizeOf(AddElement.class), ElementFootprint.estimateElement(elements.get(0)));
+	}
+
+	@Test
+	public void tableEstimatesShouldMatchHeapGrowth() throws InterruptedException {
+		final Set<Class<? extends Element>> baseElements = new HashSet<Class<? extends Element>>(Arrays.asList(
+				ElementFactory.getAddElementClass(), ElementFactory.getMultElementClass()));
+		final Set<Class<? extends Element>> decorations = new HashSet<Class<? extends Element>>(Arrays.asList(
+				ElementFactory.getIgnoreElementDecoratorClass(), ElementFactory.getReverseElementDecoratorClass()));
+		final Set<Class<? extends Operation<?, ?>>> operations = new HashSet<Class<? extends Operation<?, ?>>>(
+				Arrays.asList(FindTotalOperation.class, CountElementOperation.class));
+
+		final long before = getUsedHeap();
+		final StrategyTable[] tables = new StrategyTable[TABLE_COPIES];
+		for (int i = 0; i < TABLE_COPIES; i++) {
+			tables[i] = new StrategyTable(baseElements, decorations, operations);
+			tables[i].registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+					new AddTotalOperationStrategy());
+			tables[i].registerOperationStrategy(FindTotalOperation.class, ElementFactory.getMultElementClass(),
+					new MultTotalOperationStrategy());
+			tables[i].registerOperationStrategies(CountElementOperation.class, new CountElementOperationStrategy());
+		}
+		final long measured = getUsedHeap() - before;
+
+		/*
+		 * Every table refers to the same set of decorated element types, which
+		 * is counted in every table's estimate but only allocated once.
+		 */
+		final long sharedSet = ObjectLayout.shallowSizeOf(HashSet.class) + ObjectLayout.shallowSizeOf(HashMap.class)
+				+ ObjectLayout.hashTableSizeOf(decorations.size());
+		final long estimated = ObjectLayout.arraySizeOf(StrategyTable.class, TABLE_COPIES) + TABLE_COPIES
+				* (tables[0].estimateFootprint() - sharedSet);
+		assertWithinTolerance(estimated, measured);
+	}
+}
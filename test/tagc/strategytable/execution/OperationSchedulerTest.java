@@ -0,0 +1,243 @@
+package tagc.strategytable.execution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.element.ElementFactory;
+import tagc.strategytable.operation.ConcurrentCountElementOperation;
+import tagc.strategytable.operation.CountElementOperation;
+import tagc.strategytable.operation.FindTotalOperation;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.strategy.AddTotalOperationStrategy;
+import tagc.strategytable.strategy.ConcurrentCountElementOperationStrategy;
+import tagc.strategytable.strategy.CountElementOperationStrategy;
+import tagc.strategytable.strategy.MultTotalOperationStrategy;
+import tagc.strategytable.strategy.Strategy;
+import tagc.strategytable.table.StrategyTable;
+import tagc.strategytable.table.StrategyTablePolicy;
+
+public class OperationSchedulerTest {
+
+	private static final Set<Class<? extends Element>> BASE_ELEMENTS = new HashSet<Class<? extends Element>>(
+			Arrays.asList(ElementFactory.getAddElementClass(), ElementFactory.getMultElementClass()));
+
+	private static final Set<Class<? extends Element>> DECORATIONS = new HashSet<Class<? extends Element>>(
+			Arrays.asList(ElementFactory.getIgnoreElementDecoratorClass(),
+					ElementFactory.getReverseElementDecoratorClass()));
+
+	private static final Set<Class<? extends Operation<?, ?>>> OPERATIONS = new HashSet<Class<? extends Operation<?, ?>>>(
+			Arrays.asList(FindTotalOperation.class, CountElementOperation.class,
+					ConcurrentCountElementOperation.class));
+
+	private static final long PRIORITY_TIMEOUT_MILLIS = 10000;
+
+	private StrategyTable table;
+
+	@Before
+	public void setUp() {
+		table = new StrategyTable(BASE_ELEMENTS, DECORATIONS, OPERATIONS);
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new AddTotalOperationStrategy());
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getMultElementClass(),
+				new MultTotalOperationStrategy());
+		table.registerOperationStrategies(CountElementOperation.class, new CountElementOperationStrategy());
+		table.registerOperationStrategies(ConcurrentCountElementOperation.class,
+				new ConcurrentCountElementOperationStrategy());
+	}
+
+	@Test
+	public void submissionsFromManyThreadsShouldAllBeAppliedByFlush() throws Exception {
+		final int producerCount = 4;
+		final int submissionsPerProducer = 5000;
+		final FindTotalOperation total = new FindTotalOperation();
+		final CountElementOperation count = new CountElementOperation();
+
+		try (OperationScheduler scheduler = new OperationScheduler(table, 256, 1, TimeUnit.SECONDS)) {
+			final Thread[] producers = new Thread[producerCount];
+			for (int i = 0; i < producerCount; i++) {
+				producers[i] = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						for (int j = 0; j < submissionsPerProducer; j++) {
+							final Element element = j % 2 == 0 ? ElementFactory.createAddElement(2) : ElementFactory
+									.createMultElement(1);
+							scheduler.submit(total, element);
+							scheduler.submit(count, element);
+						}
+					}
+				});
+				producers[i].start();
+			}
+
+			for (Thread producer : producers) {
+				producer.join();
+			}
+			scheduler.flush();
+
+			final int submissions = producerCount * submissionsPerProducer;
+			assertEquals(submissions, count.getCount());
+			assertEquals(Integer.valueOf(submissions), total.get());
+		}
+	}
+
+	@Test
+	public void queuedSubmissionsShouldBeCoalescedIntoFullBatches() throws Exception {
+		final int maxBatchSize = 64;
+		final int producerCount = 4;
+		final int submissionsPerProducer = 1000;
+		final CountDownLatch blocked = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		final StrategyTable blockingTable = new StrategyTable(BASE_ELEMENTS, DECORATIONS, OPERATIONS);
+		blockingTable.registerOperationStrategies(CountElementOperation.class, new CountElementOperationStrategy());
+		blockingTable.registerOperationStrategies(ConcurrentCountElementOperation.class,
+				new Strategy<ConcurrentCountElementOperation>() {
+					@Override
+					public void execute(ConcurrentCountElementOperation operation, Element element,
+							int decorationLevel, StrategyTable table) {
+						blocked.countDown();
+						try {
+							release.await();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+				});
+
+		final CountElementOperation count = new CountElementOperation();
+		try (OperationScheduler scheduler = new OperationScheduler(blockingTable, maxBatchSize, 1, TimeUnit.HOURS)) {
+			// Park the worker so that every submission is queued before it drains any
+			scheduler.submitPriority(new ConcurrentCountElementOperation(), ElementFactory.createAddElement(1));
+			assertTrue(blocked.await(PRIORITY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+			final Thread[] producers = new Thread[producerCount];
+			for (int i = 0; i < producerCount; i++) {
+				producers[i] = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						for (int j = 0; j < submissionsPerProducer; j++) {
+							scheduler.submit(count, ElementFactory.createAddElement(1));
+						}
+					}
+				});
+				producers[i].start();
+			}
+
+			for (Thread producer : producers) {
+				producer.join();
+			}
+			release.countDown();
+			scheduler.flush();
+
+			final int submissions = producerCount * submissionsPerProducer;
+			assertEquals(submissions, count.getCount());
+			final int normalBatches = (submissions + maxBatchSize - 1) / maxBatchSize;
+			assertEquals(1 + normalBatches, scheduler.getBatchCount());
+		}
+	}
+
+	@Test
+	public void submissionsAcceptedBeforeCloseShouldAllBeApplied() throws Exception {
+		final int producerCount = 4;
+		final ConcurrentCountElementOperation count = new ConcurrentCountElementOperation();
+		final AtomicInteger accepted = new AtomicInteger();
+		final Element element = ElementFactory.createAddElement(1);
+
+		final OperationScheduler scheduler = new OperationScheduler(table, 256, 1, TimeUnit.HOURS);
+		final Thread[] producers = new Thread[producerCount];
+		for (int i = 0; i < producerCount; i++) {
+			producers[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						while (true) {
+							scheduler.submit(count, element);
+							accepted.incrementAndGet();
+						}
+					} catch (IllegalStateException e) {
+						// Closed
+					}
+				}
+			});
+			producers[i].start();
+		}
+
+		while (accepted.get() < 10000) {
+			Thread.yield();
+		}
+		scheduler.close();
+		for (Thread producer : producers) {
+			producer.join();
+		}
+
+		assertEquals(accepted.get(), count.sum());
+	}
+
+	@Test
+	public void priorityLaneShouldNotWaitForBatchToFill() throws Exception {
+		final ConcurrentCountElementOperation normal = new ConcurrentCountElementOperation();
+		final ConcurrentCountElementOperation priority = new ConcurrentCountElementOperation();
+		final Element element = ElementFactory.createAddElement(1);
+
+		try (OperationScheduler scheduler = new OperationScheduler(table, 1000, 1, TimeUnit.HOURS)) {
+			scheduler.submit(normal, element);
+			scheduler.submitPriority(priority, element);
+
+			final long deadline = System.currentTimeMillis() + PRIORITY_TIMEOUT_MILLIS;
+			while (priority.sum() == 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(1);
+			}
+
+			assertEquals(1, priority.sum());
+			assertEquals(0, normal.sum());
+
+			scheduler.flush();
+			assertEquals(1, normal.sum());
+		}
+	}
+
+	@Test
+	public void failuresShouldBeReportedByNextFlush() throws Exception {
+		final StrategyTable strictTable = new StrategyTable(BASE_ELEMENTS, DECORATIONS, OPERATIONS,
+				StrategyTablePolicy.STRICT);
+		strictTable.registerOperationStrategies(CountElementOperation.class, new CountElementOperationStrategy());
+
+		final CountElementOperation count = new CountElementOperation();
+		try (OperationScheduler scheduler = new OperationScheduler(strictTable, 16, 0, TimeUnit.MILLISECONDS)) {
+			scheduler.submit(new FindTotalOperation(), ElementFactory.createAddElement(1));
+			scheduler.submit(count, ElementFactory.createAddElement(1));
+
+			try {
+				scheduler.flush();
+				fail("Expected the missing strategy to be reported");
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof UnsupportedOperationException);
+			}
+
+			assertEquals(1, count.getCount());
+			scheduler.submit(count, ElementFactory.createAddElement(1));
+			scheduler.flush();
+			assertEquals(2, count.getCount());
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void closedSchedulerShouldRejectSubmissions() {
+		final OperationScheduler scheduler = new OperationScheduler(table, 16, 1, TimeUnit.MILLISECONDS);
+		scheduler.close();
+		scheduler.submit(new CountElementOperation(), ElementFactory.createAddElement(1));
+	}
+}
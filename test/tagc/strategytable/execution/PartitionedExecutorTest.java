@@ -0,0 +1,188 @@
+package tagc.strategytable.execution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.element.ElementFactory;
+import tagc.strategytable.operation.CountElementOperation;
+import tagc.strategytable.operation.FindTotalOperation;
+import tagc.strategytable.operation.InvertibleOperation;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.strategy.AddTotalOperationStrategy;
+import tagc.strategytable.strategy.AdditiveStrategy;
+import tagc.strategytable.strategy.CountElementOperationStrategy;
+import tagc.strategytable.strategy.MultTotalOperationStrategy;
+import tagc.strategytable.table.StrategyTable;
+import tagc.strategytable.table.StrategyTableFactory;
+
+public class PartitionedExecutorTest {
+
+	private static final String CRASH_MARKER_PROPERTY = "tagc.strategytable.crashMarker";
+
+	private static final Set<Class<? extends Element>> BASE_ELEMENTS = new HashSet<Class<? extends Element>>(
+			Arrays.asList(ElementFactory.getAddElementClass(), ElementFactory.getMultElementClass()));
+
+	private static final Set<Class<? extends Element>> DECORATIONS = new HashSet<Class<? extends Element>>(
+			Arrays.asList(ElementFactory.getIgnoreElementDecoratorClass(),
+					ElementFactory.getReverseElementDecoratorClass()));
+
+	private static final Set<Class<? extends Operation<?, ?>>> OPERATIONS = new HashSet<Class<? extends Operation<?, ?>>>(
+			Arrays.asList(FindTotalOperation.class, CountElementOperation.class));
+
+	public static class AdditiveTableFactory implements StrategyTableFactory {
+		@Override
+		public StrategyTable createTable() {
+			final StrategyTable table = new StrategyTable(BASE_ELEMENTS, DECORATIONS, OPERATIONS);
+			table.registerOperationStrategies(FindTotalOperation.class, new AddTotalOperationStrategy());
+			table.registerOperationStrategies(CountElementOperation.class, new CountElementOperationStrategy());
+			table.registerNullElementStrategies(ElementFactory.getIgnoreElementDecoratorClass());
+			return table;
+		}
+	}
+
+	/*
+	 * Kills its worker process the first time it counts an element while the
+	 * crash marker file exists.
+	 */
+	public static class CrashingTableFactory extends AdditiveTableFactory {
+		@Override
+		public StrategyTable createTable() {
+			final StrategyTable table = super.createTable();
+			final File marker = new File(System.getProperty(CRASH_MARKER_PROPERTY));
+			table.registerOperationStrategy(CountElementOperation.class, ElementFactory.getAddElementClass(),
+					new AdditiveStrategy<CountElementOperation>() {
+						@Override
+						public void execute(CountElementOperation operation, Element element, int decorationLevel,
+								StrategyTable table) {
+							if (marker.delete())
+								Runtime.getRuntime().halt(1);
+
+							operation.store(operation.get() + 1);
+						}
+					});
+			return table;
+		}
+	}
+
+	public static class MultiplyingTableFactory extends AdditiveTableFactory {
+		@Override
+		public StrategyTable createTable() {
+			final StrategyTable table = super.createTable();
+			table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getMultElementClass(),
+					new MultTotalOperationStrategy());
+			return table;
+		}
+	}
+
+	private PartitionedExecutor executor;
+
+	private static List<Element> createElements(int count) {
+		final Random random = new Random(42);
+		final List<Element> elements = new ArrayList<Element>();
+		for (int i = 0; i < count; i++) {
+			Element e = ElementFactory.createAddElement(random.nextInt(100));
+			if (random.nextInt(4) == 0)
+				e = ElementFactory.addReverseDecoration(e);
+
+			if (random.nextInt(8) == 0)
+				e = ElementFactory.addIgnoreDecoration(e);
+
+			elements.add(e);
+		}
+
+		return elements;
+	}
+
+	private static void assertMatchesLocalExecution(List<Element> elements, FindTotalOperation total,
+			CountElementOperation count) {
+		final StrategyTable table = new AdditiveTableFactory().createTable();
+		final FindTotalOperation localTotal = new FindTotalOperation();
+		final CountElementOperation localCount = new CountElementOperation();
+		table.operateOverCollection(localTotal, elements);
+		table.operateOverCollection(localCount, elements);
+
+		assertEquals(localTotal.get(), total.get());
+		assertEquals(localCount.get(), count.get());
+	}
+
+	@Test
+	public void partitionedExecutionShouldMatchLocalExecution() {
+		executor = new PartitionedExecutor(AdditiveTableFactory.class, 2);
+		executor.setShardSize(1000);
+
+		final List<Element> elements = createElements(10000);
+		final FindTotalOperation total = new FindTotalOperation();
+		final CountElementOperation count = new CountElementOperation();
+		executor.operateOverCollection(Arrays.<InvertibleOperation<?>> asList(total, count), elements);
+
+		assertMatchesLocalExecution(elements, total, count);
+	}
+
+	@Test
+	public void shardsShouldBeRetriedWhenWorkerDies() throws IOException {
+		final File marker = File.createTempFile("crash", ".marker");
+		marker.deleteOnExit();
+
+		executor = new PartitionedExecutor(CrashingTableFactory.class, 2);
+		executor.setShardSize(500);
+		executor.setJvmArguments(Arrays.asList("-D" + CRASH_MARKER_PROPERTY + "=" + marker.getAbsolutePath()));
+
+		final List<Element> elements = createElements(2000);
+		final FindTotalOperation total = new FindTotalOperation();
+		final CountElementOperation count = new CountElementOperation();
+		executor.operateOverCollection(Arrays.<InvertibleOperation<?>> asList(total, count), elements);
+
+		assertEquals(false, marker.exists());
+		assertMatchesLocalExecution(elements, total, count);
+	}
+
+	@Test(expected = PartitionedExecutionException.class)
+	public void strategyFailureInWorkerShouldBeReported() {
+		executor = new PartitionedExecutor(AdditiveTableFactory.class, 1);
+		final Element reversedIgnoredElement = ElementFactory.addReverseDecoration(ElementFactory
+				.addIgnoreDecoration(ElementFactory.createAddElement(1)));
+
+		executor.operateOverCollection(new FindTotalOperation(), Arrays.asList(reversedIgnoredElement));
+	}
+
+	@Test
+	public void operationsWithNonAdditiveStrategiesShouldBeRejected() {
+		executor = new PartitionedExecutor(MultiplyingTableFactory.class, 2);
+		executor.setShardSize(2);
+
+		final List<Element> elements = Arrays.asList(ElementFactory.createAddElement(1),
+				ElementFactory.createAddElement(2), ElementFactory.createMultElement(3),
+				ElementFactory.createAddElement(4));
+		final FindTotalOperation total = new FindTotalOperation();
+		final CountElementOperation count = new CountElementOperation();
+		try {
+			executor.operateOverCollection(Arrays.<InvertibleOperation<?>> asList(count, total), elements);
+			fail("Expected the multiplication strategy to be rejected");
+		} catch (PartitionedExecutionException e) {
+			assertEquals(Integer.valueOf(0), total.get());
+		}
+
+		executor.operateOverCollection(count, elements);
+		assertEquals(4, count.getCount());
+	}
+
+	@After
+	public void tearDown() {
+		if (executor != null)
+			executor.close();
+	}
+}
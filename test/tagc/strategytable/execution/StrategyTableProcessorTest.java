@@ -0,0 +1,192 @@
+package tagc.strategytable.execution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.element.ElementFactory;
+import tagc.strategytable.operation.CountElementOperation;
+import tagc.strategytable.operation.FindElementOperation;
+import tagc.strategytable.operation.FindTotalOperation;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.strategy.AddTotalOperationStrategy;
+import tagc.strategytable.strategy.CountElementOperationStrategy;
+import tagc.strategytable.strategy.Strategy;
+import tagc.strategytable.table.StrategyTable;
+
+public class StrategyTableProcessorTest {
+
+	private static final Set<Class<? extends Element>> BASE_ELEMENTS = new HashSet<Class<? extends Element>>(
+			Arrays.asList(ElementFactory.getAddElementClass(), ElementFactory.getMultElementClass()));
+
+	private static final Set<Class<? extends Element>> DECORATIONS = new HashSet<Class<? extends Element>>(
+			Arrays.asList(ElementFactory.getIgnoreElementDecoratorClass(),
+					ElementFactory.getReverseElementDecoratorClass()));
+
+	private static final Set<Class<? extends Operation<?, ?>>> OPERATIONS = new HashSet<Class<? extends Operation<?, ?>>>(
+			Arrays.asList(FindTotalOperation.class, CountElementOperation.class, FindElementOperation.class));
+
+	/*
+	 * Publishes add elements with values 1 to elementCount as they are
+	 * requested, recording the largest number of outstanding requests.
+	 */
+	private static class RangePublisher implements Flow.Publisher<Element> {
+		private final int elementCount;
+		private int published;
+		private long demand;
+		private long maxDemand;
+		private boolean emitting;
+		private boolean cancelled;
+
+		RangePublisher(int elementCount) {
+			this.elementCount = elementCount;
+		}
+
+		@Override
+		public void subscribe(final Flow.Subscriber<? super Element> subscriber) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				@Override
+				public void request(long n) {
+					demand += n;
+					maxDemand = Math.max(maxDemand, demand);
+					if (emitting)
+						return;
+
+					emitting = true;
+					while (demand > 0 && published < elementCount && !cancelled) {
+						demand--;
+						subscriber.onNext(ElementFactory.createAddElement(++published));
+					}
+
+					if (published == elementCount && !cancelled) {
+						cancelled = true;
+						subscriber.onComplete();
+					}
+					emitting = false;
+				}
+
+				@Override
+				public void cancel() {
+					cancelled = true;
+				}
+			});
+		}
+	}
+
+	private static class RecordingSubscriber implements Flow.Subscriber<OperationSnapshot> {
+		private final long initialRequest;
+		private final List<OperationSnapshot> snapshots = new ArrayList<OperationSnapshot>();
+		private Flow.Subscription subscription;
+		private boolean complete;
+
+		RecordingSubscriber(long initialRequest) {
+			this.initialRequest = initialRequest;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			subscription.request(initialRequest);
+		}
+
+		@Override
+		public void onNext(OperationSnapshot item) {
+			snapshots.add(item);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			throw new AssertionError(throwable);
+		}
+
+		@Override
+		public void onComplete() {
+			complete = true;
+		}
+	}
+
+	private StrategyTable table;
+	private FindTotalOperation total;
+	private CountElementOperation count;
+
+	@Test
+	public void processorShouldApplyElementsWithBoundedDemand() {
+		final StrategyTableProcessor processor = new StrategyTableProcessor(table, Arrays.asList(total, count), 16,
+				100);
+		final RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+		processor.subscribe(subscriber);
+
+		final RangePublisher publisher = new RangePublisher(1000);
+		publisher.subscribe(processor);
+
+		assertTrue(publisher.maxDemand <= 16);
+		assertEquals(Integer.valueOf(500500), total.get());
+		assertEquals(Integer.valueOf(1000), count.get());
+		assertEquals(11, subscriber.snapshots.size());
+		assertEquals(Arrays.<Object> asList(5050, 100), subscriber.snapshots.get(0).getResults());
+		assertTrue(subscriber.complete);
+	}
+
+	@Test
+	public void slowSubscriberShouldOnlyReceiveLatestSnapshot() {
+		final StrategyTableProcessor processor = new StrategyTableProcessor(table, Arrays.asList(total, count), 16,
+				100);
+		final RecordingSubscriber subscriber = new RecordingSubscriber(1);
+		processor.subscribe(subscriber);
+		new RangePublisher(1000).subscribe(processor);
+
+		assertEquals(1, subscriber.snapshots.size());
+		assertEquals(100, subscriber.snapshots.get(0).getElementCount());
+		assertEquals(false, subscriber.complete);
+
+		subscriber.subscription.request(1);
+		assertEquals(2, subscriber.snapshots.size());
+		assertEquals(1000, subscriber.snapshots.get(1).getElementCount());
+		assertTrue(subscriber.complete);
+	}
+
+	@Test
+	public void completedOperationsShouldCancelUpstream() {
+		table.registerOperationStrategies(FindElementOperation.class, new Strategy<FindElementOperation>() {
+			@Override
+			public void execute(FindElementOperation operation, Element element, int decorationLevel,
+					StrategyTable table) {
+				if (element.getValue() == 10)
+					operation.store(element);
+			}
+		});
+
+		final FindElementOperation find = new FindElementOperation();
+		final StrategyTableProcessor processor = new StrategyTableProcessor(table, Arrays.asList(find), 16, 100);
+		final RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+		processor.subscribe(subscriber);
+
+		final RangePublisher publisher = new RangePublisher(1000);
+		publisher.subscribe(processor);
+
+		assertEquals(10, publisher.published);
+		assertEquals(10, find.get().getValue());
+		assertEquals(1, subscriber.snapshots.size());
+		assertEquals(10, subscriber.snapshots.get(0).getElementCount());
+		assertTrue(subscriber.complete);
+	}
+
+	@Before
+	public void setUp() {
+		table = new StrategyTable(BASE_ELEMENTS, DECORATIONS, OPERATIONS);
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new AddTotalOperationStrategy());
+		table.registerOperationStrategies(CountElementOperation.class, new CountElementOperationStrategy());
+		total = new FindTotalOperation();
+		count = new CountElementOperation();
+	}
+}
@@ -0,0 +1,92 @@
+package tagc.strategytable.operation;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.element.ElementFactory;
+import tagc.strategytable.strategy.AddTotalOperationStrategy;
+import tagc.strategytable.strategy.ConcurrentAddTotalOperationStrategy;
+import tagc.strategytable.table.StrategyTable;
+
+public class ConcurrentOperationPerformanceTest {
+
+	private static final int OPERATIONS_PER_THREAD = 20000000;
+
+	private static StrategyTable createTable() {
+		final Set<Class<? extends Element>> baseElementClassSet = new HashSet<Class<? extends Element>>(
+				Arrays.asList(ElementFactory.getAddElementClass(), ElementFactory.getMultElementClass()));
+		final Set<Class<? extends Element>> decoratedElementClassSet = new HashSet<Class<? extends Element>>(
+				Arrays.asList(ElementFactory.getIgnoreElementDecoratorClass(),
+						ElementFactory.getReverseElementDecoratorClass()));
+		final Set<Class<? extends Operation<?, ?>>> operationClassSet = new HashSet<Class<? extends Operation<?, ?>>>(
+				Arrays.<Class<? extends Operation<?, ?>>> asList(FindTotalOperation.class,
+						ConcurrentFindTotalOperation.class));
+
+		final StrategyTable table = new StrategyTable(baseElementClassSet, decoratedElementClassSet,
+				operationClassSet);
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new AddTotalOperationStrategy());
+		table.registerOperationStrategy(ConcurrentFindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new ConcurrentAddTotalOperationStrategy());
+		return table;
+	}
+
+	/*
+	 * Every thread applies the same element to one shared operation, either a
+	 * striped concurrent total or an ordinary total guarded by a lock.
+	 */
+	private static long runThreads(final StrategyTable table, int threadCount, final boolean striped)
+			throws InterruptedException {
+		final Element element = ElementFactory.createAddElement(1);
+		final FindTotalOperation lockedTotal = new FindTotalOperation();
+		final ConcurrentFindTotalOperation stripedTotal = new ConcurrentFindTotalOperation();
+
+		final Thread[] threads = new Thread[threadCount];
+		for (int i = 0; i < threadCount; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+						if (striped) {
+							table.operate(stripedTotal, element);
+						} else {
+							synchronized (lockedTotal) {
+								table.operate(lockedTotal, element);
+							}
+						}
+					}
+				}
+			});
+		}
+
+		final long startTime = System.nanoTime();
+		for (Thread thread : threads) {
+			thread.start();
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		return System.nanoTime() - startTime;
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		final StrategyTable table = createTable();
+		final int maxThreads = Runtime.getRuntime().availableProcessors();
+
+		for (boolean striped : new boolean[] { false, true }) {
+			final long singleThreadTime = runThreads(table, 1, striped);
+			for (int threadCount = 1; threadCount <= maxThreads; threadCount *= 2) {
+				final long executionTime = runThreads(table, threadCount, striped);
+				final double speedUp = (double) singleThreadTime * threadCount / executionTime;
+				System.out.printf("%s, Threads: %d, Execution time: %s ms, Speed up: %.2fx\n", striped ? "Striped"
+						: "Locked", threadCount, TimeUnit.MILLISECONDS.convert(executionTime, TimeUnit.NANOSECONDS),
+						speedUp);
+			}
+		}
+	}
+}
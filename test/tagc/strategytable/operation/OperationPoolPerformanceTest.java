@@ -0,0 +1,118 @@
+package tagc.strategytable.operation;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.element.ElementFactory;
+import tagc.strategytable.strategy.AddTotalOperationStrategy;
+import tagc.strategytable.strategy.CountElementOperationStrategy;
+import tagc.strategytable.table.StrategyTable;
+
+public class OperationPoolPerformanceTest {
+
+	private static final int REQUEST_COUNT = 10000000;
+	private static final int ELEMENTS_PER_REQUEST = 4;
+
+	private static final com.sun.management.ThreadMXBean THREAD_BEAN = (com.sun.management.ThreadMXBean) ManagementFactory
+			.getThreadMXBean();
+
+	private static StrategyTable createTable() {
+		final Set<Class<? extends Element>> baseElementClassSet = new HashSet<Class<? extends Element>>(
+				Arrays.asList(ElementFactory.getAddElementClass(), ElementFactory.getMultElementClass()));
+		final Set<Class<? extends Element>> decoratedElementClassSet = new HashSet<Class<? extends Element>>(
+				Arrays.asList(ElementFactory.getIgnoreElementDecoratorClass(),
+						ElementFactory.getReverseElementDecoratorClass()));
+		final Set<Class<? extends Operation<?, ?>>> operationClassSet = new HashSet<Class<? extends Operation<?, ?>>>(
+				Arrays.<Class<? extends Operation<?, ?>>> asList(FindTotalOperation.class,
+						CountElementOperation.class));
+
+		final StrategyTable table = new StrategyTable(baseElementClassSet, decoratedElementClassSet,
+				operationClassSet);
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new AddTotalOperationStrategy());
+		table.registerOperationStrategies(CountElementOperation.class, new CountElementOperationStrategy());
+		return table;
+	}
+
+	private static long gcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += bean.getCollectionCount();
+		}
+
+		return count;
+	}
+
+	private static long gcTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += bean.getCollectionTime();
+		}
+
+		return time;
+	}
+
+	/*
+	 * Each request finds the total and count of a small list of elements,
+	 * either with new operations or with operations borrowed from a pool.
+	 */
+	private static long handleRequests(StrategyTable table, List<Element> elements, OperationPool pool) {
+		long checksum = 0;
+		for (int i = 0; i < REQUEST_COUNT; i++) {
+			final FindTotalOperation total;
+			final CountElementOperation count;
+			if (pool == null) {
+				total = new FindTotalOperation();
+				count = new CountElementOperation();
+			} else {
+				total = pool.borrow(FindTotalOperation.class);
+				count = pool.borrow(CountElementOperation.class);
+			}
+
+			table.operateOverCollection(total, elements);
+			table.operateOverCollection(count, elements);
+			checksum += total.getTotal() + count.getCount();
+
+			if (pool != null) {
+				pool.release(total);
+				pool.release(count);
+			}
+		}
+
+		return checksum;
+	}
+
+	private static void runRequests(StrategyTable table, List<Element> elements, OperationPool pool) {
+		final long startGcCount = gcCount();
+		final long startGcTime = gcTime();
+		final long startBytes = THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+		final long startTime = System.nanoTime();
+
+		final long checksum = handleRequests(table, elements, pool);
+
+		final long executionTime = System.nanoTime() - startTime;
+		final long allocatedBytes = THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) - startBytes;
+		System.out.printf("Pooling: %s, Execution time: %s ms, Allocated: %.1f bytes/request, "
+				+ "GC collections: %d, GC time: %d ms (checksum %d)\n", (pool != null ? "Enabled" : "Disabled"),
+				TimeUnit.MILLISECONDS.convert(executionTime, TimeUnit.NANOSECONDS), (double) allocatedBytes
+						/ REQUEST_COUNT, gcCount() - startGcCount, gcTime() - startGcTime, checksum);
+	}
+
+	public static void main(String[] args) {
+		final StrategyTable table = createTable();
+		final List<Element> elements = new ArrayList<Element>();
+		for (int i = 0; i < ELEMENTS_PER_REQUEST; i++) {
+			elements.add(ElementFactory.createAddElement(i));
+		}
+
+		runRequests(table, elements, null);
+		runRequests(table, elements, new OperationPool());
+	}
+}
@@ -0,0 +1,74 @@
+package tagc.strategytable.operation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class OperationPoolTest {
+
+	@Test
+	public void releasedOperationShouldBeResetAndReused() {
+		final OperationPool pool = new OperationPool();
+		final FindTotalOperation total = pool.borrow(FindTotalOperation.class);
+		total.storeTotal(42);
+		pool.release(total);
+
+		assertEquals(1, pool.getIdleCount(FindTotalOperation.class));
+		final FindTotalOperation reused = pool.borrow(FindTotalOperation.class);
+		assertSame(total, reused);
+		assertEquals(Integer.valueOf(0), reused.get());
+		assertEquals(0, pool.getIdleCount(FindTotalOperation.class));
+	}
+
+	@Test
+	public void poolShouldNotKeepMoreThanMaximumIdleOperations() {
+		final OperationPool pool = new OperationPool(1);
+		final CountElementOperation first = pool.borrow(CountElementOperation.class);
+		final CountElementOperation second = pool.borrow(CountElementOperation.class);
+		assertNotSame(first, second);
+
+		pool.release(first);
+		pool.release(second);
+		assertEquals(1, pool.getIdleCount(CountElementOperation.class));
+	}
+
+	@Test
+	public void releasingIdleOperationAgainShouldBeRejected() {
+		final OperationPool pool = new OperationPool();
+		final FindTotalOperation total = pool.borrow(FindTotalOperation.class);
+		pool.release(new FindTotalOperation());
+		pool.release(total);
+
+		try {
+			pool.release(total);
+			fail("Releasing an idle operation should fail");
+		} catch (IllegalStateException e) {
+			// Expected.
+		}
+
+		assertEquals(2, pool.getIdleCount(FindTotalOperation.class));
+		assertNotSame(pool.borrow(FindTotalOperation.class), pool.borrow(FindTotalOperation.class));
+	}
+
+	@Test
+	public void idleOperationsShouldNotBeSharedBetweenThreads() throws InterruptedException {
+		final OperationPool pool = new OperationPool();
+		pool.release(new FindTotalOperation());
+
+		final int[] otherThreadIdleCount = new int[1];
+		final Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				otherThreadIdleCount[0] = pool.getIdleCount(FindTotalOperation.class);
+			}
+		});
+		thread.start();
+		thread.join();
+
+		assertEquals(0, otherThreadIdleCount[0]);
+		assertEquals(1, pool.getIdleCount(FindTotalOperation.class));
+	}
+}
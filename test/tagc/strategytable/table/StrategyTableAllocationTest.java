@@ -0,0 +1,155 @@
+package tagc.strategytable.table;
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.element.ElementFactory;
+import tagc.strategytable.operation.CountElementOperation;
+import tagc.strategytable.operation.FindTotalOperation;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.strategy.AddTotalOperationStrategy;
+import tagc.strategytable.strategy.CountElementOperationStrategy;
+import tagc.strategytable.strategy.MultTotalOperationStrategy;
+
+/*
+ * Measures the bytes allocated by the current thread while applying
+ * operations, and fails if a path exceeds its allocation budget. Every
+ * combination of policy, decoration depth and built-in strategy is expected to
+ * dispatch without allocating once warmed up.
+ */
+public class StrategyTableAllocationTest {
+
+	private static final Set<Class<? extends Element>> BASE_ELEMENTS = new HashSet<Class<? extends Element>>(
+			Arrays.asList(ElementFactory.getAddElementClass(), ElementFactory.getMultElementClass()));
+
+	private static final Set<Class<? extends Element>> DECORATIONS = new HashSet<Class<? extends Element>>(
+			Arrays.asList(ElementFactory.getIgnoreElementDecoratorClass(),
+					ElementFactory.getReverseElementDecoratorClass()));
+
+	private static final Set<Class<? extends Operation<?, ?>>> OPERATIONS = new HashSet<Class<? extends Operation<?, ?>>>(
+			Arrays.asList(FindTotalOperation.class, CountElementOperation.class));
+
+	private static final int MAX_DECORATION_DEPTH = 8;
+	private static final int WARMUP_OPERATIONS = 50000;
+	private static final int MEASURED_OPERATIONS = 200000;
+
+	/*
+	 * Steady-state dispatch should not allocate at all.
+	 */
+	private static final double STEADY_STATE_BUDGET = 0.0;
+
+	/*
+	 * Absorbs the few bytes per operation that the measurement itself may
+	 * allocate.
+	 */
+	private static final double TOLERANCE = 0.05;
+
+	private static final com.sun.management.ThreadMXBean THREAD_BEAN = (com.sun.management.ThreadMXBean) ManagementFactory
+			.getThreadMXBean();
+
+	private static StrategyTable createTable(StrategyTablePolicy policy) {
+		final StrategyTable table = new StrategyTable(BASE_ELEMENTS, DECORATIONS, OPERATIONS, policy);
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new AddTotalOperationStrategy());
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getMultElementClass(),
+				new MultTotalOperationStrategy());
+		table.registerOperationStrategies(CountElementOperation.class, new CountElementOperationStrategy());
+
+		/*
+		 * Strict tables would otherwise throw for decorated elements, so they
+		 * substitute decorators explicitly.
+		 */
+		if (policy == StrategyTablePolicy.STRICT) {
+			table.registerSubstituteElementStrategies(ElementFactory.getReverseElementDecoratorClass());
+			table.registerSubstituteElementStrategies(ElementFactory.getIgnoreElementDecoratorClass());
+		}
+
+		return table;
+	}
+
+	private static Element createElement(boolean mult, int depth) {
+		Element e = mult ? ElementFactory.createMultElement(1) : ElementFactory.createAddElement(1000);
+		for (int i = 0; i < depth; i++) {
+			e = ElementFactory.addReverseDecoration(e);
+		}
+
+		return e;
+	}
+
+	private static long allocatedBytes() {
+		return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static double measureBytesPerOperation(StrategyTable table, Operation<?, ?> operation, Element element) {
+		for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+			table.operate(operation, element);
+		}
+
+		final long before = allocatedBytes();
+		for (int i = 0; i < MEASURED_OPERATIONS; i++) {
+			table.operate(operation, element);
+		}
+
+		return (double) (allocatedBytes() - before) / MEASURED_OPERATIONS;
+	}
+
+	private static void assertWithinBudget(String path, double bytesPerOperation, double budget) {
+		assertTrue(String.format("%s allocated %.3f bytes per operation (budget %.3f)", path, bytesPerOperation,
+				budget), bytesPerOperation <= budget + TOLERANCE);
+	}
+
+	@Test
+	public void operatingShouldNotAllocateForAnyPolicyDepthOrStrategy() {
+		for (StrategyTablePolicy policy : StrategyTablePolicy.values()) {
+			final StrategyTable table = createTable(policy);
+
+			for (int depth = 0; depth <= MAX_DECORATION_DEPTH; depth++) {
+				for (boolean mult : new boolean[] { false, true }) {
+					final Element element = createElement(mult, depth);
+					final String path = String.format("%s table, %s element at depth %d", policy,
+							mult ? "mult" : "add", depth);
+
+					assertWithinBudget(path + ", total",
+							measureBytesPerOperation(table, new FindTotalOperation(), element), STEADY_STATE_BUDGET);
+					assertWithinBudget(path + ", count",
+							measureBytesPerOperation(table, new CountElementOperation(), element),
+							STEADY_STATE_BUDGET);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void operatingOverCollectionShouldNotAllocatePerElement() {
+		for (StrategyTablePolicy policy : StrategyTablePolicy.values()) {
+			final StrategyTable table = createTable(policy);
+			final List<Element> elements = new ArrayList<Element>();
+			for (int depth = 0; depth <= MAX_DECORATION_DEPTH; depth++) {
+				elements.add(createElement(depth % 2 == 0, depth));
+			}
+
+			final FindTotalOperation total = new FindTotalOperation();
+			for (int i = 0; i < WARMUP_OPERATIONS / elements.size(); i++) {
+				table.operateOverCollection(total, elements);
+			}
+
+			final int passes = MEASURED_OPERATIONS / elements.size();
+			final long before = allocatedBytes();
+			for (int i = 0; i < passes; i++) {
+				table.operateOverCollection(total, elements);
+			}
+
+			final double bytesPerElement = (double) (allocatedBytes() - before) / (passes * elements.size());
+			assertWithinBudget(policy + " table over collection", bytesPerElement, STEADY_STATE_BUDGET);
+		}
+	}
+}
@@ -1,11 +1,21 @@
 package tagc.strategytable.table;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.junit.Before;
@@ -13,11 +23,32 @@ import org.junit.Test;
 
 import tagc.strategytable.element.Element;
 import tagc.strategytable.element.ElementFactory;
+import tagc.strategytable.monitoring.DispatchEvents;
+import tagc.strategytable.monitoring.DispatchListener;
+import tagc.strategytable.monitoring.DispatchListenerAdapter;
+import tagc.strategytable.operation.CacheableOperation;
+import tagc.strategytable.operation.CompositeOperation;
+import tagc.strategytable.operation.ConcurrentCountElementOperation;
+import tagc.strategytable.operation.ConcurrentFindTotalOperation;
 import tagc.strategytable.operation.CountElementOperation;
+import tagc.strategytable.operation.FindElementOperation;
+import tagc.strategytable.operation.FindProductOperation;
 import tagc.strategytable.operation.FindTotalOperation;
 import tagc.strategytable.operation.Operation;
+import tagc.strategytable.operation.OperationFactory;
 import tagc.strategytable.operation.PureOperation;
+import tagc.strategytable.strategy.AddTotalOperationStrategy;
+import tagc.strategytable.strategy.AdditiveStrategy;
+import tagc.strategytable.strategy.CompositeOperationStrategy;
+import tagc.strategytable.strategy.CompositeStrategy;
+import tagc.strategytable.strategy.ConcurrentAddTotalOperationStrategy;
+import tagc.strategytable.strategy.ConcurrentCountElementOperationStrategy;
 import tagc.strategytable.strategy.CountElementOperationStrategy;
+import tagc.strategytable.strategy.FindElementOperationStrategy;
+import tagc.strategytable.strategy.MemoizingStrategy;
+import tagc.strategytable.strategy.MultProductOperationStrategy;
+import tagc.strategytable.strategy.MultTotalOperationStrategy;
+import tagc.strategytable.strategy.NullStrategy;
 import tagc.strategytable.strategy.Strategy;
 
 public class StrategyTableBehaviourTest {
@@ -49,6 +80,10 @@ public class StrategyTableBehaviourTest {
 		}
 	}
 
+	private static class CacheableCountOperation extends CountElementOperation implements
+			CacheableOperation<Integer> {
+	}
+
 	private static class UnregisteredElement implements Element {
 		@Override
 		public int getValue() {
@@ -170,6 +205,768 @@ public class StrategyTableBehaviourTest {
 				ElementFactory.getIgnoreElementDecoratorClass()));
 	}
 
+	@Test
+	public void operatingOnDeeplyDecoratedElementShouldNotOverflowStack() {
+		final int depth = 10000;
+		Element e = ElementFactory.createAddElement(5);
+		for (int i = 0; i < depth; i++) {
+			e = ElementFactory.addReverseDecoration(e);
+		}
+
+		table.registerOperationStrategies(CountElementOperation.class, new CountElementOperationStrategy());
+		final CountElementOperation count = new CountElementOperation();
+		table.operate(count, e);
+		assertEquals(Integer.valueOf(1), count.get());
+
+		final StrategyTable bypassTable = new StrategyTable(BASE_ELEMENTS, DECORATIONS, OPERATIONS,
+				StrategyTablePolicy.BYPASS);
+		bypassTable.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new AddTotalOperationStrategy());
+		final FindTotalOperation total = new FindTotalOperation();
+		bypassTable.operate(total, e);
+		assertEquals(Integer.valueOf(5), total.get());
+	}
+
+	@Test
+	public void memoizingStrategyShouldReuseContributionsOfSharedElements() {
+		final MemoizingStrategy<FindTotalOperation, Integer> strategy = new MemoizingStrategy<FindTotalOperation, Integer>(
+				new AddTotalOperationStrategy());
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(), strategy);
+
+		final Element shared = ElementFactory.createAddElement(3);
+		final Element reversed = ElementFactory.addReverseDecoration(shared);
+		final FindTotalOperation total = new FindTotalOperation();
+		table.operateOverCollection(total, Arrays.asList(shared, shared, reversed, reversed));
+
+		assertEquals(Integer.valueOf(0), total.get());
+		assertEquals(2, strategy.getHitCount());
+		assertEquals(2, strategy.getMissCount());
+		assertEquals(0.5, strategy.getHitRate(), 0);
+	}
+
+	@Test
+	public void liveElementCollectionShouldMatchFullRecompute() {
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new AddTotalOperationStrategy());
+		table.registerOperationStrategies(CountElementOperation.class, new CountElementOperationStrategy());
+		table.registerNullElementStrategies(ElementFactory.getIgnoreElementDecoratorClass());
+
+		final LiveElementCollection elements = new LiveElementCollection(table);
+		final FindTotalOperation liveTotal = new FindTotalOperation();
+		final CountElementOperation liveCount = new CountElementOperation();
+		elements.add(ElementFactory.createAddElement(4));
+		elements.registerOperation(liveTotal);
+		elements.registerOperation(liveCount);
+
+		elements.add(ElementFactory.createAddElement(7));
+		elements.add(ElementFactory.createAddElement(9));
+		elements.set(1, ElementFactory.addReverseDecoration(elements.get(1)));
+		elements.set(2, ElementFactory.addIgnoreDecoration(elements.get(2)));
+		elements.remove(0);
+
+		final FindTotalOperation total = new FindTotalOperation();
+		final CountElementOperation count = new CountElementOperation();
+		table.operateOverCollection(total, elements);
+		table.operateOverCollection(count, elements);
+		assertEquals(Integer.valueOf(-7), liveTotal.get());
+		assertEquals(total.get(), liveTotal.get());
+		assertEquals(count.get(), liveCount.get());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void liveElementCollectionShouldRejectNonAdditiveOperations() {
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new MemoizingStrategy<FindTotalOperation, Integer>(new AddTotalOperationStrategy()));
+		assertTrue(table.isAdditive(FindTotalOperation.class));
+
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getMultElementClass(),
+				new MultTotalOperationStrategy());
+		assertFalse(table.isAdditive(FindTotalOperation.class));
+
+		new LiveElementCollection(table).registerOperation(new FindTotalOperation());
+	}
+
+	@Test
+	public void dispatchModeShouldFollowObservedElementTypes() {
+		assertEquals(DispatchMode.MEGAMORPHIC, table.getDispatchMode(FindTotalOperation.class));
+
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new AddTotalOperationStrategy());
+		final FindTotalOperation total = new FindTotalOperation();
+		table.operate(total, ElementFactory.createAddElement(2));
+		table.operate(total, ElementFactory.createAddElement(3));
+		assertEquals(DispatchMode.MONOMORPHIC, table.getDispatchMode(FindTotalOperation.class));
+
+		table.operate(total, ElementFactory.createMultElement(10));
+		assertEquals(DispatchMode.POLYMORPHIC, table.getDispatchMode(FindTotalOperation.class));
+		assertEquals(Integer.valueOf(5), total.get());
+
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getMultElementClass(),
+				new MultTotalOperationStrategy());
+		table.operate(total, ElementFactory.createMultElement(10));
+		assertEquals(Integer.valueOf(50), total.get());
+		assertEquals(DispatchMode.MONOMORPHIC, table.getDispatchMode(FindTotalOperation.class));
+	}
+
+	@Test
+	public void sharedConcurrentOperationsShouldSeeEveryElement() throws InterruptedException {
+		final Set<Class<? extends Operation<?, ?>>> operations = new HashSet<Class<? extends Operation<?, ?>>>(
+				Arrays.asList(ConcurrentFindTotalOperation.class, ConcurrentCountElementOperation.class));
+		final StrategyTable concurrentTable = new StrategyTable(BASE_ELEMENTS, DECORATIONS, operations);
+		concurrentTable.registerOperationStrategy(ConcurrentFindTotalOperation.class,
+				ElementFactory.getAddElementClass(), new ConcurrentAddTotalOperationStrategy());
+		concurrentTable.registerOperationStrategies(ConcurrentCountElementOperation.class,
+				new ConcurrentCountElementOperationStrategy());
+
+		final ConcurrentFindTotalOperation total = new ConcurrentFindTotalOperation();
+		final ConcurrentCountElementOperation count = new ConcurrentCountElementOperation();
+		final Element element = ElementFactory.addReverseDecoration(ElementFactory.createAddElement(3));
+		final int threadCount = 4;
+		final int elementsPerThread = 100000;
+
+		final Thread[] threads = new Thread[threadCount];
+		for (int i = 0; i < threadCount; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < elementsPerThread; j++) {
+						concurrentTable.operate(total, element);
+						concurrentTable.operate(count, element);
+					}
+				}
+			});
+			threads[i].start();
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(Integer.valueOf(-3 * threadCount * elementsPerThread), total.get());
+		assertEquals(Integer.valueOf(threadCount * elementsPerThread), count.get());
+	}
+
+	@Test
+	public void compositeStrategyShouldExecuteStrategiesInOrder() {
+		final List<Element> visited = new ArrayList<Element>();
+		final Strategy<FindTotalOperation> recorder = new Strategy<FindTotalOperation>() {
+			@Override
+			public void execute(FindTotalOperation operation, Element element, int decorationLevel,
+					StrategyTable table) {
+				visited.add(element);
+				assertEquals(Integer.valueOf(8), operation.get());
+			}
+		};
+
+		final List<Strategy<FindTotalOperation>> strategies = new ArrayList<Strategy<FindTotalOperation>>();
+		strategies.add(new AddTotalOperationStrategy());
+		strategies.add(new NullStrategy<FindTotalOperation>());
+		strategies.add(new AddTotalOperationStrategy());
+		strategies.add(recorder);
+		final CompositeStrategy<FindTotalOperation> composite = new CompositeStrategy<FindTotalOperation>(strategies);
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(), composite);
+
+		final FindTotalOperation total = new FindTotalOperation();
+		table.operate(total, ElementFactory.createAddElement(4));
+
+		assertEquals(Integer.valueOf(8), total.get());
+		assertEquals(3, composite.getStrategies().size());
+		assertEquals(1, visited.size());
+		assertTrue(table.toString().contains("FindTotalOperation -> Composite strategy"));
+	}
+
+	@Test
+	public void compositeOperationShouldMatchSeparatePasses() {
+		final Set<Class<? extends Operation<?, ?>>> operations = new HashSet<Class<? extends Operation<?, ?>>>(
+				OPERATIONS);
+		operations.add(CompositeOperation.class);
+		table = new StrategyTable(BASE_ELEMENTS, DECORATIONS, operations);
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new AddTotalOperationStrategy());
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getMultElementClass(),
+				new MultTotalOperationStrategy());
+		table.registerOperationStrategies(CountElementOperation.class, new CountElementOperationStrategy());
+		table.registerOperationStrategy(CompositeOperation.class, ElementFactory.getAddElementClass(),
+				new CompositeOperationStrategy(Arrays.<Strategy<?>> asList(new AddTotalOperationStrategy(),
+						new CountElementOperationStrategy())));
+		table.registerOperationStrategy(CompositeOperation.class, ElementFactory.getMultElementClass(),
+				new CompositeOperationStrategy(Arrays.<Strategy<?>> asList(new MultTotalOperationStrategy(),
+						new NullStrategy<CountElementOperation>())));
+
+		final List<Element> elements = new ArrayList<Element>();
+		for (int i = 0; i < 100; i++) {
+			final Element base = i % 10 == 0 ? ElementFactory.createMultElement(2) : ElementFactory
+					.createAddElement(i);
+			elements.add(i % 4 == 0 ? ElementFactory.addReverseDecoration(base) : base);
+		}
+
+		final FindTotalOperation total = new FindTotalOperation();
+		final CountElementOperation count = new CountElementOperation();
+		final CompositeOperation composite = new CompositeOperation(Arrays.asList(total, count));
+		table.operateOverCollection(composite, elements);
+
+		final FindTotalOperation expectedTotal = new FindTotalOperation();
+		final CountElementOperation expectedCount = new CountElementOperation();
+		for (Element element : elements) {
+			table.operate(expectedTotal, element);
+			if (!ElementFactory.getMultElementClass().isInstance(element.asDecorationAtLevel(0)))
+				table.operate(expectedCount, element);
+		}
+
+		assertEquals(expectedTotal.get(), total.get());
+		assertEquals(expectedCount.get(), count.get());
+		assertEquals(Arrays.<Object> asList(total.get(), count.get()), composite.get());
+		assertTrue(table.toString().contains("CompositeOperation -> Composite strategy"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void compositeOperationWithWrongNumberOfOperationsShouldBeIllegal() {
+		final Set<Class<? extends Operation<?, ?>>> operations = new HashSet<Class<? extends Operation<?, ?>>>(
+				OPERATIONS);
+		operations.add(CompositeOperation.class);
+		table = new StrategyTable(BASE_ELEMENTS, DECORATIONS, operations);
+		table.registerOperationStrategy(CompositeOperation.class, ElementFactory.getAddElementClass(),
+				new CompositeOperationStrategy(Arrays.<Strategy<?>> asList(new AddTotalOperationStrategy(),
+						new CountElementOperationStrategy())));
+
+		table.operate(new CompositeOperation(Arrays.asList(new FindTotalOperation())),
+				ElementFactory.createAddElement(1));
+	}
+
+	@Test
+	public void executionPlanShouldMatchCollectionOperation() {
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new AddTotalOperationStrategy());
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getMultElementClass(),
+				new MultTotalOperationStrategy());
+		table.registerNullElementStrategies(ElementFactory.getIgnoreElementDecoratorClass());
+
+		final List<Element> elements = Arrays.asList(ElementFactory.createAddElement(2),
+				ElementFactory.addReverseDecoration(ElementFactory.createAddElement(3)),
+				ElementFactory.addIgnoreDecoration(ElementFactory.createMultElement(5)),
+				ElementFactory.createMultElement(4), ElementFactory.createAddElement(1));
+
+		final FindTotalOperation expected = new FindTotalOperation();
+		table.operateOverCollection(expected, elements);
+
+		final ExecutionPlan<FindTotalOperation> plan = table.plan(FindTotalOperation.class, elements);
+		for (int i = 0; i < 2; i++) {
+			final FindTotalOperation total = new FindTotalOperation();
+			plan.execute(total);
+			assertEquals(expected.get(), total.get());
+		}
+
+		assertEquals(5, plan.getElementCount());
+		assertEquals(4, plan.getExecutedCount());
+		assertEquals(4, plan.getGroupCount());
+		assertTrue(plan.explain().contains("IgnoreElementDecorator(MultElement) -> skipped [1 elements]"));
+		assertTrue(plan.explain().contains("AddElement -> Addition strategy at level 0 [2 elements]"));
+
+		assertFalse(plan.isStale());
+		table.registerNullElementStrategies(ElementFactory.getMultElementClass());
+		assertTrue(plan.isStale());
+	}
+
+	@Test
+	public void executionPlanShouldResolveBypassStrategies() {
+		final StrategyTable bypassTable = new StrategyTable(BASE_ELEMENTS, DECORATIONS, OPERATIONS,
+				StrategyTablePolicy.BYPASS);
+		bypassTable.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new AddTotalOperationStrategy());
+
+		final List<Element> elements = Arrays.<Element> asList(ElementFactory.addIgnoreDecoration(ElementFactory
+				.addReverseDecoration(ElementFactory.createAddElement(3))));
+		final FindTotalOperation total = new FindTotalOperation();
+		bypassTable.plan(FindTotalOperation.class, elements).execute(total);
+		assertEquals(Integer.valueOf(3), total.get());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void executionPlanShouldRejectUnimplementedStrategiesUpFront() {
+		final StrategyTable strictTable = new StrategyTable(BASE_ELEMENTS, DECORATIONS, OPERATIONS,
+				StrategyTablePolicy.STRICT);
+		strictTable.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new AddTotalOperationStrategy());
+
+		strictTable.plan(FindTotalOperation.class,
+				Arrays.<Element> asList(ElementFactory.createAddElement(1), ElementFactory.createMultElement(2)));
+	}
+
+	@Test
+	public void typedElementBagShouldOnlyVisitElementsWithRealStrategies() {
+		final List<Element> visited = new ArrayList<Element>();
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new Strategy<FindTotalOperation>() {
+					@Override
+					public void execute(FindTotalOperation operation, Element element, int decorationLevel,
+							StrategyTable table) {
+						visited.add(element);
+						operation.storeTotal(operation.getTotal() + element.getValue());
+					}
+				});
+		table.registerNullElementStrategies(ElementFactory.getIgnoreElementDecoratorClass());
+
+		final TypedElementBag bag = new TypedElementBag();
+		bag.add(ElementFactory.createAddElement(2));
+		bag.add(ElementFactory.createMultElement(3));
+		bag.add(ElementFactory.addIgnoreDecoration(ElementFactory.createAddElement(4)));
+		bag.add(ElementFactory.addReverseDecoration(ElementFactory.createAddElement(5)));
+		bag.add(ElementFactory.createAddElement(6));
+		assertEquals(5, bag.size());
+		assertEquals(4, bag.getBucketCount());
+
+		final FindTotalOperation total = new FindTotalOperation();
+		table.operateOverCollection(total, bag);
+		assertEquals(Integer.valueOf(3), total.get());
+		assertEquals(3, visited.size());
+
+		final Element removed = bag.iterator().next();
+		assertTrue(bag.remove(removed));
+		assertFalse(bag.remove(removed));
+		assertEquals(4, bag.size());
+	}
+
+	@Test
+	public void shortCircuitingOperationsShouldStopOnceComplete() {
+		final Set<Class<? extends Operation<?, ?>>> operations = new HashSet<Class<? extends Operation<?, ?>>>(
+				Arrays.asList(FindProductOperation.class, FindElementOperation.class));
+		final StrategyTable shortCircuitingTable = new StrategyTable(BASE_ELEMENTS, DECORATIONS, operations);
+		final List<Element> visited = new ArrayList<Element>();
+		shortCircuitingTable.registerOperationStrategy(FindProductOperation.class,
+				ElementFactory.getMultElementClass(), new Strategy<FindProductOperation>() {
+					@Override
+					public void execute(FindProductOperation operation, Element element, int decorationLevel,
+							StrategyTable table) {
+						visited.add(element);
+						new MultProductOperationStrategy().execute(operation, element, decorationLevel, table);
+					}
+				});
+		shortCircuitingTable.registerOperationStrategy(FindElementOperation.class,
+				ElementFactory.getMultElementClass(), new FindElementOperationStrategy());
+
+		final List<Element> elements = Arrays.<Element> asList(ElementFactory.createAddElement(1),
+				ElementFactory.createMultElement(2), ElementFactory.createMultElement(0),
+				ElementFactory.createMultElement(5), ElementFactory.createMultElement(7));
+
+		final FindProductOperation product = new FindProductOperation();
+		shortCircuitingTable.operateOverCollection(product, elements);
+		assertEquals(Integer.valueOf(0), product.get());
+		assertEquals(2, visited.size());
+
+		visited.clear();
+		product.reset();
+		shortCircuitingTable.operateOverCollection(product, new TypedElementBag(elements));
+		assertEquals(Integer.valueOf(0), product.get());
+		assertEquals(2, visited.size());
+
+		final FindElementOperation find = new FindElementOperation();
+		shortCircuitingTable.plan(FindElementOperation.class, elements).execute(find);
+		assertSame(elements.get(1), find.get());
+	}
+
+	@Test
+	public void expiredDeadlineShouldLeaveResumableCursor() {
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new AddTotalOperationStrategy());
+
+		final List<Element> elements = new ArrayList<Element>();
+		for (int i = 1; i <= 1000; i++) {
+			elements.add(ElementFactory.createAddElement(i));
+		}
+
+		final FindTotalOperation total = new FindTotalOperation();
+		final ProcessingCursor<FindTotalOperation> cursor = table.operateOverCollection(total, elements,
+				Deadline.after(0, TimeUnit.NANOSECONDS));
+		assertEquals(ProcessingCursor.Status.DEADLINE_EXPIRED, cursor.getStatus());
+		assertEquals(0, cursor.getPosition());
+		assertEquals(0, cursor.getProgress(), 0);
+
+		Thread.currentThread().interrupt();
+		assertEquals(ProcessingCursor.Status.INTERRUPTED, cursor.resume(Deadline.none()));
+		assertTrue(Thread.interrupted());
+
+		assertEquals(ProcessingCursor.Status.COMPLETE, cursor.resume(Deadline.after(1, TimeUnit.MINUTES)));
+		assertEquals(1000, cursor.getPosition());
+		assertEquals(1, cursor.getProgress(), 0);
+		assertEquals(Integer.valueOf(500500), total.get());
+	}
+
+	@Test
+	public void cursorOverIteratedCollectionShouldRetryFailedElement() {
+		final boolean[] failed = new boolean[1];
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new Strategy<FindTotalOperation>() {
+					@Override
+					public void execute(FindTotalOperation operation, Element element, int decorationLevel,
+							StrategyTable table) {
+						if (element.getValue() == 5 && !failed[0]) {
+							failed[0] = true;
+							throw new IllegalStateException("Transient failure");
+						}
+
+						operation.storeTotal(operation.getTotal() + element.getValue());
+					}
+				});
+
+		final List<Element> elements = new LinkedList<Element>();
+		for (int i = 1; i <= 10; i++) {
+			elements.add(ElementFactory.createAddElement(i));
+		}
+
+		final FindTotalOperation total = new FindTotalOperation();
+		final ProcessingCursor<FindTotalOperation> cursor = table.operateOverCollection(total, elements,
+				Deadline.after(0, TimeUnit.NANOSECONDS));
+		try {
+			cursor.resume(Deadline.none());
+			fail("Expected the strategy failure to be thrown");
+		} catch (IllegalStateException e) {
+			assertEquals(4, cursor.getPosition());
+		}
+
+		assertEquals(ProcessingCursor.Status.COMPLETE, cursor.resume(Deadline.none()));
+		assertEquals(10, cursor.getPosition());
+		assertEquals(Integer.valueOf(55), total.get());
+	}
+
+	@Test
+	public void resumedCursorShouldBePendingWhileProcessing() {
+		final List<ProcessingCursor<FindTotalOperation>> cursors = new ArrayList<ProcessingCursor<FindTotalOperation>>();
+		final List<ProcessingCursor.Status> observed = new ArrayList<ProcessingCursor.Status>();
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new Strategy<FindTotalOperation>() {
+					@Override
+					public void execute(FindTotalOperation operation, Element element, int decorationLevel,
+							StrategyTable table) {
+						observed.add(cursors.get(0).getStatus());
+					}
+				});
+
+		cursors.add(table.operateOverCollection(new FindTotalOperation(),
+				Arrays.asList(ElementFactory.createAddElement(1)), Deadline.after(0, TimeUnit.NANOSECONDS)));
+		assertEquals(ProcessingCursor.Status.DEADLINE_EXPIRED, cursors.get(0).getStatus());
+
+		assertEquals(ProcessingCursor.Status.COMPLETE, cursors.get(0).resume(Deadline.none()));
+		assertEquals(Arrays.asList(ProcessingCursor.Status.PENDING), observed);
+	}
+
+	@Test
+	public void elementColumnsShouldMatchDispatchedElements() {
+		for (StrategyTablePolicy policy : StrategyTablePolicy.values()) {
+			if (policy == StrategyTablePolicy.STRICT)
+				continue;
+
+			final StrategyTable columnTable = new StrategyTable(BASE_ELEMENTS, DECORATIONS, OPERATIONS, policy);
+			columnTable.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+					new AddTotalOperationStrategy());
+			columnTable.registerOperationStrategies(CountElementOperation.class, new CountElementOperationStrategy());
+			columnTable.registerNullElementStrategies(ElementFactory.getIgnoreElementDecoratorClass());
+
+			final List<Element> elements = new ArrayList<Element>();
+			for (int i = 0; i < 103; i++) {
+				final Element base = i % 5 == 0 ? ElementFactory.createMultElement(i % 3) : ElementFactory
+						.createAddElement(i);
+				elements.add(i % 3 == 0 ? base : i % 3 == 1 ? ElementFactory.addReverseDecoration(base)
+						: ElementFactory.addIgnoreDecoration(base));
+			}
+
+			final ElementColumns columns = new ElementColumns();
+			columns.addAll(elements);
+			assertColumnsMatch(columnTable, elements, columns);
+
+			columnTable.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getMultElementClass(),
+					new MultTotalOperationStrategy());
+			assertColumnsMatch(columnTable, elements, columns);
+
+			columnTable.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+					new MemoizingStrategy<FindTotalOperation, Integer>(new AddTotalOperationStrategy()));
+			assertColumnsMatch(columnTable, elements, columns);
+		}
+	}
+
+	@Test
+	public void registeredListenerShouldReceiveDispatchEvents() {
+		final List<String> events = new ArrayList<String>();
+		final DispatchListener listener = new DispatchListenerAdapter() {
+			@Override
+			public void slowStrategyExecuted(Class<? extends Operation<?, ?>> operationType,
+					Class<? extends Element> elementType, Strategy<?> strategy, long durationNanos) {
+				events.add("slow " + elementType.getSimpleName());
+			}
+
+			@Override
+			public void redirectChainFollowed(Class<? extends Operation<?, ?>> operationType,
+					Class<? extends Element> elementType, int redirectCount, Strategy<?> strategy) {
+				events.add("redirect " + elementType.getSimpleName() + " x" + redirectCount);
+			}
+
+			@Override
+			public void collectionProcessed(Class<? extends Operation<?, ?>> operationType, int elementCount,
+					long durationNanos) {
+				events.add("collection " + operationType.getSimpleName() + " of " + elementCount);
+			}
+		};
+
+		table.registerOperationStrategies(FindTotalOperation.class, new AddTotalOperationStrategy());
+		table.registerSubstituteElementStrategies(ElementFactory.getReverseElementDecoratorClass());
+		final Element element = ElementFactory.addReverseDecoration(ElementFactory
+				.addReverseDecoration(ElementFactory.createAddElement(2)));
+
+		table.operate(new FindTotalOperation(), element);
+		assertTrue(events.isEmpty());
+
+		DispatchEvents.setListener(listener);
+		DispatchEvents.setSlowStrategyThreshold(0, TimeUnit.NANOSECONDS);
+		try {
+			table.operateOverCollection(new FindTotalOperation(), Arrays.asList(element));
+		} finally {
+			DispatchEvents.setListener(null);
+			DispatchEvents.setSlowStrategyThreshold(1, TimeUnit.MILLISECONDS);
+		}
+
+		assertEquals(Arrays.asList("redirect ReverseElementDecorator x2", "slow AddElement",
+				"collection FindTotalOperation of 1"), events);
+	}
+
+	@Test
+	public void immutableListResultsShouldBeCachedUntilReconfigured() {
+		final Set<Class<? extends Operation<?, ?>>> operations = new HashSet<Class<? extends Operation<?, ?>>>(
+				OPERATIONS);
+		operations.add(CacheableCountOperation.class);
+		table = new StrategyTable(BASE_ELEMENTS, DECORATIONS, operations);
+
+		final int[] visits = new int[1];
+		table.registerOperationStrategies(CacheableCountOperation.class, new Strategy<CacheableCountOperation>() {
+			@Override
+			public void execute(CacheableCountOperation operation, Element element, int decorationLevel,
+					StrategyTable table) {
+				visits[0]++;
+				operation.storeCount(operation.getCount() + 1);
+			}
+		});
+
+		final List<Element> elements = new ArrayList<Element>();
+		for (int i = 0; i < 10; i++) {
+			elements.add(ElementFactory.createAddElement(i));
+		}
+		final ImmutableElementList list = new ImmutableElementList(elements);
+		final ImmutableElementList otherList = new ImmutableElementList(elements);
+		assertEquals(list.getContentHash(), otherList.getContentHash());
+
+		elements.set(0, ElementFactory.addReverseDecoration(elements.get(0)));
+		assertFalse(list.getContentHash() == new ImmutableElementList(elements).getContentHash());
+
+		final long emptyFootprint = table.estimateFootprint();
+		table.operateOverCollection(new CacheableCountOperation(), list);
+		assertTrue(table.estimateFootprint() > emptyFootprint);
+		final CacheableCountOperation count = new CacheableCountOperation();
+		table.operateOverCollection(count, list);
+		assertEquals(10, count.getCount());
+		assertEquals(10, visits[0]);
+
+		count.storeCount(5);
+		table.operateOverCollection(count, list);
+		assertEquals(15, count.getCount());
+		assertEquals(20, visits[0]);
+
+		table.setOperationStrategiesLocked(CacheableCountOperation.class, true);
+		assertEquals(0, table.getResultCacheSize());
+		table.operateOverCollection(new CacheableCountOperation(), list);
+		assertEquals(30, visits[0]);
+
+		table.setResultCacheCapacity(1);
+		table.operateOverCollection(new CacheableCountOperation(), otherList);
+		assertEquals(1, table.getResultCacheSize());
+		table.operateOverCollection(new CacheableCountOperation(), list);
+		assertEquals(50, visits[0]);
+	}
+
+	@Test
+	public void builtInStrategiesShouldHandleCacheableSubtypes() {
+		final Set<Class<? extends Operation<?, ?>>> operations = new HashSet<Class<? extends Operation<?, ?>>>(
+				OPERATIONS);
+		operations.add(CacheableCountOperation.class);
+		table = new StrategyTable(BASE_ELEMENTS, DECORATIONS, operations);
+		table.registerOperationStrategies(CacheableCountOperation.class, new CountElementOperationStrategy());
+
+		final ImmutableElementList list = new ImmutableElementList(Arrays.<Element> asList(
+				ElementFactory.createAddElement(1), ElementFactory.createMultElement(2)));
+		final CacheableCountOperation count = new CacheableCountOperation();
+		table.operateOverCollection(count, list);
+		assertEquals(1, table.getResultCacheSize());
+
+		final CacheableCountOperation cachedCount = new CacheableCountOperation();
+		table.operateOverCollection(cachedCount, list);
+		assertEquals(2, cachedCount.getCount());
+	}
+
+	@Test
+	public void operationsThatAreNotCacheableShouldAlwaysVisitImmutableLists() {
+		final int[] visits = new int[1];
+		table.registerOperationStrategies(CountElementOperation.class, new Strategy<CountElementOperation>() {
+			@Override
+			public void execute(CountElementOperation operation, Element element, int decorationLevel,
+					StrategyTable table) {
+				visits[0]++;
+				operation.storeCount(operation.getCount() + 1);
+			}
+		});
+
+		final List<Element> elements = new ArrayList<Element>();
+		for (int i = 0; i < 10; i++) {
+			elements.add(ElementFactory.createAddElement(i));
+		}
+		final ImmutableElementList list = new ImmutableElementList(elements);
+
+		table.operateOverCollection(new CountElementOperation(), list);
+		table.operateOverCollection(new CountElementOperation(), list);
+		assertEquals(20, visits[0]);
+		assertEquals(0, table.getResultCacheSize());
+	}
+
+	@Test
+	public void groupedOperationsShouldMatchSeparatePasses() {
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new AddTotalOperationStrategy());
+		table.registerOperationStrategies(CountElementOperation.class, new CountElementOperationStrategy());
+
+		final List<Element> elements = new ArrayList<Element>();
+		for (int i = 0; i < 100000; i++) {
+			final Element base = ElementFactory.createAddElement(i % 1000);
+			elements.add(i % 4 == 0 ? ElementFactory.addReverseDecoration(base) : base);
+		}
+
+		final IntElementKey valueKey = new IntElementKey() {
+			@Override
+			public int keyOf(Element element) {
+				return element.getValue() % 7;
+			}
+		};
+		final Map<Integer, FindTotalOperation> totals = table.operateGrouped(
+				new OperationFactory<FindTotalOperation>() {
+					@Override
+					public FindTotalOperation createOperation() {
+						return new FindTotalOperation();
+					}
+				}, elements, valueKey);
+
+		final Map<Integer, List<Element>> partitions = new LinkedHashMap<Integer, List<Element>>();
+		for (Element e : elements) {
+			final int key = valueKey.keyOf(e);
+			if (!partitions.containsKey(key))
+				partitions.put(key, new ArrayList<Element>());
+
+			partitions.get(key).add(e);
+		}
+
+		assertEquals(new ArrayList<Integer>(partitions.keySet()), new ArrayList<Integer>(totals.keySet()));
+		for (Map.Entry<Integer, List<Element>> partition : partitions.entrySet()) {
+			final FindTotalOperation expected = new FindTotalOperation();
+			table.operateOverCollection(expected, partition.getValue());
+			assertEquals(expected.get(), totals.get(partition.getKey()).get());
+		}
+
+		final Map<Class<?>, CountElementOperation> counts = table.operateGrouped(
+				new OperationFactory<CountElementOperation>() {
+					@Override
+					public CountElementOperation createOperation() {
+						return new CountElementOperation();
+					}
+				}, elements, new ElementKey<Class<?>>() {
+					@Override
+					public Class<?> keyOf(Element element) {
+						return element.getClass();
+					}
+				});
+
+		assertEquals(Arrays.<Class<?>> asList(ElementFactory.getReverseElementDecoratorClass(),
+				ElementFactory.getAddElementClass()), new ArrayList<Class<?>>(counts.keySet()));
+		assertEquals(25000, counts.get(ElementFactory.getReverseElementDecoratorClass()).getCount());
+		assertEquals(75000, counts.get(ElementFactory.getAddElementClass()).getCount());
+	}
+
+	@Test
+	public void groupedOperationsWithNonAdditiveStrategiesShouldMatchSinglePass() {
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new AddTotalOperationStrategy());
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getMultElementClass(),
+				new MultTotalOperationStrategy());
+		assertFalse(table.isAdditive(FindTotalOperation.class));
+
+		final List<Element> elements = new ArrayList<Element>();
+		for (int i = 0; i < 200000; i++) {
+			elements.add(i % 1000 == 999 ? ElementFactory.createMultElement(2) : ElementFactory.createAddElement(1));
+		}
+
+		final Map<Integer, FindTotalOperation> totals = GroupedAggregation.<FindTotalOperation> byIntKey(table,
+				new OperationFactory<FindTotalOperation>() {
+					@Override
+					public FindTotalOperation createOperation() {
+						return new FindTotalOperation();
+					}
+				}, new IntElementKey() {
+					@Override
+					public int keyOf(Element element) {
+						return 0;
+					}
+				}).aggregate(elements, 4);
+
+		final FindTotalOperation expected = new FindTotalOperation();
+		table.operateOverCollection(expected, elements);
+		assertEquals(expected.get(), totals.get(0).get());
+	}
+
+	@Test
+	public void groupedOperationsWithAdditiveStrategiesShouldBeSplitBetweenThreads() {
+		final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+		table.registerOperationStrategies(CountElementOperation.class, new AdditiveStrategy<CountElementOperation>() {
+			@Override
+			public void execute(CountElementOperation operation, Element element, int decorationLevel,
+					StrategyTable table) {
+				threads.add(Thread.currentThread());
+				operation.storeCount(operation.getCount() + 1);
+			}
+		});
+		assertTrue(table.isAdditive(CountElementOperation.class));
+
+		final List<Element> elements = new ArrayList<Element>();
+		for (int i = 0; i < 200000; i++) {
+			elements.add(i % 3 == 0 ? ElementFactory.createMultElement(i) : ElementFactory.createAddElement(i));
+		}
+
+		final Map<Class<?>, CountElementOperation> counts = GroupedAggregation.<Class<?>, CountElementOperation> byKey(
+				table, new OperationFactory<CountElementOperation>() {
+					@Override
+					public CountElementOperation createOperation() {
+						return new CountElementOperation();
+					}
+				}, new ElementKey<Class<?>>() {
+					@Override
+					public Class<?> keyOf(Element element) {
+						return element.getClass();
+					}
+				}).aggregate(elements, 4);
+
+		assertTrue(threads.size() > 1);
+		assertEquals(Arrays.<Class<?>> asList(ElementFactory.getMultElementClass(),
+				ElementFactory.getAddElementClass()), new ArrayList<Class<?>>(counts.keySet()));
+		assertEquals(66667, counts.get(ElementFactory.getMultElementClass()).getCount());
+		assertEquals(133333, counts.get(ElementFactory.getAddElementClass()).getCount());
+	}
+
+	private static void assertColumnsMatch(StrategyTable table, List<Element> elements, ElementColumns columns) {
+		final FindTotalOperation expectedTotal = new FindTotalOperation();
+		final CountElementOperation expectedCount = new CountElementOperation();
+		table.operateOverCollection(expectedTotal, elements);
+		table.operateOverCollection(expectedCount, elements);
+
+		final FindTotalOperation total = new FindTotalOperation();
+		final CountElementOperation count = new CountElementOperation();
+		table.operateOverCollection(total, columns);
+		table.operateOverCollection(count, columns);
+		assertEquals(expectedTotal.get(), total.get());
+		assertEquals(expectedCount.get(), count.get());
+	}
+
 	// ================================================================================
 	// Setup/teardown
 	// ================================================================================
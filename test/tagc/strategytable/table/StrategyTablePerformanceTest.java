@@ -0,0 +1,149 @@
+package tagc.strategytable.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import tagc.strategytable.element.Element;
+import tagc.strategytable.element.ElementFactory;
+import tagc.strategytable.operation.CountElementOperation;
+import tagc.strategytable.operation.FindTotalOperation;
+import tagc.strategytable.operation.Operation;
+import tagc.strategytable.strategy.AddTotalOperationStrategy;
+import tagc.strategytable.strategy.CountElementOperationStrategy;
+import tagc.strategytable.strategy.MultTotalOperationStrategy;
+
+public class StrategyTablePerformanceTest {
+
+	private static final Set<Class<? extends Element>> BASE_ELEMENTS = new HashSet<Class<? extends Element>>(
+			Arrays.asList(ElementFactory.getAddElementClass(), ElementFactory.getMultElementClass()));
+
+	private static final Set<Class<? extends Element>> DECORATIONS = new HashSet<Class<? extends Element>>(
+			Arrays.asList(ElementFactory.getIgnoreElementDecoratorClass(),
+					ElementFactory.getReverseElementDecoratorClass()));
+
+	private static final Set<Class<? extends Operation<?, ?>>> OPERATIONS = new HashSet<Class<? extends Operation<?, ?>>>(
+			Arrays.asList(FindTotalOperation.class, CountElementOperation.class));
+
+	private static final int[] DECORATION_DEPTHS = { 0, 1, 10, 100, 1000, 10000 };
+
+	/*
+	 * Each run applies the operations to roughly the same number of
+	 * decorations in total, so the time per decoration level should stay
+	 * roughly flat as the depth increases.
+	 */
+	private static final int DECORATIONS_PER_RUN = 10000000;
+
+	private static final int SPARSE_ELEMENTS = 1000000;
+	private static final int SPARSE_RUNS = 20;
+
+	private static StrategyTable createTable(StrategyTablePolicy policy) {
+		final StrategyTable table = new StrategyTable(BASE_ELEMENTS, DECORATIONS, OPERATIONS, policy);
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getAddElementClass(),
+				new AddTotalOperationStrategy());
+		table.registerOperationStrategy(FindTotalOperation.class, ElementFactory.getMultElementClass(),
+				new MultTotalOperationStrategy());
+		table.registerOperationStrategies(CountElementOperation.class, new CountElementOperationStrategy());
+		return table;
+	}
+
+	private static List<Element> createDecoratedElements(int count, int depth) {
+		final List<Element> elements = new ArrayList<Element>();
+		for (int i = 0; i < count; i++) {
+			Element e = ElementFactory.createAddElement(i % 10);
+			for (int j = 0; j < depth; j++) {
+				e = ElementFactory.addReverseDecoration(e);
+			}
+
+			elements.add(e);
+		}
+
+		return elements;
+	}
+
+	private static void operateOverDecoratedElements(StrategyTablePolicy policy, int depth) {
+		final StrategyTable table = createTable(policy);
+		final List<Element> elements = createDecoratedElements(Math.max(1, DECORATIONS_PER_RUN / (depth + 1)),
+				depth);
+
+		final long startTime = System.nanoTime();
+		final CountElementOperation countOperation = new CountElementOperation();
+		final FindTotalOperation totalOperation = new FindTotalOperation();
+		table.operateOverCollection(countOperation, elements);
+		table.operateOverCollection(totalOperation, elements);
+
+		final long executionTime = System.nanoTime() - startTime;
+		System.out.printf("Policy: %s, Depth: %d, Elements: %d, Execution time: %s ms\n", policy, depth,
+				elements.size(), TimeUnit.MILLISECONDS.convert(executionTime, TimeUnit.NANOSECONDS));
+	}
+
+	/*
+	 * Only one element in twenty is handled by a strategy that does any work,
+	 * so a typed element bag should take a fraction of the time that a list
+	 * does.
+	 */
+	private static void operateOverSparseElements(Collection<Element> elements, String description) {
+		final StrategyTable table = createTable(StrategyTablePolicy.DEFAULT);
+		table.registerNullElementStrategies(ElementFactory.getIgnoreElementDecoratorClass());
+		for (int i = 0; i < SPARSE_ELEMENTS; i++) {
+			final Element e = ElementFactory.createAddElement(i % 10);
+			elements.add(i % 20 == 0 ? e : ElementFactory.addIgnoreDecoration(e));
+		}
+
+		final long startTime = System.nanoTime();
+		final FindTotalOperation totalOperation = new FindTotalOperation();
+		for (int i = 0; i < SPARSE_RUNS; i++) {
+			table.operateOverCollection(totalOperation, elements);
+		}
+
+		final long executionTime = System.nanoTime() - startTime;
+		System.out.printf("Collection: %s, Elements: %d, Runs: %d, Execution time: %s ms\n", description,
+				elements.size(), SPARSE_RUNS, TimeUnit.MILLISECONDS.convert(executionTime, TimeUnit.NANOSECONDS));
+	}
+
+	/*
+	 * Columns should be processed by a bulk kernel, so they should be much
+	 * faster than the equivalent list of elements.
+	 */
+	private static void operateOverColumns(List<Element> elements, String description) {
+		final StrategyTable table = createTable(StrategyTablePolicy.DEFAULT);
+		table.registerNullElementStrategies(ElementFactory.getIgnoreElementDecoratorClass());
+		for (int i = 0; i < SPARSE_ELEMENTS; i++) {
+			final Element e = ElementFactory.createAddElement(i % 10);
+			elements.add(i % 3 == 0 ? e : i % 3 == 1 ? ElementFactory.addReverseDecoration(e) : ElementFactory
+					.addIgnoreDecoration(e));
+		}
+
+		final long startTime = System.nanoTime();
+		final FindTotalOperation totalOperation = new FindTotalOperation();
+		final CountElementOperation countOperation = new CountElementOperation();
+		for (int i = 0; i < SPARSE_RUNS; i++) {
+			table.operateOverCollection(totalOperation, elements);
+			table.operateOverCollection(countOperation, elements);
+		}
+
+		final long executionTime = System.nanoTime() - startTime;
+		System.out.printf("Collection: %s, Elements: %d, Runs: %d, Execution time: %s ms\n", description,
+				elements.size(), SPARSE_RUNS, TimeUnit.MILLISECONDS.convert(executionTime, TimeUnit.NANOSECONDS));
+	}
+
+	public static void main(String[] args) {
+		/*
+		 * Only bypass tables are used here because substituting deeply
+		 * reversed elements would make the addition strategy recurse through
+		 * every decorator's value.
+		 */
+		for (int depth : DECORATION_DEPTHS) {
+			operateOverDecoratedElements(StrategyTablePolicy.BYPASS, depth);
+		}
+
+		operateOverSparseElements(new ArrayList<Element>(), "list");
+		operateOverSparseElements(new TypedElementBag(), "typed bag");
+		operateOverColumns(new ArrayList<Element>(), "element list");
+		operateOverColumns(new ElementColumns(), "element columns");
+	}
+}